@@ -7,6 +7,8 @@
  */
 package org.opensmartgridplatform.core.db.api.iec61850.application.services;
 
+import java.util.List;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,4 +26,13 @@ public class LmdDataService {
     public LightMeasurementDevice findDevice(final String deviceIdentification) {
         return this.lmdDataRepository.findByDeviceIdentification(deviceIdentification);
     }
+
+    /**
+     * Find the light measurement devices using a digital input from
+     * firstDigitalInput up to and including lastDigitalInput.
+     */
+    public List<LightMeasurementDevice> findByDigitalInputBetween(final short firstDigitalInput,
+            final short lastDigitalInput) {
+        return this.lmdDataRepository.findByDigitalInputBetween(firstDigitalInput, lastDigitalInput);
+    }
 }
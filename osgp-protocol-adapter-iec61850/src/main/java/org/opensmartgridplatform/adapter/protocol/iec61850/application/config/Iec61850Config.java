@@ -32,6 +32,8 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850Device;
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAdapterException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec.MessageCodec;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec.ObjectMessageCodec;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850ChannelHandlerServer;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.RegisterDeviceRequestDecoder;
 import org.opensmartgridplatform.shared.application.config.AbstractConfig;
@@ -48,6 +50,10 @@ public class Iec61850Config extends AbstractConfig {
     private static final String DEFAULT_PROPERTY_MESSAGE = "Using default value {} for property {}";
     private static final String PROPERTY_IS_VALUE = "{}={}";
 
+    private static final String DEFAULT_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES = "GET_STATUS,GET_LIGHT_STATUS,"
+            + "GET_TARIFF_STATUS,GET_LIGHT_SENSOR_STATUS,GET_DATA,GET_POWER_QUALITY_VALUES,GET_HEALTH_STATUS,"
+            + "GET_DEVICE_MODEL,GET_CONFIGURATION,GET_FIRMWARE_VERSION";
+
     private static final String PROPERTY_NAME_IEC61850_TIMEOUT_CONNECT = "iec61850.timeout.connect";
     private static final String PROPERTY_NAME_IEC61850_PORT_CLIENT = "iec61850.port.client";
     private static final String PROPERTY_NAME_IEC61850_PORT_CLIENTLOCAL = "iec61850.port.clientlocal";
@@ -58,12 +64,75 @@ public class Iec61850Config extends AbstractConfig {
     private static final String PROPERTY_NAME_IEC61850_DELAY_AFTER_DEVICE_REGISTRATION = "iec61850.delay.after.device.registration";
     private static final String PROPERTY_NAME_IEC61850_IS_REPORTING_AFTER_DEVICE_REGISTRATION_ENABLED = "iec61850.is.reporting.after.device.registration.enabled";
     private static final String PROPERTY_NAME_IEC61850_DISCONNECT_DELAY = "iec61850.disconnect.delay";
+    private static final String PROPERTY_NAME_IEC61850_DISCONNECT_THREADS = "iec61850.disconnect.threads";
 
     private static final String PROPERTY_NAME_IEC61850_ICD_FILE_PATH = "iec61850.icd.file.path";
     private static final String PROPERTY_NAME_IEC61850_ICD_FILE_USE = "iec61850.icd.file.use";
 
     private static final String PROPERTY_NAME_IEC61850_ICD_FILES_FOLDER = "iec61850.icd.files.folder";
 
+    private static final String PROPERTY_NAME_IEC61850_SERVER_MODEL_CACHE_ENABLED = "iec61850.server.model.cache.enabled";
+    private static final String PROPERTY_NAME_IEC61850_SERVER_MODEL_CACHE_FINGERPRINT_ENABLED = "iec61850.server.model.cache.fingerprint.enabled";
+
+    private static final String PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_ENABLED = "iec61850.ssld.connection.pool.enabled";
+    private static final String PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_SIZE = "iec61850.ssld.connection.pool.max.size";
+    private static final String PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_PER_DEVICE = "iec61850.ssld.connection.pool.max.per.device";
+    private static final String PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_IDLE_TIME = "iec61850.ssld.connection.pool.max.idle.time";
+    private static final String PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_LIFETIME = "iec61850.ssld.connection.pool.max.lifetime";
+    private static final String PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_ACQUIRE_TIMEOUT = "iec61850.ssld.connection.pool.acquire.timeout";
+
+    private static final String PROPERTY_NAME_IEC61850_CONNECTION_HEALTH_MAX_INACTIVITY = "iec61850.connection.health.max.inactivity";
+    private static final String PROPERTY_NAME_IEC61850_CONNECTION_HEALTH_PING_INTERVAL = "iec61850.connection.health.ping.interval";
+
+    private static final String PROPERTY_NAME_IEC61850_CONNECTION_CACHE_MAX_SIZE = "iec61850.connection.cache.max.size";
+    private static final String PROPERTY_NAME_IEC61850_CONNECTION_CACHE_MAX_IDLE_TIME = "iec61850.connection.cache.max.idle.time";
+
+    private static final String PROPERTY_NAME_IEC61850_CONNECT_MAX_CONCURRENT = "iec61850.connect.max.concurrent";
+    private static final String PROPERTY_NAME_IEC61850_CONNECT_MAX_QUEUED = "iec61850.connect.max.queued";
+    private static final String PROPERTY_NAME_IEC61850_CONNECT_MAX_WAIT = "iec61850.connect.max.wait";
+
+    private static final String PROPERTY_NAME_IEC61850_CIRCUIT_BREAKER_FAILURE_THRESHOLD = "iec61850.circuit.breaker.failure.threshold";
+    private static final String PROPERTY_NAME_IEC61850_CIRCUIT_BREAKER_BACKOFF = "iec61850.circuit.breaker.backoff";
+    private static final String PROPERTY_NAME_IEC61850_CIRCUIT_BREAKER_MAX_BACKOFF = "iec61850.circuit.breaker.max.backoff";
+
+    private static final String PROPERTY_NAME_IEC61850_RTU_DATA_SET_POLLING_ENABLED = "iec61850.rtu.data.set.polling.enabled";
+    private static final String PROPERTY_NAME_IEC61850_RTU_DATA_SET_POLLING_MAX_DATA_SETS = "iec61850.rtu.data.set.polling.max.data.sets";
+
+    private static final String PROPERTY_NAME_IEC61850_REPORT_QUEUE_WORKERS = "iec61850.report.queue.workers";
+    private static final String PROPERTY_NAME_IEC61850_REPORT_QUEUE_CAPACITY = "iec61850.report.queue.capacity";
+    private static final String PROPERTY_NAME_IEC61850_REPORT_QUEUE_OVERFLOW_POLICY = "iec61850.report.queue.overflow.policy";
+
+    private static final String PROPERTY_NAME_IEC61850_DEVICE_SETTINGS_CACHE_TIME_TO_LIVE = "iec61850.device.settings.cache.time.to.live";
+
+    private static final String PROPERTY_NAME_IEC61850_REPORT_ENTRY_FLUSH_INTERVAL = "iec61850.report.entry.flush.interval";
+
+    private static final String PROPERTY_NAME_IEC61850_REPORT_TRACE_SAMPLE_INTERVAL = "iec61850.report.trace.sample.interval";
+
+    private static final String PROPERTY_NAME_IEC61850_MEASUREMENT_BATCH_MAX_LATENCY = "iec61850.measurement.batch.max.latency";
+    private static final String PROPERTY_NAME_IEC61850_MEASUREMENT_BATCH_MAX_SIZE = "iec61850.measurement.batch.max.size";
+
+    private static final String PROPERTY_NAME_IEC61850_EVENT_NOTIFICATION_BATCH_MAX_LATENCY = "iec61850.event.notification.batch.max.latency";
+    private static final String PROPERTY_NAME_IEC61850_EVENT_NOTIFICATION_BATCH_MAX_SIZE = "iec61850.event.notification.batch.max.size";
+
+    private static final String PROPERTY_NAME_IEC61850_LOG_ITEM_BUFFER_SIZE = "iec61850.log.item.buffer.size";
+    private static final String PROPERTY_NAME_IEC61850_LOG_ITEM_BATCH_MAX_SIZE = "iec61850.log.item.batch.max.size";
+    private static final String PROPERTY_NAME_IEC61850_LOG_ITEM_BATCH_MAX_AGE = "iec61850.log.item.batch.max.age";
+    private static final String PROPERTY_NAME_IEC61850_LOG_ITEM_BLOCK_WHEN_BUFFER_FULL = "iec61850.log.item.block.when.buffer.full";
+
+    private static final String PROPERTY_NAME_IEC61850_DEVICE_MESSAGE_LOGGING_ENABLED = "iec61850.device.message.logging.enabled";
+
+    private static final String PROPERTY_NAME_IEC61850_RESPONSES_MESSAGE_CODEC = "iec61850.responses.message.codec";
+    private static final String PROPERTY_NAME_IEC61850_OSGP_REQUESTS_MESSAGE_CODEC = "iec61850.osgp.requests.message.codec";
+
+    private static final String PROPERTY_NAME_IEC61850_JMS_PRODUCER_POOL_SIZE = "iec61850.jms.producer.pool.size";
+    private static final String PROPERTY_NAME_IEC61850_JMS_PRODUCER_POOL_ASYNC_SEND = "iec61850.jms.producer.pool.async.send";
+    private static final String PROPERTY_NAME_IEC61850_JMS_PRODUCER_POOL_METRICS_INTERVAL = "iec61850.jms.producer.pool.metrics.interval";
+
+    private static final String PROPERTY_NAME_IEC61850_DEVICE_REQUEST_PARALLELISM = "iec61850.device.request.parallelism";
+    private static final String PROPERTY_NAME_IEC61850_DEVICE_REQUEST_MAX_WAITING = "iec61850.device.request.max.waiting";
+    private static final String PROPERTY_NAME_IEC61850_DEVICE_REQUEST_COALESCING_ENABLED = "iec61850.device.request.coalescing.enabled";
+    private static final String PROPERTY_NAME_IEC61850_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES = "iec61850.device.request.coalesced.message.types";
+
     private static final String PROPERTY_NAME_IEC61850_IS_BUFFERED_REPORTING_ENABLED = "iec61850.is.buffered.reporting.enabled";
 
     private static final String PROPERTY_NAME_OSLP_DEFAULT_LATITUDE = "iec61850.default.latitude";
@@ -223,6 +292,16 @@ public class Iec61850Config extends AbstractConfig {
         return milliSeconds;
     }
 
+    /**
+     * The number of threads clearing reports and disconnecting from SSLDs
+     * after the disconnect delay. If this property is not set, the default
+     * value of 10 is used.
+     */
+    @Bean
+    public int disconnectThreads() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_DISCONNECT_THREADS, 10);
+    }
+
     @Bean
     public boolean isIcdFileUsed() {
         return Boolean.parseBoolean(this.environment.getRequiredProperty(PROPERTY_NAME_IEC61850_ICD_FILE_USE));
@@ -256,6 +335,500 @@ public class Iec61850Config extends AbstractConfig {
         return filesFolder;
     }
 
+    /**
+     * Used to configure if ServerModel instances are cached as templates, so
+     * connections with devices of the same type get a copy of the model
+     * instead of parsing an ICD file or retrieving the model from the device.
+     * If this property is not set, the default value of true is used.
+     */
+    @Bean
+    public boolean isServerModelCacheEnabled() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_SERVER_MODEL_CACHE_ENABLED, true);
+    }
+
+    /**
+     * Used to configure if ServerModel instances retrieved from devices are
+     * cached by the name plate of the device. A cached model is only used for
+     * a device after its name plate (read using the cached model) matches the
+     * name plate of the device the model was retrieved from. If this property
+     * is not set, the default value of false is used.
+     */
+    @Bean
+    public boolean isServerModelFingerprintCacheEnabled() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_SERVER_MODEL_CACHE_FINGERPRINT_ENABLED, false);
+    }
+
+    /**
+     * Used to configure if connections with SSLDs are kept open in a pool, to
+     * be reused by subsequent requests for the same device. If this property
+     * is not set, the default value of false is used.
+     */
+    @Bean
+    public boolean isSsldConnectionPoolEnabled() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_ENABLED, false);
+    }
+
+    /**
+     * The maximum number of connections with SSLDs kept by the pool. If this
+     * property is not set, the default value of 100 is used.
+     */
+    @Bean
+    public int ssldConnectionPoolMaxSize() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_SIZE, 100);
+    }
+
+    /**
+     * The maximum number of connections in use at the same time for a single
+     * SSLD. If this property is not set, the default value of 1 is used.
+     */
+    @Bean
+    public int ssldConnectionPoolMaxPerDevice() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_PER_DEVICE, 1);
+    }
+
+    /**
+     * How long (in milliseconds) an unused connection is kept in the pool. If
+     * this property is not set, the default value of 60000 milliseconds is
+     * used.
+     */
+    @Bean
+    public int ssldConnectionPoolMaxIdleTime() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_IDLE_TIME, 60000);
+    }
+
+    /**
+     * How long (in milliseconds) a connection may be reused after it has been
+     * established. If this property is not set, the default value of 600000
+     * milliseconds is used.
+     */
+    @Bean
+    public int ssldConnectionPoolMaxLifetime() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_MAX_LIFETIME, 600000);
+    }
+
+    /**
+     * How long (in milliseconds) a request waits for a connection when the
+     * maximum number of connections for the device is in use. If this property
+     * is not set, the default value of 30000 milliseconds is used.
+     */
+    @Bean
+    public int ssldConnectionPoolAcquireTimeout() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_SSLD_CONNECTION_POOL_ACQUIRE_TIMEOUT, 30000);
+    }
+
+    /**
+     * How long (in milliseconds) a cached connection is used without checking
+     * it first, after a report or a response has been received from the
+     * device. If this property is not set, the default value of 60000
+     * milliseconds is used.
+     */
+    @Bean
+    public int connectionHealthMaxInactivity() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CONNECTION_HEALTH_MAX_INACTIVITY, 60000);
+    }
+
+    /**
+     * Interval (in milliseconds) at which cached connections that have been
+     * inactive for at least this interval are pinged in the background. If
+     * this property is not set, the default value of 0 is used, which disables
+     * pinging.
+     */
+    @Bean
+    public int connectionHealthPingInterval() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CONNECTION_HEALTH_PING_INTERVAL, 0);
+    }
+
+    /**
+     * The maximum number of cached connections with devices. If this property
+     * is not set, the default value of 1000 is used.
+     */
+    @Bean
+    public int connectionCacheMaxSize() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CONNECTION_CACHE_MAX_SIZE, 1000);
+    }
+
+    /**
+     * How long (in milliseconds) a cached connection is kept without being
+     * used for requests or receiving reports. If this property is not set, the
+     * default value of 0 is used, which keeps connections until the maximum
+     * number of cached connections is exceeded.
+     */
+    @Bean
+    public int connectionCacheMaxIdleTime() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CONNECTION_CACHE_MAX_IDLE_TIME, 0);
+    }
+
+    /**
+     * The maximum number of connects to devices in progress at the same time.
+     * If this property is not set, the default value of 50 is used.
+     */
+    @Bean
+    public int connectMaxConcurrent() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CONNECT_MAX_CONCURRENT, 50);
+    }
+
+    /**
+     * The maximum number of connects waiting for one of the connects in
+     * progress to finish. Connects beyond this number fail right away. If this
+     * property is not set, the default value of 100 is used.
+     */
+    @Bean
+    public int connectMaxQueued() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CONNECT_MAX_QUEUED, 100);
+    }
+
+    /**
+     * The maximum time in milliseconds a request waits for its connect,
+     * including the time the connect is queued, reading the ServerModel and
+     * enabling reporting. If this property is not set, the default value of
+     * 120000 is used.
+     */
+    @Bean
+    public int connectMaxWait() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CONNECT_MAX_WAIT, 120000);
+    }
+
+    /**
+     * The number of consecutive connection failures after which connects to a
+     * device fail right away, until a probe of the device succeeds. If this
+     * property is not set, the default value of 3 is used. A value of 0
+     * disables this.
+     */
+    @Bean
+    public int circuitBreakerFailureThreshold() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CIRCUIT_BREAKER_FAILURE_THRESHOLD, 3);
+    }
+
+    /**
+     * How long (in milliseconds) to wait before the first probe of a device
+     * that failed to connect. If this property is not set, the default value of
+     * 60000 milliseconds is used.
+     */
+    @Bean
+    public int circuitBreakerBackoff() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CIRCUIT_BREAKER_BACKOFF, 60000);
+    }
+
+    /**
+     * The maximum time (in milliseconds) between probes of a device that failed
+     * to connect, the time is doubled after each failed probe. If this property
+     * is not set, the default value of 900000 milliseconds is used.
+     */
+    @Bean
+    public int circuitBreakerMaxBackoff() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_CIRCUIT_BREAKER_MAX_BACKOFF, 900000);
+    }
+
+    /**
+     * Read the nodes of RTU GetData requests using data sets that are kept on
+     * the device. If this property is not set, the default value of false is
+     * used.
+     */
+    @Bean
+    public boolean isRtuDataSetPollingEnabled() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_RTU_DATA_SET_POLLING_ENABLED, false);
+    }
+
+    /**
+     * The maximum number of data sets kept on an RTU for GetData requests, the
+     * least recently used data set is deleted when it is exceeded. If this
+     * property is not set, the default value of 10 is used.
+     */
+    @Bean
+    public int rtuDataSetPollingMaxDataSets() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_RTU_DATA_SET_POLLING_MAX_DATA_SETS, 10);
+    }
+
+    /**
+     * The number of threads processing the reports received from devices. If
+     * this property is not set, the default value of 10 is used. A value of 0
+     * processes reports on the threads receiving them.
+     */
+    @Bean
+    public int reportQueueWorkers() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_REPORT_QUEUE_WORKERS, 10);
+    }
+
+    /**
+     * The maximum number of reports per device waiting to be processed. If
+     * this property is not set, the default value of 1000 is used.
+     */
+    @Bean
+    public int reportQueueCapacity() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_REPORT_QUEUE_CAPACITY, 1000);
+    }
+
+    /**
+     * What to do with a report for a device with a full queue: BLOCK,
+     * DROP_OLDEST or DROP_NEWEST. If this property is not set, the default
+     * value of BLOCK is used.
+     */
+    @Bean
+    public String reportQueueOverflowPolicy() {
+        final String property = this.environment.getProperty(PROPERTY_NAME_IEC61850_REPORT_QUEUE_OVERFLOW_POLICY);
+        if (StringUtils.isEmpty(property)) {
+            LOGGER.info(DEFAULT_PROPERTY_MESSAGE, "BLOCK", PROPERTY_NAME_IEC61850_REPORT_QUEUE_OVERFLOW_POLICY);
+            return "BLOCK";
+        }
+        LOGGER.info(PROPERTY_IS_VALUE, PROPERTY_NAME_IEC61850_REPORT_QUEUE_OVERFLOW_POLICY, property);
+        return property;
+    }
+
+    /**
+     * The time in milliseconds the settings of a device used to process its
+     * reports are kept in memory before they are loaded from the database
+     * again. If this property is not set, the default value of 300000 is used.
+     * A value of 0 loads the settings for every report.
+     */
+    @Bean
+    public int deviceSettingsCacheTimeToLive() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_DEVICE_SETTINGS_CACHE_TIME_TO_LIVE, 300000);
+    }
+
+    /**
+     * The interval in milliseconds at which the last report entries of
+     * buffered reports are written to the database. If this property is not
+     * set, the default value of 1000 is used. A value of 0 writes the last
+     * report entry for every report.
+     */
+    @Bean
+    public int reportEntryFlushInterval() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_REPORT_ENTRY_FLUSH_INTERVAL, 1000);
+    }
+
+    /**
+     * Trace one in every this number of reports per device, when the report
+     * trace is enabled in the logging configuration. If this property is not
+     * set, the default value of 1 is used.
+     */
+    @Bean
+    public int reportTraceSampleInterval() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_REPORT_TRACE_SAMPLE_INTERVAL, 1);
+    }
+
+    /**
+     * The maximum time in milliseconds the measurements of RTU reports are
+     * held back, to be sent together with the measurements of other reports of
+     * the same device. If this property is not set, the default value of 0 is
+     * used, sending the measurements of every report separately.
+     */
+    @Bean
+    public int measurementBatchMaxLatency() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_MEASUREMENT_BATCH_MAX_LATENCY, 0);
+    }
+
+    /**
+     * The maximum number of RTU reports of which the measurements are sent
+     * together. If this property is not set, the default value of 50 is used.
+     */
+    @Bean
+    public int measurementBatchMaxSize() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_MEASUREMENT_BATCH_MAX_SIZE, 50);
+    }
+
+    /**
+     * The maximum time in milliseconds event notifications are held back, to
+     * be sent together with other event notifications of the same device. If
+     * this property is not set, the default value of 0 is used, sending event
+     * notifications right away.
+     */
+    @Bean
+    public int eventNotificationBatchMaxLatency() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_EVENT_NOTIFICATION_BATCH_MAX_LATENCY, 0);
+    }
+
+    /**
+     * The maximum number of event notifications of a device sent together. If
+     * this property is not set, the default value of 100 is used.
+     */
+    @Bean
+    public int eventNotificationBatchMaxSize() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_EVENT_NOTIFICATION_BATCH_MAX_SIZE, 100);
+    }
+
+    /**
+     * The maximum number of device message log items waiting to be sent to
+     * the log item queue. If this property is not set, the default value of
+     * 10000 is used. With a value of 0, log items are sent right away on the
+     * thread communicating with the device.
+     */
+    @Bean
+    public int logItemBufferSize() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_LOG_ITEM_BUFFER_SIZE, 10000);
+    }
+
+    /**
+     * The maximum number of log items sent to the log item queue in one
+     * session. If this property is not set, the default value of 100 is used.
+     */
+    @Bean
+    public int logItemBatchMaxSize() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_LOG_ITEM_BATCH_MAX_SIZE, 100);
+    }
+
+    /**
+     * The maximum time in milliseconds a log item waits for other log items
+     * to be sent with. If this property is not set, the default value of 1000
+     * is used.
+     */
+    @Bean
+    public int logItemBatchMaxAge() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_LOG_ITEM_BATCH_MAX_AGE, 1000);
+    }
+
+    /**
+     * Whether logging a device message waits for room in a full log item
+     * buffer, instead of dropping the log item. If this property is not set,
+     * the default value of false is used.
+     */
+    @Bean
+    public boolean isLogItemBlockWhenBufferFull() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_LOG_ITEM_BLOCK_WHEN_BUFFER_FULL, false);
+    }
+
+    /**
+     * Whether the messages of device requests and the variables read from and
+     * written to devices are sent to the log item queue. If this property is
+     * not set, the default value of true is used.
+     */
+    @Bean
+    public boolean isDeviceMessageLoggingEnabled() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_DEVICE_MESSAGE_LOGGING_ENABLED, true);
+    }
+
+    /**
+     * The codec of the response messages sent to OSGP: object or compressed.
+     * If this property is not set, the default value of object is used.
+     */
+    @Bean
+    public MessageCodec iec61850ResponsesMessageCodec() {
+        return this.getMessageCodec(PROPERTY_NAME_IEC61850_RESPONSES_MESSAGE_CODEC);
+    }
+
+    /**
+     * The codec of the request messages sent to OSGP: object or compressed. If
+     * this property is not set, the default value of object is used.
+     */
+    @Bean
+    public MessageCodec osgpRequestsMessageCodec() {
+        return this.getMessageCodec(PROPERTY_NAME_IEC61850_OSGP_REQUESTS_MESSAGE_CODEC);
+    }
+
+    /**
+     * The maximum number of long-lived sessions and producers used to send
+     * messages to each of the responses, log item and OSGP requests queues. If
+     * this property is not set, the default value of 0 is used, sending every
+     * message with a new session and producer.
+     */
+    @Bean
+    public int jmsProducerPoolSize() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_JMS_PRODUCER_POOL_SIZE, 0);
+    }
+
+    /**
+     * Whether response messages are sent asynchronously, so the thread
+     * creating the response does not wait for the broker. If this property is
+     * not set, the default value of false is used.
+     */
+    @Bean
+    public boolean isJmsProducerPoolAsyncSend() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_JMS_PRODUCER_POOL_ASYNC_SEND, false);
+    }
+
+    /**
+     * The interval in milliseconds at which the number of messages sent by the
+     * producer pools is logged. If this property is not set, the default value
+     * of 300000 is used. A value of 0 disables logging.
+     */
+    @Bean
+    public int jmsProducerPoolMetricsInterval() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_JMS_PRODUCER_POOL_METRICS_INTERVAL, 300000);
+    }
+
+    /**
+     * The number of requests for one device that are processed at the same
+     * time. If this property is not set, the default value of 0 is used,
+     * which processes requests as soon as they are received.
+     */
+    @Bean
+    public int deviceRequestParallelism() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_DEVICE_REQUEST_PARALLELISM, 0);
+    }
+
+    /**
+     * The number of requests for one device that may wait for the requests
+     * being processed. Requests beyond this number are redelivered later. If
+     * this property is not set, the default value of 2 is used.
+     */
+    @Bean
+    public int deviceRequestMaxWaiting() {
+        return this.getOptionalIntegerProperty(PROPERTY_NAME_IEC61850_DEVICE_REQUEST_MAX_WAITING, 2);
+    }
+
+    /**
+     * Whether identical read requests waiting for the same device are answered
+     * by a single device call. If this property is not set, the default value
+     * of true is used.
+     */
+    @Bean
+    public boolean isDeviceRequestCoalescingEnabled() {
+        return this.getOptionalBooleanProperty(PROPERTY_NAME_IEC61850_DEVICE_REQUEST_COALESCING_ENABLED, true);
+    }
+
+    /**
+     * The comma separated message types of the read requests that may be
+     * coalesced. If this property is not set, the default value of
+     * {@value #DEFAULT_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES} is used.
+     */
+    @Bean
+    public String deviceRequestCoalescedMessageTypes() {
+        final String property = this.environment
+                .getProperty(PROPERTY_NAME_IEC61850_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES);
+        if (StringUtils.isEmpty(property)) {
+            LOGGER.info(DEFAULT_PROPERTY_MESSAGE, DEFAULT_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES,
+                    PROPERTY_NAME_IEC61850_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES);
+            return DEFAULT_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES;
+        }
+        LOGGER.info(PROPERTY_IS_VALUE, PROPERTY_NAME_IEC61850_DEVICE_REQUEST_COALESCED_MESSAGE_TYPES, property);
+        return property;
+    }
+
+    private MessageCodec getMessageCodec(final String propertyName) {
+        final String property = this.environment.getProperty(propertyName);
+        if (StringUtils.isEmpty(property)) {
+            LOGGER.info(DEFAULT_PROPERTY_MESSAGE, ObjectMessageCodec.NAME, propertyName);
+            return new ObjectMessageCodec();
+        }
+        LOGGER.info(PROPERTY_IS_VALUE, propertyName, property);
+        return MessageCodec.forName(property);
+    }
+
+    private int getOptionalIntegerProperty(final String propertyName, final int defaultValue) {
+        final String property = this.environment.getProperty(propertyName);
+        int value;
+        if (StringUtils.isEmpty(property)) {
+            value = defaultValue;
+            LOGGER.info(DEFAULT_PROPERTY_MESSAGE, value, propertyName);
+        } else {
+            value = Integer.parseInt(property);
+            LOGGER.info(PROPERTY_IS_VALUE, propertyName, value);
+        }
+        return value;
+    }
+
+    private boolean getOptionalBooleanProperty(final String propertyName, final boolean defaultValue) {
+        final String property = this.environment.getProperty(propertyName);
+        boolean value;
+        if (StringUtils.isEmpty(property)) {
+            value = defaultValue;
+            LOGGER.info(DEFAULT_PROPERTY_MESSAGE, value, propertyName);
+        } else {
+            value = Boolean.parseBoolean(property);
+            LOGGER.info(PROPERTY_IS_VALUE, propertyName, value);
+        }
+        return value;
+    }
+
     @Bean
     public Boolean isBufferedReportingEnabled() {
         final Boolean isBufferedReportingEnabled = Boolean.parseBoolean(
@@ -7,9 +7,12 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.application.config;
 
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.DeviceRequestDispatcher;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.DeviceRequestMessageListener;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.DeviceResponseMessageSender;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.Iec61850LogItemRequestMessageQueue;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.Iec61850LogItemRequestMessageSender;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.JmsProducerPool;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.OsgpRequestMessageSender;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.OsgpResponseMessageListener;
 import org.opensmartgridplatform.adapter.protocol.iec61850.services.DeviceMessageLoggingService;
@@ -76,6 +79,14 @@ public class MessagingConfig extends AbstractMessagingConfig {
         return new BaseMessageProcessorMap("DeviceRequestMessageProcessorMap");
     }
 
+    @Bean
+    public DeviceRequestDispatcher deviceRequestDispatcher(final int deviceRequestParallelism,
+            final int deviceRequestMaxWaiting, final boolean isDeviceRequestCoalescingEnabled,
+            final String deviceRequestCoalescedMessageTypes) {
+        return new DeviceRequestDispatcher(this.iec61850ResponseMessageSender(), deviceRequestParallelism,
+                deviceRequestMaxWaiting, isDeviceRequestCoalescingEnabled, deviceRequestCoalescedMessageTypes);
+    }
+
     // === JMS SETTINGS: IEC61850 RESPONSES ===
 
     @Bean
@@ -88,6 +99,13 @@ public class MessagingConfig extends AbstractMessagingConfig {
         return iec61850ResponseJmsConfiguration.getJmsTemplate();
     }
 
+    @Bean(destroyMethod = "close")
+    public JmsProducerPool iec61850ResponsesProducerPool(final JmsTemplate iec61850ResponsesJmsTemplate,
+            final int jmsProducerPoolSize, final int jmsProducerPoolMetricsInterval) {
+        return new JmsProducerPool("responses", iec61850ResponsesJmsTemplate, jmsProducerPoolSize,
+                jmsProducerPoolMetricsInterval);
+    }
+
     @Bean
     public DeviceResponseMessageSender iec61850ResponseMessageSender() {
         return new DeviceResponseMessageSender();
@@ -107,11 +125,23 @@ public class MessagingConfig extends AbstractMessagingConfig {
         return iec61850LogItemRequestJmsConfiguration.getJmsTemplate();
     }
 
+    @Bean(destroyMethod = "close")
+    public JmsProducerPool iec61850LogItemRequestsProducerPool(final JmsTemplate iec61850LogItemRequestsJmsTemplate,
+            final int jmsProducerPoolSize, final int jmsProducerPoolMetricsInterval) {
+        return new JmsProducerPool("log-item-requests", iec61850LogItemRequestsJmsTemplate, jmsProducerPoolSize,
+                jmsProducerPoolMetricsInterval);
+    }
+
     @Bean
     public Iec61850LogItemRequestMessageSender iec61850LogItemRequestMessageSender() {
         return new Iec61850LogItemRequestMessageSender();
     }
 
+    @Bean
+    public Iec61850LogItemRequestMessageQueue iec61850LogItemRequestMessageQueue() {
+        return new Iec61850LogItemRequestMessageQueue();
+    }
+
     // === OSGP REQUESTS ===
 
     @Bean
@@ -124,6 +154,13 @@ public class MessagingConfig extends AbstractMessagingConfig {
         return osgpRequestJmsConfiguration.getJmsTemplate();
     }
 
+    @Bean(destroyMethod = "close")
+    public JmsProducerPool osgpRequestsProducerPool(final JmsTemplate osgpRequestsJmsTemplate,
+            final int jmsProducerPoolSize, final int jmsProducerPoolMetricsInterval) {
+        return new JmsProducerPool("osgp-requests", osgpRequestsJmsTemplate, jmsProducerPoolSize,
+                jmsProducerPoolMetricsInterval);
+    }
+
     @Bean
     public OsgpRequestMessageSender osgpRequestMessageSender() {
         return new OsgpRequestMessageSender();
@@ -151,7 +188,8 @@ public class MessagingConfig extends AbstractMessagingConfig {
     // === DEVICE MESSAGE LOGGING ===
 
     @Bean
-    public DeviceMessageLoggingService deviceMessageLoggingService() {
-        return new DeviceMessageLoggingService(this.iec61850LogItemRequestMessageSender());
+    public DeviceMessageLoggingService deviceMessageLoggingService(final boolean isDeviceMessageLoggingEnabled) {
+        return new DeviceMessageLoggingService(this.iec61850LogItemRequestMessageQueue(),
+                isDeviceMessageLoggingEnabled);
     }
 }
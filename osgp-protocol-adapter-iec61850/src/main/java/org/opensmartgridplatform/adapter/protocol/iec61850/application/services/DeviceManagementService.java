@@ -7,8 +7,8 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.application.services;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.opensmartgridplatform.dto.da.GetPQValuesResponseDto;
 import org.slf4j.Logger;
@@ -18,10 +18,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850DeviceReportGroup;
-import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850DeviceReportGroupRepository;
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAdapterException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.DeviceResponseMessageSender;
-import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.OsgpRequestMessageSender;
 import org.opensmartgridplatform.core.db.api.iec61850.entities.DeviceOutputSetting;
 import org.opensmartgridplatform.core.db.api.iec61850.entities.LightMeasurementDevice;
 import org.opensmartgridplatform.core.db.api.iec61850.entities.Ssld;
@@ -32,7 +30,6 @@ import org.opensmartgridplatform.dto.valueobjects.EventNotificationDto;
 import org.opensmartgridplatform.dto.valueobjects.microgrids.GetDataResponseDto;
 import org.opensmartgridplatform.shared.infra.jms.DeviceMessageMetadata;
 import org.opensmartgridplatform.shared.infra.jms.ProtocolResponseMessage;
-import org.opensmartgridplatform.shared.infra.jms.RequestMessage;
 import org.opensmartgridplatform.shared.infra.jms.ResponseMessageResultType;
 
 @Service(value = "iec61850DeviceManagementService")
@@ -47,13 +44,16 @@ public class DeviceManagementService {
     private LmdDataRepository lmdDataRepository;
 
     @Autowired
-    private Iec61850DeviceReportGroupRepository deviceReportGroupRepository;
+    private DeviceSettingsCache deviceSettingsCache;
 
     @Autowired
-    private OsgpRequestMessageSender osgpRequestMessageSender;
+    private DeviceResponseMessageSender responseSender;
 
     @Autowired
-    private DeviceResponseMessageSender responseSender;
+    private MeasurementPublisher measurementPublisher;
+
+    @Autowired
+    private EventNotificationBatcher eventNotificationBatcher;
 
     public DeviceManagementService() {
         // Parameterless constructor required for transactions...
@@ -65,16 +65,14 @@ public class DeviceManagementService {
     }
 
     /**
-     * Find the 4 real light measurement devices. These devices are using
-     * digital input 1, 2, 3 and 4.
+     * Returns the 4 real light measurement devices by the index of the SPGGIO
+     * logical node reporting their digital input, from the device settings
+     * cache.
      *
-     * @return List of 4 {@link LightMeasurementDevice}.
+     * @return Map of {@link LightMeasurementDevice} by SPGGIO index.
      */
-    @Transactional(value = "iec61850OsgpCoreDbApiTransactionManager", readOnly = true)
-    public List<LightMeasurementDevice> findRealLightMeasurementDevices() {
-        final short start = 1;
-        final short end = 4;
-        return this.lmdDataRepository.findByDigitalInputBetween(start, end);
+    public Map<Integer, LightMeasurementDevice> getRealLightMeasurementDevicesBySpggioIndex() {
+        return this.deviceSettingsCache.getRealLightMeasurementDevicesBySpggioIndex();
     }
 
     public LightMeasurementDevice findLightMeasurementDevice(final String deviceIdentification) {
@@ -82,7 +80,9 @@ public class DeviceManagementService {
     }
 
     /**
-     * Send an event notification to OSGP Core.
+     * Send event notifications to OSGP Core. The notifications may be held
+     * back for a short while, to be sent together with other notifications of
+     * the device.
      *
      * @param deviceIdentification
      *            The identification of the device.
@@ -92,26 +92,18 @@ public class DeviceManagementService {
      * @throws ProtocolAdapterException
      *             In case the device can not be found in the database.
      */
-    @Transactional(value = "iec61850OsgpCoreDbApiTransactionManager", readOnly = true)
     public void addEventNotifications(final String deviceIdentification,
             final List<EventNotificationDto> eventNotifications) throws ProtocolAdapterException {
 
-        final Ssld ssldDevice = this.ssldDataRepository.findByDeviceIdentification(deviceIdentification);
-        if (ssldDevice == null) {
-            final LightMeasurementDevice lmd = this.lmdDataRepository.findByDeviceIdentification(deviceIdentification);
-            if (lmd == null) {
-
-                throw new ProtocolAdapterException(
-                        "Unable to find device using deviceIdentification: " + deviceIdentification);
-            }
+        if (!this.deviceSettingsCache.isSsldOrLmd(deviceIdentification)) {
+            throw new ProtocolAdapterException(
+                    "Unable to find device using deviceIdentification: " + deviceIdentification);
         }
 
-        LOGGER.info("addEventNotifications called for device {}: {}", deviceIdentification, eventNotifications);
-
-        final RequestMessage requestMessage = new RequestMessage("no-correlationUid", "no-organisation",
-                deviceIdentification, new ArrayList<>(eventNotifications));
+        LOGGER.info("addEventNotifications called for device {}: {} notifications", deviceIdentification,
+                eventNotifications.size());
 
-        this.osgpRequestMessageSender.send(requestMessage, DeviceFunctionDto.ADD_EVENT_NOTIFICATION.name());
+        this.eventNotificationBatcher.add(deviceIdentification, eventNotifications);
     }
 
     /**
@@ -138,22 +130,40 @@ public class DeviceManagementService {
         return ssldDevice.getOutputSettings();
     }
 
-    public void sendMeasurements(final String deviceIdentification, final GetDataResponseDto response)
-            throws ProtocolAdapterException {
-        // Correlation ID is generated @ WS adapter, domain+version is
-        // hard-coded
-        // for now
-        final ProtocolResponseMessage responseMessage = new ProtocolResponseMessage.Builder().dataObject(response)
-                .deviceMessageMetadata(new DeviceMessageMetadata(deviceIdentification, "no-organisation",
-                        "no-correlationUid", DeviceFunctionDto.GET_DATA.name(), 0))
-                .result(ResponseMessageResultType.OK).domain("MICROGRIDS").domainVersion("1.0").build();
-        this.responseSender.send(responseMessage);
+    /**
+     * Loads the settings of the device used to process its reports.
+     *
+     * @param deviceIdentification
+     *            The device identification.
+     */
+    public void loadDeviceSettings(final String deviceIdentification) {
+        this.deviceSettingsCache.load(deviceIdentification);
+    }
+
+    /**
+     * Returns whether the LOAD reports of the device contain combined load
+     * measurements.
+     *
+     * @param deviceIdentification
+     *            The device identification.
+     */
+    public boolean useCombinedLoad(final String deviceIdentification) {
+        return this.deviceSettingsCache.useCombinedLoad(deviceIdentification);
+    }
+
+    public void sendMeasurements(final String deviceIdentification, final GetDataResponseDto response,
+            final Runnable onSent) throws ProtocolAdapterException {
+        this.measurementPublisher.publish(deviceIdentification, response, onSent);
     }
 
     public void sendPqValues(final String deviceIdentification, final String reportDataSet,
             final GetPQValuesResponseDto response) throws ProtocolAdapterException {
-        final Iec61850DeviceReportGroup deviceReportGroup = this.deviceReportGroupRepository
-                .findByDeviceIdentificationAndReportDataSet(deviceIdentification, reportDataSet);
+        final Iec61850DeviceReportGroup deviceReportGroup = this.deviceSettingsCache
+                .getDeviceReportGroup(deviceIdentification, reportDataSet);
+        if (deviceReportGroup == null) {
+            throw new ProtocolAdapterException("Unable to find report group for report data set: " + reportDataSet
+                    + " of device: " + deviceIdentification);
+        }
         final ProtocolResponseMessage responseMessage = new ProtocolResponseMessage.Builder().dataObject(response)
                 .deviceMessageMetadata(new DeviceMessageMetadata(deviceIdentification, "no-organisation",
                         "no-correlationUid", DeviceFunctionDto.GET_POWER_QUALITY_VALUES.name(), 0))
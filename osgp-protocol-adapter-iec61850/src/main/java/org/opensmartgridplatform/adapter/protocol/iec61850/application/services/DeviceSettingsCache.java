@@ -0,0 +1,197 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.application.services;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850Device;
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850DeviceReportGroup;
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850DeviceReportGroupRepository;
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850DeviceRepository;
+import org.opensmartgridplatform.core.db.api.iec61850.application.services.LmdDataService;
+import org.opensmartgridplatform.core.db.api.iec61850.application.services.SsldDataService;
+import org.opensmartgridplatform.core.db.api.iec61850.entities.LightMeasurementDevice;
+
+/**
+ * Keeps the {@link Iec61850Device} settings and
+ * {@link Iec61850DeviceReportGroup}s of devices in memory, so the reports
+ * received from a device can be processed without querying the database.
+ * The real {@link LightMeasurementDevice}s, using digital input 1 to 4, and
+ * the devices known to be an SSLD or LMD are kept as well.
+ * <p>
+ * The settings of a device are loaded when a report listener is created for
+ * the device, and loaded again when they are used after the time to live has
+ * passed. The settings are not changed by the protocol adapter, changes made
+ * to them in the database are used after the time to live at the latest.
+ */
+@Component
+public class DeviceSettingsCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceSettingsCache.class);
+
+    private static final short FIRST_REAL_LMD_DIGITAL_INPUT = 1;
+    private static final short LAST_REAL_LMD_DIGITAL_INPUT = 4;
+
+    private final Map<String, DeviceSettings> settingsPerDevice = new ConcurrentHashMap<>();
+
+    private volatile RealLightMeasurementDevices realLightMeasurementDevices;
+
+    /**
+     * The time at which SSLDs and LMDs have been found, by device
+     * identification.
+     */
+    private final Map<String, Long> ssldOrLmdFoundAt = new ConcurrentHashMap<>();
+
+    @Autowired
+    private Iec61850DeviceRepository iec61850DeviceRepository;
+
+    @Autowired
+    private Iec61850DeviceReportGroupRepository iec61850DeviceReportGroupRepository;
+
+    @Autowired
+    private LmdDataService lmdDataService;
+
+    @Autowired
+    private SsldDataService ssldDataService;
+
+    @Autowired
+    private Boolean defaultUseCombinedLoad;
+
+    @Autowired
+    private int deviceSettingsCacheTimeToLive;
+
+    /**
+     * Loads the settings of the device from the database, replacing the
+     * settings in the cache.
+     */
+    public void load(final String deviceIdentification) {
+        this.settingsPerDevice.put(deviceIdentification, this.loadSettings(deviceIdentification));
+    }
+
+    /**
+     * Returns whether the device is an SSLD or an LMD. Only devices that have
+     * been found are kept, so new devices are found right away. The devices
+     * are looked up in read-only transactions of the core database.
+     */
+    public boolean isSsldOrLmd(final String deviceIdentification) {
+        final Long foundAt = this.ssldOrLmdFoundAt.get(deviceIdentification);
+        if (foundAt != null && this.deviceSettingsCacheTimeToLive > 0
+                && System.currentTimeMillis() - foundAt < this.deviceSettingsCacheTimeToLive) {
+            return true;
+        }
+        if (this.ssldDataService.findDevice(deviceIdentification) == null
+                && this.lmdDataService.findDevice(deviceIdentification) == null) {
+            this.ssldOrLmdFoundAt.remove(deviceIdentification);
+            return false;
+        }
+        this.ssldOrLmdFoundAt.put(deviceIdentification, System.currentTimeMillis());
+        return true;
+    }
+
+    /**
+     * Returns whether the device uses combined load, or the default value if
+     * the device has no {@link Iec61850Device} settings.
+     */
+    public boolean useCombinedLoad(final String deviceIdentification) {
+        return this.getSettings(deviceIdentification).useCombinedLoad;
+    }
+
+    /**
+     * Returns the {@link Iec61850DeviceReportGroup} of the device for the
+     * report data set, or {@code null} if the device has no report group for
+     * the data set.
+     */
+    public Iec61850DeviceReportGroup getDeviceReportGroup(final String deviceIdentification,
+            final String reportDataSet) {
+        return this.getSettings(deviceIdentification).deviceReportGroups.get(reportDataSet);
+    }
+
+    /**
+     * Returns the real light measurement devices by the index of the SPGGIO
+     * logical node reporting their digital input. The devices are loaded in a
+     * read-only transaction of the core database.
+     */
+    public Map<Integer, LightMeasurementDevice> getRealLightMeasurementDevicesBySpggioIndex() {
+        RealLightMeasurementDevices lmds = this.realLightMeasurementDevices;
+        if (lmds == null || lmds.isExpired(this.deviceSettingsCacheTimeToLive)) {
+            LOGGER.debug("Loading real light measurement devices");
+            final Map<Integer, LightMeasurementDevice> lmdsBySpggioIndex = new HashMap<>();
+            for (final LightMeasurementDevice lmd : this.lmdDataService
+                    .findByDigitalInputBetween(FIRST_REAL_LMD_DIGITAL_INPUT, LAST_REAL_LMD_DIGITAL_INPUT)) {
+                lmdsBySpggioIndex.put(lmd.getDigitalInput().intValue(), lmd);
+            }
+            lmds = new RealLightMeasurementDevices(Collections.unmodifiableMap(lmdsBySpggioIndex));
+            this.realLightMeasurementDevices = lmds;
+        }
+        return lmds.bySpggioIndex;
+    }
+
+    private DeviceSettings getSettings(final String deviceIdentification) {
+        DeviceSettings settings = this.settingsPerDevice.get(deviceIdentification);
+        if (settings == null || settings.isExpired(this.deviceSettingsCacheTimeToLive)) {
+            settings = this.loadSettings(deviceIdentification);
+            this.settingsPerDevice.put(deviceIdentification, settings);
+        }
+        return settings;
+    }
+
+    private DeviceSettings loadSettings(final String deviceIdentification) {
+        LOGGER.debug("Loading settings of device: {}", deviceIdentification);
+
+        final Iec61850Device device = this.iec61850DeviceRepository.findByDeviceIdentification(deviceIdentification);
+        final boolean useCombinedLoad = device == null ? Boolean.TRUE.equals(this.defaultUseCombinedLoad)
+                : device.isUseCombinedLoad();
+
+        final List<Iec61850DeviceReportGroup> deviceReportGroups = this.iec61850DeviceReportGroupRepository
+                .findByDeviceIdentification(deviceIdentification);
+        final Map<String, Iec61850DeviceReportGroup> deviceReportGroupPerDataSet = new HashMap<>();
+        for (final Iec61850DeviceReportGroup deviceReportGroup : deviceReportGroups) {
+            deviceReportGroupPerDataSet.put(deviceReportGroup.getReportDataSet(), deviceReportGroup);
+        }
+
+        return new DeviceSettings(useCombinedLoad, Collections.unmodifiableMap(deviceReportGroupPerDataSet));
+    }
+
+    private static class RealLightMeasurementDevices {
+        private final long loadedAt = System.currentTimeMillis();
+        private final Map<Integer, LightMeasurementDevice> bySpggioIndex;
+
+        RealLightMeasurementDevices(final Map<Integer, LightMeasurementDevice> bySpggioIndex) {
+            this.bySpggioIndex = bySpggioIndex;
+        }
+
+        boolean isExpired(final int timeToLive) {
+            return timeToLive <= 0 || System.currentTimeMillis() - this.loadedAt >= timeToLive;
+        }
+    }
+
+    private static class DeviceSettings {
+        private final long loadedAt = System.currentTimeMillis();
+        private final boolean useCombinedLoad;
+        private final Map<String, Iec61850DeviceReportGroup> deviceReportGroups;
+
+        DeviceSettings(final boolean useCombinedLoad,
+                final Map<String, Iec61850DeviceReportGroup> deviceReportGroups) {
+            this.useCombinedLoad = useCombinedLoad;
+            this.deviceReportGroups = deviceReportGroups;
+        }
+
+        boolean isExpired(final int timeToLive) {
+            return timeToLive <= 0 || System.currentTimeMillis() - this.loadedAt >= timeToLive;
+        }
+    }
+}
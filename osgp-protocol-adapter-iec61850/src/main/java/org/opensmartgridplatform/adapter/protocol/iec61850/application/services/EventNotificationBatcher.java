@@ -0,0 +1,161 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.application.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.OsgpRequestMessageSender;
+import org.opensmartgridplatform.dto.valueobjects.DeviceFunctionDto;
+import org.opensmartgridplatform.dto.valueobjects.EventNotificationDto;
+import org.opensmartgridplatform.shared.infra.jms.RequestMessage;
+
+/**
+ * Sends the event notifications of devices to OSGP Core.
+ * <p>
+ * When batching is enabled, the event notifications of a device are collected
+ * for at most the max latency, or until max size notifications have been
+ * collected, and sent ordered by time with a single ADD_EVENT_NOTIFICATION
+ * request message.
+ */
+@Component
+public class EventNotificationBatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventNotificationBatcher.class);
+
+    private static final Comparator<EventNotificationDto> NOTIFICATIONS_BY_TIME = (o1, o2) -> o1.getDateTime()
+            .compareTo(o2.getDateTime());
+
+    private final Map<String, List<EventNotificationDto>> batches = new HashMap<>();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @Autowired
+    private OsgpRequestMessageSender osgpRequestMessageSender;
+
+    @Autowired
+    private int eventNotificationBatchMaxLatency;
+
+    @Autowired
+    private int eventNotificationBatchMaxSize;
+
+    @PostConstruct
+    public void init() {
+        if (this.eventNotificationBatchMaxLatency <= 0) {
+            return;
+        }
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-event-notification-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.flushExecutor == null) {
+            return;
+        }
+        this.flushExecutor.shutdownNow();
+        final Map<String, List<EventNotificationDto>> pendingBatches;
+        synchronized (this.batches) {
+            pendingBatches = new HashMap<>(this.batches);
+            this.batches.clear();
+        }
+        pendingBatches.forEach(this::trySend);
+    }
+
+    public boolean isBatching() {
+        return this.flushExecutor != null;
+    }
+
+    /**
+     * Sends the event notifications, or adds them to the batch of the device
+     * if batching is enabled.
+     */
+    public void add(final String deviceIdentification, final List<EventNotificationDto> eventNotifications) {
+        if (!this.isBatching()) {
+            this.send(deviceIdentification, eventNotifications);
+            return;
+        }
+
+        List<EventNotificationDto> fullBatch = null;
+        synchronized (this.batches) {
+            List<EventNotificationDto> batch = this.batches.get(deviceIdentification);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                this.batches.put(deviceIdentification, batch);
+                this.scheduleFlush(deviceIdentification, batch);
+            }
+            batch.addAll(eventNotifications);
+            if (batch.size() >= this.eventNotificationBatchMaxSize) {
+                this.batches.remove(deviceIdentification);
+                fullBatch = batch;
+            }
+        }
+        if (fullBatch != null) {
+            fullBatch.sort(NOTIFICATIONS_BY_TIME);
+            this.send(deviceIdentification, fullBatch);
+        }
+    }
+
+    private void scheduleFlush(final String deviceIdentification, final List<EventNotificationDto> batch) {
+        try {
+            this.flushExecutor.schedule(() -> this.flush(deviceIdentification, batch),
+                    this.eventNotificationBatchMaxLatency, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            LOGGER.warn("Unable to schedule sending event notifications of device: {}, batcher has been shut down",
+                    deviceIdentification);
+        }
+    }
+
+    private void flush(final String deviceIdentification, final List<EventNotificationDto> batch) {
+        synchronized (this.batches) {
+            // The batch may have been sent already because it was full.
+            if (!this.batches.remove(deviceIdentification, batch)) {
+                return;
+            }
+        }
+        batch.sort(NOTIFICATIONS_BY_TIME);
+        this.trySend(deviceIdentification, batch);
+    }
+
+    private void trySend(final String deviceIdentification, final List<EventNotificationDto> eventNotifications) {
+        try {
+            this.send(deviceIdentification, eventNotifications);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to send {} event notifications of device: {}", eventNotifications.size(),
+                    deviceIdentification, e);
+        }
+    }
+
+    private void send(final String deviceIdentification, final List<EventNotificationDto> eventNotifications) {
+        LOGGER.info("Sending {} event notifications of device: {}", eventNotifications.size(), deviceIdentification);
+        LOGGER.debug("Event notifications of device: {}: {}", deviceIdentification, eventNotifications);
+
+        final RequestMessage requestMessage = new RequestMessage("no-correlationUid", "no-organisation",
+                deviceIdentification, new ArrayList<>(eventNotifications));
+
+        this.osgpRequestMessageSender.send(requestMessage, DeviceFunctionDto.ADD_EVENT_NOTIFICATION.name());
+    }
+}
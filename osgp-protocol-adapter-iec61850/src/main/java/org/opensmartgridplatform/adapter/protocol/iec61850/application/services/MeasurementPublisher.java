@@ -0,0 +1,205 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.application.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.DeviceResponseMessageSender;
+import org.opensmartgridplatform.dto.valueobjects.DeviceFunctionDto;
+import org.opensmartgridplatform.dto.valueobjects.microgrids.GetDataResponseDto;
+import org.opensmartgridplatform.dto.valueobjects.microgrids.GetDataSystemIdentifierDto;
+import org.opensmartgridplatform.shared.infra.jms.DeviceMessageMetadata;
+import org.opensmartgridplatform.shared.infra.jms.ProtocolResponseMessage;
+import org.opensmartgridplatform.shared.infra.jms.ResponseMessageResultType;
+
+/**
+ * Sends the measurements received with reports from RTU devices to OSGP.
+ * <p>
+ * When batching is enabled, the measurements of a device are collected for at
+ * most the max latency, or until max size reports have been collected, and
+ * sent with a single response message containing the systems of all reports.
+ * A response message has room for the details of one report only, so only the
+ * report details of the most recent report in the batch are sent along.
+ * Measurements of different devices are never combined, since a response
+ * message is for a single device.
+ * <p>
+ * The action given with the measurements of a report, like storing the last
+ * report entry, is run only once the measurements have been sent, so a report
+ * that has not been sent is reported again by the device after a reconnect.
+ * When the producer pool sends asynchronously, the action is run on the
+ * sender thread once the message has been sent.
+ */
+@Component
+public class MeasurementPublisher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MeasurementPublisher.class);
+
+    private final Map<String, List<PendingMeasurements>> batches = new HashMap<>();
+
+    private ScheduledExecutorService flushExecutor;
+
+    @Autowired
+    private DeviceResponseMessageSender responseSender;
+
+    @Autowired
+    private int measurementBatchMaxLatency;
+
+    @Autowired
+    private int measurementBatchMaxSize;
+
+    @PostConstruct
+    public void init() {
+        if (this.measurementBatchMaxLatency <= 0 || this.measurementBatchMaxSize <= 1) {
+            return;
+        }
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-measurement-publisher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.flushExecutor == null) {
+            return;
+        }
+        this.flushExecutor.shutdownNow();
+        final Map<String, List<PendingMeasurements>> pendingBatches;
+        synchronized (this.batches) {
+            pendingBatches = new HashMap<>(this.batches);
+            this.batches.clear();
+        }
+        pendingBatches.forEach(this::trySendBatch);
+    }
+
+    public boolean isBatching() {
+        return this.flushExecutor != null;
+    }
+
+    /**
+     * Sends the measurements, or adds them to the batch of the device if
+     * batching is enabled. The onSent action is run after the measurements
+     * have been sent successfully.
+     */
+    public void publish(final String deviceIdentification, final GetDataResponseDto response,
+            final Runnable onSent) {
+        if (!this.isBatching()) {
+            this.send(deviceIdentification, response).addCallback(result -> onSent.run(),
+                    failure -> LOGGER.warn("Measurements of device: {} have not been sent", deviceIdentification));
+            return;
+        }
+
+        List<PendingMeasurements> fullBatch = null;
+        synchronized (this.batches) {
+            List<PendingMeasurements> batch = this.batches.get(deviceIdentification);
+            if (batch == null) {
+                batch = new ArrayList<>();
+                this.batches.put(deviceIdentification, batch);
+                this.scheduleFlush(deviceIdentification, batch);
+            }
+            batch.add(new PendingMeasurements(response, onSent));
+            if (batch.size() >= this.measurementBatchMaxSize) {
+                this.batches.remove(deviceIdentification);
+                fullBatch = batch;
+            }
+        }
+        if (fullBatch != null) {
+            this.sendBatch(deviceIdentification, fullBatch);
+        }
+    }
+
+    private void scheduleFlush(final String deviceIdentification, final List<PendingMeasurements> batch) {
+        try {
+            this.flushExecutor.schedule(() -> this.flush(deviceIdentification, batch),
+                    this.measurementBatchMaxLatency, TimeUnit.MILLISECONDS);
+        } catch (final RejectedExecutionException e) {
+            LOGGER.warn("Unable to schedule sending measurements of device: {}, publisher has been shut down",
+                    deviceIdentification);
+        }
+    }
+
+    private void flush(final String deviceIdentification, final List<PendingMeasurements> batch) {
+        synchronized (this.batches) {
+            // The batch may have been sent already because it was full.
+            if (!this.batches.remove(deviceIdentification, batch)) {
+                return;
+            }
+        }
+        this.trySendBatch(deviceIdentification, batch);
+    }
+
+    private void trySendBatch(final String deviceIdentification, final List<PendingMeasurements> batch) {
+        try {
+            this.sendBatch(deviceIdentification, batch);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to send {} batched measurement responses of device: {}", batch.size(),
+                    deviceIdentification, e);
+        }
+    }
+
+    private void sendBatch(final String deviceIdentification, final List<PendingMeasurements> batch) {
+        final ListenableFuture<Void> result;
+        if (batch.size() == 1) {
+            result = this.send(deviceIdentification, batch.get(0).response);
+        } else {
+            final List<GetDataSystemIdentifierDto> systems = new ArrayList<>();
+            for (final PendingMeasurements pending : batch) {
+                systems.addAll(pending.response.getGetDataSystemIdentifiers());
+            }
+            LOGGER.debug("Sending {} batched measurement responses of device: {}", batch.size(),
+                    deviceIdentification);
+            result = this.send(deviceIdentification,
+                    new GetDataResponseDto(systems, batch.get(batch.size() - 1).response.getReport()));
+        }
+        result.addCallback(sent -> {
+            // In the order the reports were received, so a later entry of a
+            // report replaces an earlier one.
+            for (final PendingMeasurements pending : batch) {
+                pending.onSent.run();
+            }
+        }, failure -> LOGGER.warn("{} batched measurement responses of device: {} have not been sent",
+                batch.size(), deviceIdentification));
+    }
+
+    private ListenableFuture<Void> send(final String deviceIdentification, final GetDataResponseDto response) {
+        // Correlation ID is generated @ WS adapter, domain+version is
+        // hard-coded for now
+        final ProtocolResponseMessage responseMessage = new ProtocolResponseMessage.Builder().dataObject(response)
+                .deviceMessageMetadata(new DeviceMessageMetadata(deviceIdentification, "no-organisation",
+                        "no-correlationUid", DeviceFunctionDto.GET_DATA.name(), 0))
+                .result(ResponseMessageResultType.OK).domain("MICROGRIDS").domainVersion("1.0").build();
+        return this.responseSender.sendWithResult(responseMessage);
+    }
+
+    private static class PendingMeasurements {
+        private final GetDataResponseDto response;
+        private final Runnable onSent;
+
+        PendingMeasurements(final GetDataResponseDto response, final Runnable onSent) {
+            this.response = response;
+            this.onSent = onSent;
+        }
+    }
+}
@@ -7,35 +7,93 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.application.services;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.openmuc.openiec61850.Report;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.orm.jpa.JpaOptimisticLockingFailureException;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
 import org.springframework.transaction.annotation.Transactional;
 
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850ReportEntry;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850ReportEntryRepository;
 
+/**
+ * Keeps track of the last report entry per device and report id, so buffered
+ * reporting can be resynchronized after a reconnect.
+ * <p>
+ * Only the latest entry per device and report id is kept in memory, and
+ * written to the database in batches every flush interval and on shutdown.
+ * Entries waiting to be written are returned when retrieving report entries.
+ */
 @Service(value = "iec61850ReportingService")
 public class ReportingService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(ReportingService.class);
     private static final long IEC61850_ENTRY_TIME_OFFSET = 441763200000L;
 
+    /**
+     * Maximum number of report entries written with a single statement.
+     */
+    private static final int MAX_ENTRIES_PER_STATEMENT = 1000;
+
+    private final Map<ReportEntryKey, Iec61850ReportEntry> pendingReportEntries = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService flushExecutor;
+
     @Autowired
     private Iec61850ReportEntryRepository iec61850ReportEntryRepository;
 
+    @Autowired
+    private int reportEntryFlushInterval;
+
+    @PostConstruct
+    public void init() {
+        if (this.reportEntryFlushInterval <= 0) {
+            return;
+        }
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-report-entry-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flushExecutor.scheduleWithFixedDelay(this::flushReportEntries, this.reportEntryFlushInterval,
+                this.reportEntryFlushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.flushExecutor != null) {
+            this.flushExecutor.shutdownNow();
+            this.flushReportEntries();
+        }
+    }
+
     @Transactional(value = "transactionManager", readOnly = true)
     public Iec61850ReportEntry retrieveReportEntry(final String deviceIdentification, final String reportId) {
+        final Iec61850ReportEntry pendingReportEntry = this.pendingReportEntries
+                .get(new ReportEntryKey(deviceIdentification, reportId));
+        if (pendingReportEntry != null) {
+            return pendingReportEntry;
+        }
         return this.iec61850ReportEntryRepository.findByDeviceIdentificationAndReportId(deviceIdentification, reportId);
     }
 
-    @Transactional(value = "transactionManager")
     public void storeLastReportEntry(final Report report, final String deviceIdentification) {
         if (Objects.isNull(report.getEntryId()) || Objects.isNull(report.getTimeOfEntry())) {
             LOGGER.warn(
@@ -43,25 +101,79 @@ public class ReportingService {
                     report.getRptId(), deviceIdentification);
             return;
         }
-        Iec61850ReportEntry reportEntry = this.iec61850ReportEntryRepository
-                .findByDeviceIdentificationAndReportId(deviceIdentification, report.getRptId());
-        if (reportEntry == null) {
-            reportEntry = new Iec61850ReportEntry(deviceIdentification, report.getRptId(),
-                    report.getEntryId().getValue(),
-                    new Date(report.getTimeOfEntry().getTimestampValue() + IEC61850_ENTRY_TIME_OFFSET));
-            LOGGER.info("Store new last report entry: {}", reportEntry);
+        final Iec61850ReportEntry reportEntry = new Iec61850ReportEntry(deviceIdentification, report.getRptId(),
+                report.getEntryId().getValue(),
+                new Date(report.getTimeOfEntry().getTimestampValue() + IEC61850_ENTRY_TIME_OFFSET));
+        LOGGER.debug("Store last report entry: {}", reportEntry);
+
+        if (this.flushExecutor == null) {
+            this.write(Collections.singletonList(reportEntry));
         } else {
-            reportEntry.updateLastReportEntry(report.getEntryId().getValue(),
-                    new Date(report.getTimeOfEntry().getTimestampValue() + IEC61850_ENTRY_TIME_OFFSET));
-            LOGGER.info("Store updated last report entry: {}", reportEntry);
+            this.pendingReportEntries.put(new ReportEntryKey(deviceIdentification, report.getRptId()), reportEntry);
         }
+    }
+
+    /**
+     * Writes the report entries waiting to be written to the database. Entries
+     * that could not be written are tried again with the next flush, unless
+     * they have been replaced by a later entry in the meantime.
+     */
+    public void flushReportEntries() {
+        if (this.pendingReportEntries.isEmpty()) {
+            return;
+        }
+
+        final List<Map.Entry<ReportEntryKey, Iec61850ReportEntry>> entries = new ArrayList<>(
+                this.pendingReportEntries.entrySet());
+        for (int from = 0; from < entries.size(); from += MAX_ENTRIES_PER_STATEMENT) {
+            final List<Map.Entry<ReportEntryKey, Iec61850ReportEntry>> batch = entries.subList(from,
+                    Math.min(from + MAX_ENTRIES_PER_STATEMENT, entries.size()));
+            final List<Iec61850ReportEntry> reportEntries = new ArrayList<>(batch.size());
+            batch.forEach(entry -> reportEntries.add(entry.getValue()));
+            if (this.write(reportEntries)) {
+                // Keep entries that have been replaced while writing.
+                batch.forEach(entry -> this.pendingReportEntries.computeIfPresent(entry.getKey(),
+                        (key, reportEntry) -> reportEntry == entry.getValue() ? null : reportEntry));
+            }
+        }
+    }
+
+    private boolean write(final List<Iec61850ReportEntry> reportEntries) {
         try {
-            this.iec61850ReportEntryRepository.saveAndFlush(reportEntry);
-        } catch (final JpaOptimisticLockingFailureException e) {
-            LOGGER.debug("JpaOptimisticLockingFailureException", e);
-            LOGGER.warn(
-                    "JPA optimistic locking failure exception while saving last report entry: {} with id {} and version {}",
-                    reportEntry, reportEntry.getId(), reportEntry.getVersion());
+            this.iec61850ReportEntryRepository.upsert(reportEntries);
+            LOGGER.debug("Stored {} last report entries", reportEntries.size());
+            return true;
+        } catch (final DataAccessException | TransactionException e) {
+            LOGGER.warn("Unable to store {} last report entries", reportEntries.size(), e);
+            return false;
+        }
+    }
+
+    private static final class ReportEntryKey {
+        private final String deviceIdentification;
+        private final String reportId;
+
+        ReportEntryKey(final String deviceIdentification, final String reportId) {
+            this.deviceIdentification = deviceIdentification;
+            this.reportId = reportId;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof ReportEntryKey)) {
+                return false;
+            }
+            final ReportEntryKey other = (ReportEntryKey) obj;
+            return Objects.equals(this.deviceIdentification, other.deviceIdentification)
+                    && Objects.equals(this.reportId, other.reportId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.deviceIdentification, this.reportId);
         }
     }
 }
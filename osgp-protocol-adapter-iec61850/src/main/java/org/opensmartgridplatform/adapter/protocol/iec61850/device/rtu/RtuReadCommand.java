@@ -8,14 +8,34 @@
 package org.opensmartgridplatform.adapter.protocol.iec61850.device.rtu;
 
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeNotFoundException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalDevice;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.NodeContainer;
 
 public interface RtuReadCommand<T> {
-    T execute(Iec61850Client client, DeviceConnection connection, LogicalDevice logicalDevice, int logicalDeviceIndex)
-            throws NodeException;
+
+    /**
+     * Reads the node of this command from the device and translates it. The
+     * node is not read again if it has already been read together with the
+     * nodes of other commands, see {@link DeviceConnection#isReadAhead}.
+     */
+    default T execute(final Iec61850Client client, final DeviceConnection connection,
+            final LogicalDevice logicalDevice, final int logicalDeviceIndex) throws NodeException {
+        final NodeContainer containingNode = this.getNodeToRead(connection, logicalDevice, logicalDeviceIndex);
+        if (!connection.isReadAhead(containingNode.getFcmodelNode())) {
+            client.readNodeDataValues(connection.getConnection().getClientAssociation(),
+                    containingNode.getFcmodelNode());
+        }
+        return this.translate(containingNode);
+    }
+
+    /**
+     * Returns the node this command reads from the device.
+     */
+    NodeContainer getNodeToRead(DeviceConnection connection, LogicalDevice logicalDevice, int logicalDeviceIndex)
+            throws NodeNotFoundException;
 
     T translate(final NodeContainer containingNode);
 }
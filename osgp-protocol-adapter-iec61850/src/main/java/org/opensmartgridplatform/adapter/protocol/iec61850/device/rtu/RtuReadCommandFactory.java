@@ -7,9 +7,34 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.device.rtu;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openmuc.openiec61850.FcModelNode;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeNotFoundException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalDevice;
+
 public interface RtuReadCommandFactory<T, U> {
 
     RtuReadCommand<T> getCommand(final U filter);
 
     RtuReadCommand<T> getCommand(final String node);
+
+    /**
+     * Returns the nodes read by the commands for the given filters. Filters
+     * without a command are skipped.
+     */
+    default List<FcModelNode> getNodesToRead(final List<U> filters, final DeviceConnection connection,
+            final LogicalDevice logicalDevice, final int logicalDeviceIndex) throws NodeNotFoundException {
+        final List<FcModelNode> nodes = new ArrayList<>();
+        for (final U filter : filters) {
+            final RtuReadCommand<T> command = this.getCommand(filter);
+            if (command != null) {
+                nodes.add(command.getNodeToRead(connection, logicalDevice, logicalDeviceIndex).getFcmodelNode());
+            }
+        }
+        return nodes;
+    }
 }
@@ -16,6 +16,8 @@ import java.util.List;
 @Repository
 public interface Iec61850DeviceReportGroupRepository extends JpaRepository<Iec61850DeviceReportGroup, Long> {
 
+    List<Iec61850DeviceReportGroup> findByDeviceIdentification(String deviceIdentification);
+
     List<Iec61850DeviceReportGroup> findByDeviceIdentificationAndEnabled(String deviceIdentification, boolean enabled);
 
     Iec61850DeviceReportGroup findByDeviceIdentificationAndReportDataSet(String deviceIdentification, String reportDataSet);
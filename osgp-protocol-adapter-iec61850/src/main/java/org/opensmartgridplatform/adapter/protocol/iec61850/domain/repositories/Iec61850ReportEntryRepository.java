@@ -13,7 +13,8 @@ import org.springframework.stereotype.Repository;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850ReportEntry;
 
 @Repository
-public interface Iec61850ReportEntryRepository extends JpaRepository<Iec61850ReportEntry, Long> {
+public interface Iec61850ReportEntryRepository
+        extends JpaRepository<Iec61850ReportEntry, Long>, Iec61850ReportEntryRepositoryCustom {
 
     Iec61850ReportEntry findByDeviceIdentificationAndReportId(String deviceIdentification, String reportId);
 }
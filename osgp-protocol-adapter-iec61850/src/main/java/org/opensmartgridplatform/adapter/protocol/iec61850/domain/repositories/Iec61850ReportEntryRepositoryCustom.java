@@ -0,0 +1,24 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories;
+
+import java.util.Collection;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850ReportEntry;
+
+public interface Iec61850ReportEntryRepositoryCustom {
+
+    /**
+     * Inserts the report entries, or updates the entry id and time of entry of
+     * the existing report entries for the same device and report id, in a
+     * single statement.
+     *
+     * @return the number of rows inserted or updated.
+     */
+    int upsert(Collection<Iec61850ReportEntry> reportEntries);
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850ReportEntry;
+
+/**
+ * Upserts report entries using the unique key on device identification and
+ * report id of the iec61850_last_report_entry table.
+ */
+public class Iec61850ReportEntryRepositoryImpl implements Iec61850ReportEntryRepositoryCustom {
+
+    private static final String INSERT = "INSERT INTO iec61850_last_report_entry (device_identification, report_id, "
+            + "entry_id, time_of_entry, creation_time, modification_time, version) VALUES ";
+
+    private static final String ON_CONFLICT = " ON CONFLICT (device_identification, report_id) DO UPDATE SET "
+            + "modification_time = EXCLUDED.modification_time, "
+            + "version = iec61850_last_report_entry.version + 1, entry_id = EXCLUDED.entry_id, "
+            + "time_of_entry = EXCLUDED.time_of_entry";
+
+    private static final int PARAMETERS_PER_ROW = 6;
+
+    @PersistenceContext(unitName = "OSGP_PROTOCOL_ADAPTER_IEC61850")
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional(value = "transactionManager")
+    public int upsert(final Collection<Iec61850ReportEntry> reportEntries) {
+        if (reportEntries.isEmpty()) {
+            return 0;
+        }
+
+        final StringBuilder sql = new StringBuilder(INSERT);
+        for (int row = 0; row < reportEntries.size(); row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int parameter = 1; parameter <= PARAMETERS_PER_ROW; parameter++) {
+                if (parameter > 1) {
+                    sql.append(", ");
+                }
+                sql.append('?').append(row * PARAMETERS_PER_ROW + parameter);
+            }
+            sql.append(", 0)");
+        }
+        sql.append(ON_CONFLICT);
+
+        final Query query = this.entityManager.createNativeQuery(sql.toString());
+        final Timestamp now = new Timestamp(System.currentTimeMillis());
+        int offset = 0;
+        for (final Iec61850ReportEntry reportEntry : reportEntries) {
+            query.setParameter(offset + 1, reportEntry.getDeviceIdentification());
+            query.setParameter(offset + 2, reportEntry.getReportId());
+            query.setParameter(offset + 3, reportEntry.getEntryId());
+            query.setParameter(offset + 4, new Timestamp(reportEntry.getTimeOfEntry().getTime()));
+            query.setParameter(offset + 5, now);
+            query.setParameter(offset + 6, now);
+            offset += PARAMETERS_PER_ROW;
+        }
+        return query.executeUpdate();
+    }
+}
@@ -7,7 +7,7 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.domain.valueobjects;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.openmuc.openiec61850.Fc;
@@ -17,34 +17,62 @@ import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.help
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalNode;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.SubDataAttribute;
 
+/**
+ * Collects the variables read from or written to a device while executing a
+ * command, to be logged as a single device message.
+ * <p>
+ * Only the last value of a variable is logged, the variables are logged in the
+ * order they were first added. The message is built in a single
+ * {@link StringBuilder}. When device message logging is disabled nothing is
+ * collected, callers that need to format values can check {@link #isEnabled()}
+ * first.
+ */
 public class DeviceMessageLog {
 
+    private static final int INITIAL_CAPACITY = 512;
+
+    private static final int VARIABLE_NAME_CAPACITY = 64;
+
     private final IED ied;
     private final LogicalDevice logicalDevice;
     private final String messageType;
-    private final Map<String, String> readVariables = new HashMap<>();
+    private final boolean enabled;
+    private final Map<String, String> variables;
 
-    public DeviceMessageLog(final IED ied, final LogicalDevice logicalDevice, final String messageType) {
+    public DeviceMessageLog(final IED ied, final LogicalDevice logicalDevice, final String messageType,
+            final boolean enabled) {
         this.ied = ied;
         this.logicalDevice = logicalDevice;
         this.messageType = messageType;
+        this.enabled = enabled;
+        this.variables = enabled ? new LinkedHashMap<>() : null;
+    }
 
+    public boolean isEnabled() {
+        return this.enabled;
     }
 
-    private void addReadVariable(final String variable, final String value) {
-        this.readVariables.put(variable, value);
+    /**
+     * Removes the variables collected so far, for instance before retrying the
+     * command.
+     */
+    public void clear() {
+        if (this.enabled) {
+            this.variables.clear();
+        }
     }
 
     public String getMessage() {
-        String result = "LogicalDevice: " + this.ied.getDescription() + this.logicalDevice.getDescription();
-        result = result.concat(" messageType: ").concat(this.messageType).concat(" {\n");
-
-        for (final String key : this.readVariables.keySet()) {
-            result = result.concat(key).concat(": ").concat(this.readVariables.get(key)).concat("\n");
+        final StringBuilder message = new StringBuilder(INITIAL_CAPACITY);
+        message.append("LogicalDevice: ").append(this.ied.getDescription())
+                .append(this.logicalDevice.getDescription()).append(" messageType: ").append(this.messageType)
+                .append(" {\n");
+        if (this.enabled) {
+            for (final Map.Entry<String, String> variable : this.variables.entrySet()) {
+                message.append(variable.getKey()).append(": ").append(variable.getValue()).append('\n');
+            }
         }
-
-        result = result.concat(" }");
-        return result;
+        return message.append(" }").toString();
     }
 
     /**
@@ -52,9 +80,10 @@ public class DeviceMessageLog {
      */
     public void addVariable(final LogicalNode logicalNode, final DataAttribute dataAttribute,
             final Fc functionalConstraint, final String value) {
-        this.addReadVariable(logicalNode.getDescription().concat(".").concat(dataAttribute.getDescription()).concat("[")
-                .concat(functionalConstraint.name()).concat("]"), value);
-
+        if (!this.enabled) {
+            return;
+        }
+        this.putVariable(this.variableName(logicalNode, dataAttribute, functionalConstraint), value);
     }
 
     /**
@@ -63,10 +92,11 @@ public class DeviceMessageLog {
      */
     public void addVariable(final LogicalNode logicalNode, final DataAttribute dataAttribute,
             final Fc functionalConstraint, final SubDataAttribute subDataAttribute, final String value) {
-        this.addReadVariable(
-                logicalNode.getDescription().concat(".").concat(dataAttribute.getDescription()).concat("[")
-                        .concat(functionalConstraint.name()).concat("].").concat(subDataAttribute.getDescription()),
-                value);
+        if (!this.enabled) {
+            return;
+        }
+        this.putVariable(this.variableName(logicalNode, dataAttribute, functionalConstraint).append('.')
+                .append(subDataAttribute.getDescription()), value);
     }
 
     /**
@@ -76,9 +106,12 @@ public class DeviceMessageLog {
     public void addVariable(final LogicalNode logicalNode, final DataAttribute dataAttribute,
             final Fc functionalConstraint, final SubDataAttribute subDataAttribute,
             final SubDataAttribute subSubDataAttribute, final String value) {
-        this.addReadVariable(logicalNode.getDescription().concat(".").concat(dataAttribute.getDescription()).concat("[")
-                .concat(functionalConstraint.name()).concat("].").concat(subDataAttribute.getDescription()).concat(".")
-                .concat(subSubDataAttribute.getDescription()), value);
+        if (!this.enabled) {
+            return;
+        }
+        this.putVariable(this.variableName(logicalNode, dataAttribute, functionalConstraint).append('.')
+                .append(subDataAttribute.getDescription()).append('.').append(subSubDataAttribute.getDescription()),
+                value);
     }
 
     /**
@@ -88,8 +121,41 @@ public class DeviceMessageLog {
     public void addVariable(final LogicalNode logicalNode, final DataAttribute dataAttribute,
             final Fc functionalConstraint, final String scheduleEntryName, final SubDataAttribute subSubDataAttribute,
             final String value) {
-        this.addReadVariable(logicalNode.getDescription().concat(".").concat(dataAttribute.getDescription()).concat("[")
-                .concat(functionalConstraint.name()).concat("].").concat(scheduleEntryName).concat(".")
-                .concat(subSubDataAttribute.getDescription()), value);
+        if (!this.enabled) {
+            return;
+        }
+        this.putVariable(this.scheduleEntryVariableName(logicalNode, dataAttribute, functionalConstraint,
+                scheduleEntryName, subSubDataAttribute), value);
+    }
+
+    /**
+     * Log data attribute, schedule entry name, sub sub data attribute with FC
+     * and numeric value for a logical node.
+     */
+    public void addVariable(final LogicalNode logicalNode, final DataAttribute dataAttribute,
+            final Fc functionalConstraint, final String scheduleEntryName, final SubDataAttribute subSubDataAttribute,
+            final long value) {
+        if (!this.enabled) {
+            return;
+        }
+        this.putVariable(this.scheduleEntryVariableName(logicalNode, dataAttribute, functionalConstraint,
+                scheduleEntryName, subSubDataAttribute), String.valueOf(value));
+    }
+
+    private StringBuilder variableName(final LogicalNode logicalNode, final DataAttribute dataAttribute,
+            final Fc functionalConstraint) {
+        return new StringBuilder(VARIABLE_NAME_CAPACITY).append(logicalNode.getDescription()).append('.')
+                .append(dataAttribute.getDescription()).append('[').append(functionalConstraint.name()).append(']');
+    }
+
+    private StringBuilder scheduleEntryVariableName(final LogicalNode logicalNode, final DataAttribute dataAttribute,
+            final Fc functionalConstraint, final String scheduleEntryName,
+            final SubDataAttribute subSubDataAttribute) {
+        return this.variableName(logicalNode, dataAttribute, functionalConstraint).append('.')
+                .append(scheduleEntryName).append('.').append(subSubDataAttribute.getDescription());
+    }
+
+    private void putVariable(final StringBuilder name, final String value) {
+        this.variables.put(name.toString(), value);
     }
 }
@@ -0,0 +1,345 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.jms.JMSException;
+import javax.jms.ObjectMessage;
+
+import org.apache.commons.lang3.StringUtils;
+import org.opensmartgridplatform.shared.infra.jms.Constants;
+import org.opensmartgridplatform.shared.infra.jms.DeviceMessageMetadata;
+import org.opensmartgridplatform.shared.infra.jms.MessageProcessor;
+import org.opensmartgridplatform.shared.infra.jms.ProtocolResponseMessage;
+import org.opensmartgridplatform.shared.infra.jms.ResponseMessageResultType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Processes the request messages for a device one at a time, or with at most
+ * parallelism requests at a time, on the listener threads that received them.
+ * A request waiting for its turn keeps its listener thread busy. At most
+ * maxWaiting requests wait per device, a request beyond that fails with a
+ * {@link JMSException} so it is redelivered later, instead of taking another
+ * listener thread from the requests for other devices.
+ * <p>
+ * Read requests of one of the coalesced message types that are identical to a
+ * request for the same device that is still waiting to be processed are not
+ * sent to the device. They are answered with the response to the waiting
+ * request once it has been processed. If that request did not result in an OK
+ * response, the requests that were waiting for it are processed themselves,
+ * keeping the redelivery behavior of every request.
+ * <p>
+ * With a parallelism of 0 request messages are processed immediately, as
+ * before.
+ */
+public class DeviceRequestDispatcher {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DeviceRequestDispatcher.class);
+
+    private final DeviceResponseMessageSender deviceResponseMessageSender;
+    private final int parallelism;
+    private final int maxWaiting;
+    private final Set<String> coalescedMessageTypes;
+
+    private final ConcurrentMap<String, DeviceQueue> deviceQueues = new ConcurrentHashMap<>();
+
+    public DeviceRequestDispatcher(final DeviceResponseMessageSender deviceResponseMessageSender,
+            final int parallelism, final int maxWaiting, final boolean isCoalescingEnabled,
+            final String coalescedMessageTypes) {
+        this.deviceResponseMessageSender = deviceResponseMessageSender;
+        this.parallelism = Math.max(parallelism, 0);
+        this.maxWaiting = Math.max(maxWaiting, 0);
+        final Set<String> messageTypes = new HashSet<>();
+        if (isCoalescingEnabled && coalescedMessageTypes != null) {
+            for (final String messageType : StringUtils.split(coalescedMessageTypes, ", ")) {
+                messageTypes.add(messageType);
+            }
+        }
+        this.coalescedMessageTypes = Collections.unmodifiableSet(messageTypes);
+    }
+
+    public void dispatch(final ObjectMessage message, final MessageProcessor processor) throws JMSException {
+        final String deviceIdentification = message.getStringProperty(Constants.DEVICE_IDENTIFICATION);
+        if (this.parallelism == 0 || deviceIdentification == null) {
+            processor.processMessage(message);
+            return;
+        }
+
+        final AtomicBoolean isAccepted = new AtomicBoolean();
+        final DeviceQueue deviceQueue = this.deviceQueues.compute(deviceIdentification, (key, queue) -> {
+            final DeviceQueue current = queue == null ? new DeviceQueue(this.parallelism) : queue;
+            if (current.users < this.parallelism + this.maxWaiting) {
+                current.users++;
+                isAccepted.set(true);
+            }
+            return current;
+        });
+        if (!isAccepted.get()) {
+            LOGGER.warn("Too many requests waiting for device {}, request [correlationUid={}] will be redelivered",
+                    deviceIdentification, message.getJMSCorrelationID());
+            throw new JMSException("Too many requests waiting for device " + deviceIdentification);
+        }
+        try {
+            final RequestKey requestKey = this.getRequestKey(message);
+            if (requestKey == null) {
+                deviceQueue.process(message, processor, deviceIdentification);
+            } else {
+                this.dispatchCoalesced(deviceQueue, requestKey, message, processor, deviceIdentification);
+            }
+        } finally {
+            this.deviceQueues.computeIfPresent(deviceIdentification,
+                    (key, queue) -> --queue.users == 0 ? null : queue);
+        }
+    }
+
+    private void dispatchCoalesced(final DeviceQueue deviceQueue, final RequestKey requestKey,
+            final ObjectMessage message, final MessageProcessor processor, final String deviceIdentification)
+            throws JMSException {
+        final String correlationUid = message.getJMSCorrelationID();
+        while (true) {
+            final CoalescedRequest request;
+            final boolean isLeader;
+            synchronized (deviceQueue) {
+                final CoalescedRequest waiting = deviceQueue.waitingRequests.get(requestKey);
+                isLeader = waiting == null;
+                request = isLeader ? new CoalescedRequest(correlationUid) : waiting;
+                if (isLeader) {
+                    deviceQueue.waitingRequests.put(requestKey, request);
+                } else {
+                    request.followers++;
+                }
+            }
+
+            if (isLeader) {
+                this.processLeader(deviceQueue, requestKey, request, message, processor, deviceIdentification);
+                return;
+            }
+
+            final ProtocolResponseMessage response = request.awaitResponse();
+            if (response != null) {
+                LOGGER.info(
+                        "Answering request [correlationUid={}] for device {} with the response to request [correlationUid={}]",
+                        correlationUid, deviceIdentification, request.correlationUid);
+                this.deviceResponseMessageSender.send(this.createResponse(message, response));
+                return;
+            }
+            LOGGER.info(
+                    "Request [correlationUid={}] for device {} did not succeed, processing request [correlationUid={}]",
+                    request.correlationUid, deviceIdentification, correlationUid);
+        }
+    }
+
+    private void processLeader(final DeviceQueue deviceQueue, final RequestKey requestKey,
+            final CoalescedRequest request, final ObjectMessage message, final MessageProcessor processor,
+            final String deviceIdentification) throws JMSException {
+        try {
+            deviceQueue.acquire(deviceIdentification);
+            try {
+                synchronized (deviceQueue) {
+                    // Requests received from now on may see a different state
+                    // of the device and are no longer answered by this one.
+                    deviceQueue.waitingRequests.remove(requestKey, request);
+                }
+                this.deviceResponseMessageSender.observeSentResponses(response -> {
+                    if (response.getCorrelationUid().equals(request.correlationUid)
+                            && ResponseMessageResultType.OK.equals(response.getResult())) {
+                        request.response = response;
+                    }
+                });
+                try {
+                    processor.processMessage(message);
+                } finally {
+                    this.deviceResponseMessageSender.observeSentResponses(null);
+                }
+            } finally {
+                deviceQueue.permits.release();
+            }
+        } finally {
+            synchronized (deviceQueue) {
+                deviceQueue.waitingRequests.remove(requestKey, request);
+            }
+            request.done.countDown();
+        }
+    }
+
+    /**
+     * Creates the response to the message from the response to the request it
+     * joined, with the metadata and retry count of the message itself.
+     */
+    private ProtocolResponseMessage createResponse(final ObjectMessage message,
+            final ProtocolResponseMessage response) throws JMSException {
+        final DeviceMessageMetadata deviceMessageMetadata = new DeviceMessageMetadata(message);
+        return new ProtocolResponseMessage.Builder().deviceMessageMetadata(deviceMessageMetadata)
+                .domain(response.getDomain()).domainVersion(response.getDomainVersion()).result(response.getResult())
+                .osgpException(response.getOsgpException()).dataObject(response.getDataObject())
+                .retryCount(deviceMessageMetadata.getRetryCount()).scheduled(response.isScheduled()).build();
+    }
+
+    /**
+     * Returns the number of requests for the device that are being dispatched.
+     */
+    int getRequestCount(final String deviceIdentification) {
+        final DeviceQueue deviceQueue = this.deviceQueues.get(deviceIdentification);
+        return deviceQueue == null ? 0 : deviceQueue.users;
+    }
+
+    /**
+     * Returns the number of requests for the device waiting to be processed
+     * that may still be joined by identical requests, plus the number of
+     * requests that have joined them.
+     */
+    int getWaitingCoalescedRequestCount(final String deviceIdentification) {
+        final DeviceQueue deviceQueue = this.deviceQueues.get(deviceIdentification);
+        if (deviceQueue == null) {
+            return 0;
+        }
+        int count = 0;
+        synchronized (deviceQueue) {
+            for (final CoalescedRequest request : deviceQueue.waitingRequests.values()) {
+                count += 1 + request.followers;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Returns the key identifying identical requests, or null if the request
+     * is not coalesced.
+     */
+    private RequestKey getRequestKey(final ObjectMessage message) throws JMSException {
+        final String messageType = message.getJMSType();
+        if (messageType == null || !this.coalescedMessageTypes.contains(messageType)) {
+            return null;
+        }
+        final Serializable payload = message.getObject();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(payload);
+        } catch (final IOException e) {
+            LOGGER.warn("Unable to compare request [correlationUid={}], not coalescing it",
+                    message.getJMSCorrelationID(), e);
+            return null;
+        }
+        return new RequestKey(messageType, message.getStringProperty(Constants.DOMAIN),
+                message.getStringProperty(Constants.DOMAIN_VERSION),
+                message.propertyExists(Constants.IS_SCHEDULED) && message.getBooleanProperty(Constants.IS_SCHEDULED),
+                bytes.toByteArray());
+    }
+
+    /**
+     * The requests for a device. Users is only changed while computing the
+     * entry of the device in the map of device queues.
+     */
+    private static final class DeviceQueue {
+        private final Semaphore permits;
+        private final Map<RequestKey, CoalescedRequest> waitingRequests = new HashMap<>();
+        private volatile int users;
+
+        DeviceQueue(final int parallelism) {
+            this.permits = new Semaphore(parallelism, true);
+        }
+
+        void acquire(final String deviceIdentification) throws JMSException {
+            try {
+                this.permits.acquire();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JMSException("Interrupted waiting to process a request for device " + deviceIdentification);
+            }
+        }
+
+        void process(final ObjectMessage message, final MessageProcessor processor,
+                final String deviceIdentification) throws JMSException {
+            this.acquire(deviceIdentification);
+            try {
+                processor.processMessage(message);
+            } finally {
+                this.permits.release();
+            }
+        }
+    }
+
+    private static final class CoalescedRequest {
+        private final String correlationUid;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private volatile ProtocolResponseMessage response;
+        private int followers;
+
+        CoalescedRequest(final String correlationUid) {
+            this.correlationUid = correlationUid;
+        }
+
+        /**
+         * Returns the OK response to this request, or null if the request did
+         * not result in one.
+         */
+        ProtocolResponseMessage awaitResponse() throws JMSException {
+            try {
+                this.done.await();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JMSException("Interrupted waiting for the response to request " + this.correlationUid);
+            }
+            return this.response;
+        }
+    }
+
+    private static final class RequestKey {
+        private final String messageType;
+        private final String domain;
+        private final String domainVersion;
+        private final boolean isScheduled;
+        private final byte[] payload;
+
+        RequestKey(final String messageType, final String domain, final String domainVersion,
+                final boolean isScheduled, final byte[] payload) {
+            this.messageType = messageType;
+            this.domain = domain;
+            this.domainVersion = domainVersion;
+            this.isScheduled = isScheduled;
+            this.payload = payload;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof RequestKey)) {
+                return false;
+            }
+            final RequestKey other = (RequestKey) obj;
+            return this.messageType.equals(other.messageType) && Objects.equals(this.domain, other.domain)
+                    && Objects.equals(this.domainVersion, other.domainVersion)
+                    && this.isScheduled == other.isScheduled && Arrays.equals(this.payload, other.payload);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(this.messageType, this.domain, this.domainVersion, this.isScheduled)
+                    + 31 * Arrays.hashCode(this.payload);
+        }
+    }
+}
@@ -41,6 +41,9 @@ public class DeviceRequestMessageListener implements SessionAwareMessageListener
     @Autowired
     private DeviceResponseMessageSender deviceResponseMessageSender;
 
+    @Autowired
+    private DeviceRequestDispatcher deviceRequestDispatcher;
+
     /*
      * (non-Javadoc)
      *
@@ -67,7 +70,7 @@ public class DeviceRequestMessageListener implements SessionAwareMessageListener
             this.createAndSendException(objectMessage, messageType);
             return;
         }
-        processor.processMessage(objectMessage);
+        this.deviceRequestDispatcher.dispatch(objectMessage, processor);
     }
 
     private void createAndSendException(final ObjectMessage objectMessage, final String messageType) {
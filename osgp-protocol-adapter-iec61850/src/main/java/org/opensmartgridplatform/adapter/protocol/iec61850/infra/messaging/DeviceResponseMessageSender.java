@@ -7,12 +7,14 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
 
+import java.util.function.Consumer;
+
 import javax.jms.JMSException;
 import javax.jms.Message;
-import javax.jms.ObjectMessage;
 import javax.jms.Session;
 
 import org.apache.commons.lang3.StringUtils;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec.MessageCodec;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services.Iec61850DeviceConnectionService;
 import org.opensmartgridplatform.shared.infra.jms.Constants;
 import org.opensmartgridplatform.shared.infra.jms.ProtocolResponseMessage;
@@ -21,11 +23,12 @@ import org.opensmartgridplatform.shared.infra.jms.ResponseMessageSender;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jms.IllegalStateException;
+import org.springframework.jms.JmsException;
 import org.springframework.jms.UncategorizedJmsException;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessageCreator;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.SettableListenableFuture;
 
 public class DeviceResponseMessageSender implements ResponseMessageSender {
 
@@ -37,8 +40,13 @@ public class DeviceResponseMessageSender implements ResponseMessageSender {
     private static final String LOG_MESSAGE_NULL_FIELD = "{} is null.";
 
     @Autowired
-    @Qualifier("iec61850ResponsesJmsTemplate")
-    private JmsTemplate iec61850ResponsesJmsTemplate;
+    private JmsProducerPool iec61850ResponsesProducerPool;
+
+    @Autowired
+    private boolean isJmsProducerPoolAsyncSend;
+
+    @Autowired
+    private MessageCodec iec61850ResponsesMessageCodec;
 
     @Autowired
     private Iec61850DeviceConnectionService iec61850deviceConnectionService;
@@ -46,34 +54,77 @@ public class DeviceResponseMessageSender implements ResponseMessageSender {
     @Autowired
     private boolean isCloseConnectionsOnBrokerFailure;
 
+    private final ThreadLocal<Consumer<ProtocolResponseMessage>> sentResponseObserver = new ThreadLocal<>();
+
     @Override
     public void send(final ResponseMessage responseMessage) {
+        this.sendWithResult(responseMessage);
+    }
+
+    /**
+     * Sends the response message like {@link #send(ResponseMessage)}.
+     *
+     * @return A future completed when the message has been sent, which may be
+     *         later than this call when the producer pool sends
+     *         asynchronously, or failed if the message is not sent.
+     */
+    public ListenableFuture<Void> sendWithResult(final ResponseMessage responseMessage) {
         if (!(responseMessage instanceof ProtocolResponseMessage)) {
             LOGGER.error(LOG_MESSAGE_RESPONSE_MESSAGE_OF_WRONG_TYPE, responseMessage.getClass().getName());
-            return;
+            return notSent(responseMessage);
         }
 
         final ProtocolResponseMessage msg = (ProtocolResponseMessage) responseMessage;
 
         if (!this.checkMessage(msg)) {
-            return;
+            return notSent(responseMessage);
         }
 
+        final ListenableFuture<Void> result;
         try {
-            this.sendMessage(msg);
+            result = this.sendMessage(msg);
         } catch (final IllegalStateException | UncategorizedJmsException e) {
-            /*
-             * IllegalStateException occurs when activemq connection pool is
-             * exhausted or activemq failover timeout is reached
-             * UncategorizedJmsException might also occur when activemq failover
-             * timeout is reached
-             */
-            if (this.isCloseConnectionsOnBrokerFailure) {
-                LOGGER.error(LOG_MESSAGE_JMS_EXCEPTION, e);
-                this.iec61850deviceConnectionService.closeAllConnections();
-            }
+            this.handleBrokerFailure(e);
             throw e;
         }
+
+        final Consumer<ProtocolResponseMessage> observer = this.sentResponseObserver.get();
+        if (observer != null) {
+            observer.accept(msg);
+        }
+        return result;
+    }
+
+    private static ListenableFuture<Void> notSent(final ResponseMessage responseMessage) {
+        final SettableListenableFuture<Void> result = new SettableListenableFuture<>();
+        result.setException(new IllegalArgumentException(
+                "Invalid response message [correlationUid=" + responseMessage.getCorrelationUid() + "]"));
+        return result;
+    }
+
+    /**
+     * Sets the observer of the response messages sent by the current thread,
+     * or removes it if the observer is null.
+     */
+    public void observeSentResponses(final Consumer<ProtocolResponseMessage> observer) {
+        if (observer == null) {
+            this.sentResponseObserver.remove();
+        } else {
+            this.sentResponseObserver.set(observer);
+        }
+    }
+
+    private void handleBrokerFailure(final JmsException e) {
+        /*
+         * IllegalStateException occurs when activemq connection pool is
+         * exhausted or activemq failover timeout is reached
+         * UncategorizedJmsException might also occur when activemq failover
+         * timeout is reached
+         */
+        if (this.isCloseConnectionsOnBrokerFailure) {
+            LOGGER.error(LOG_MESSAGE_JMS_EXCEPTION, e);
+            this.iec61850deviceConnectionService.closeAllConnections();
+        }
     }
 
     private boolean checkMessage(final ProtocolResponseMessage msg) {
@@ -105,35 +156,64 @@ public class DeviceResponseMessageSender implements ResponseMessageSender {
         return true;
     }
 
-    private void sendMessage(final ProtocolResponseMessage responseMessage) {
+    /**
+     * Sends the response message with the producer pool.
+     *
+     * @return A future completed when the message has been sent.
+     */
+    protected ListenableFuture<Void> sendMessage(final ProtocolResponseMessage responseMessage) {
 
         LOGGER.info(
                 "Sending protocol response message [correlationUid={}, device={}, messageType={}, messagePriority={}]",
                 responseMessage.getCorrelationUid(), responseMessage.getDeviceIdentification(),
                 responseMessage.getMessageType(), responseMessage.getMessagePriority());
 
-        this.iec61850ResponsesJmsTemplate.send(new MessageCreator() {
+        final MessageCreator messageCreator = new MessageCreator() {
             @Override
             public Message createMessage(final Session session) throws JMSException {
-                final ObjectMessage objectMessage = session.createObjectMessage(responseMessage);
-                objectMessage.setJMSCorrelationID(responseMessage.getCorrelationUid());
-                objectMessage.setStringProperty(Constants.DOMAIN, responseMessage.getDomain());
-                objectMessage.setStringProperty(Constants.DOMAIN_VERSION, responseMessage.getDomainVersion());
-                objectMessage.setJMSType(responseMessage.getMessageType());
-                objectMessage.setJMSPriority(responseMessage.getMessagePriority());
-                objectMessage.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
+                final Message message = DeviceResponseMessageSender.this.iec61850ResponsesMessageCodec.encode(session,
+                        responseMessage);
+                message.setJMSCorrelationID(responseMessage.getCorrelationUid());
+                message.setStringProperty(Constants.DOMAIN, responseMessage.getDomain());
+                message.setStringProperty(Constants.DOMAIN_VERSION, responseMessage.getDomainVersion());
+                message.setJMSType(responseMessage.getMessageType());
+                message.setJMSPriority(responseMessage.getMessagePriority());
+                message.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
                         responseMessage.getOrganisationIdentification());
-                objectMessage.setStringProperty(Constants.DEVICE_IDENTIFICATION,
+                message.setStringProperty(Constants.DEVICE_IDENTIFICATION,
                         responseMessage.getDeviceIdentification());
-                objectMessage.setStringProperty(Constants.RESULT, responseMessage.getResult().toString());
+                message.setStringProperty(Constants.RESULT, responseMessage.getResult().toString());
                 if (responseMessage.getOsgpException() != null) {
-                    objectMessage.setStringProperty(Constants.DESCRIPTION,
+                    message.setStringProperty(Constants.DESCRIPTION,
                             responseMessage.getOsgpException().getMessage());
                 }
-                objectMessage.setBooleanProperty(Constants.IS_SCHEDULED, responseMessage.isScheduled());
-                objectMessage.setIntProperty(Constants.RETRY_COUNT, responseMessage.getRetryCount());
-                return objectMessage;
+                message.setBooleanProperty(Constants.IS_SCHEDULED, responseMessage.isScheduled());
+                message.setIntProperty(Constants.RETRY_COUNT, responseMessage.getRetryCount());
+                return message;
             }
-        });
+        };
+
+        if (!this.isJmsProducerPoolAsyncSend) {
+            this.iec61850ResponsesProducerPool.send(messageCreator);
+            return sent();
+        }
+        final ListenableFuture<Void> result = this.iec61850ResponsesProducerPool.sendAsync(messageCreator);
+        result.addCallback(
+                value -> LOGGER.debug("Sent protocol response message [correlationUid={}]",
+                        responseMessage.getCorrelationUid()),
+                failure -> {
+                    LOGGER.error("Unable to send protocol response message [correlationUid={}, device={}]",
+                            responseMessage.getCorrelationUid(), responseMessage.getDeviceIdentification(), failure);
+                    if (failure instanceof IllegalStateException || failure instanceof UncategorizedJmsException) {
+                        this.handleBrokerFailure((JmsException) failure);
+                    }
+                });
+        return result;
+    }
+
+    protected static ListenableFuture<Void> sent() {
+        final SettableListenableFuture<Void> result = new SettableListenableFuture<>();
+        result.set(null);
+        return result;
     }
 }
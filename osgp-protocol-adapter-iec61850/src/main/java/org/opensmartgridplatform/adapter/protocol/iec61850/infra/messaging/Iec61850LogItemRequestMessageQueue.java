@@ -0,0 +1,182 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Sends {@link Iec61850LogItemRequestMessage}s to the log item queue from a
+ * separate thread, so the threads communicating with devices do not wait for
+ * the broker.
+ * <p>
+ * Log items wait in a bounded buffer and are sent in batches, using a single
+ * session for every batch. When the buffer is full, log items are dropped, or
+ * the logging thread waits for room in the buffer if configured to block.
+ * Log items still waiting are sent when the application is shut down.
+ */
+public class Iec61850LogItemRequestMessageQueue {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850LogItemRequestMessageQueue.class);
+
+    private static final long POLL_TIMEOUT = 500;
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+    private static final long DROPPED_WARNING_INTERVAL = 1000;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private BlockingQueue<Iec61850LogItemRequestMessage> buffer;
+
+    private ExecutorService senderExecutor;
+
+    private volatile boolean running;
+
+    @Autowired
+    private Iec61850LogItemRequestMessageSender iec61850LogItemRequestMessageSender;
+
+    @Autowired
+    private int logItemBufferSize;
+
+    @Autowired
+    private int logItemBatchMaxSize;
+
+    @Autowired
+    private int logItemBatchMaxAge;
+
+    @Autowired
+    private boolean isLogItemBlockWhenBufferFull;
+
+    @PostConstruct
+    public void init() {
+        if (this.logItemBufferSize <= 0) {
+            return;
+        }
+        this.buffer = new ArrayBlockingQueue<>(this.logItemBufferSize);
+        this.senderExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-log-item-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.running = true;
+        this.senderExecutor.execute(this::sendBatches);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.senderExecutor == null) {
+            return;
+        }
+        this.running = false;
+        this.senderExecutor.shutdown();
+        try {
+            if (!this.senderExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Log item sender did not finish within {} ms", SHUTDOWN_TIMEOUT);
+                this.senderExecutor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.senderExecutor.shutdownNow();
+        }
+        final List<Iec61850LogItemRequestMessage> remaining = new ArrayList<>();
+        this.buffer.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            this.trySend(remaining);
+        }
+    }
+
+    /**
+     * Adds the log item to the buffer, or sends it right away if the buffer is
+     * not used or the queue has been shut down.
+     */
+    public void send(final Iec61850LogItemRequestMessage iec61850LogItemRequestMessage) {
+        if (!this.running) {
+            this.trySend(Collections.singletonList(iec61850LogItemRequestMessage));
+            return;
+        }
+        if (this.isLogItemBlockWhenBufferFull) {
+            try {
+                this.buffer.put(iec61850LogItemRequestMessage);
+                return;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else if (this.buffer.offer(iec61850LogItemRequestMessage)) {
+            return;
+        }
+        final long droppedCount = this.dropped.incrementAndGet();
+        if (droppedCount % DROPPED_WARNING_INTERVAL == 1) {
+            LOGGER.warn("Log item buffer is full, dropped log item for device: {}, {} log items dropped in total",
+                    iec61850LogItemRequestMessage.getDeviceIdentification(), droppedCount);
+        }
+    }
+
+    private void sendBatches() {
+        final List<Iec61850LogItemRequestMessage> batch = new ArrayList<>(this.logItemBatchMaxSize);
+        try {
+            while (this.running || !this.buffer.isEmpty()) {
+                this.collectBatch(batch);
+                if (!batch.isEmpty()) {
+                    this.trySend(batch);
+                    batch.clear();
+                }
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (!batch.isEmpty()) {
+                this.trySend(batch);
+            }
+        }
+    }
+
+    /**
+     * Collects log items until the batch is full, or the first log item in the
+     * batch has waited for the max age.
+     */
+    private void collectBatch(final List<Iec61850LogItemRequestMessage> batch) throws InterruptedException {
+        final Iec61850LogItemRequestMessage first = this.buffer.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        final long sendAt = System.currentTimeMillis() + this.logItemBatchMaxAge;
+        while (batch.size() < this.logItemBatchMaxSize) {
+            this.buffer.drainTo(batch, this.logItemBatchMaxSize - batch.size());
+            final long wait = sendAt - System.currentTimeMillis();
+            if (batch.size() >= this.logItemBatchMaxSize || wait <= 0 || !this.running) {
+                return;
+            }
+            final Iec61850LogItemRequestMessage next = this.buffer.poll(wait, TimeUnit.MILLISECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void trySend(final List<Iec61850LogItemRequestMessage> iec61850LogItemRequestMessages) {
+        try {
+            this.iec61850LogItemRequestMessageSender.send(iec61850LogItemRequestMessages);
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unable to send {} log items", iec61850LogItemRequestMessages.size(), e);
+        }
+    }
+}
@@ -7,8 +7,11 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
 
+import java.util.List;
+
 import javax.jms.JMSException;
 import javax.jms.Message;
+import javax.jms.MessageProducer;
 import javax.jms.ObjectMessage;
 import javax.jms.Session;
 
@@ -17,6 +20,8 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessageCreator;
+import org.springframework.jms.core.ProducerCallback;
+import org.springframework.jms.support.JmsUtils;
 
 import org.opensmartgridplatform.shared.infra.jms.Constants;
 
@@ -27,30 +32,71 @@ public class Iec61850LogItemRequestMessageSender {
     @Autowired
     private JmsTemplate iec61850LogItemRequestsJmsTemplate;
 
+    @Autowired
+    private JmsProducerPool iec61850LogItemRequestsProducerPool;
+
     public void send(final Iec61850LogItemRequestMessage iec61850LogItemRequestMessage) {
 
         LOGGER.debug("Sending Iec61850LogItemRequestMessage");
 
-        this.iec61850LogItemRequestsJmsTemplate.send(new MessageCreator() {
+        this.iec61850LogItemRequestsProducerPool.send(new MessageCreator() {
             @Override
             public Message createMessage(final Session session) throws JMSException {
-                final ObjectMessage objectMessage = session.createObjectMessage();
-                objectMessage.setJMSType(Constants.IEC61850_LOG_ITEM_REQUEST);
-                objectMessage.setStringProperty(Constants.IS_INCOMING, iec61850LogItemRequestMessage.isIncoming()
-                        .toString());
-                objectMessage.setStringProperty(Constants.ENCODED_MESSAGE,
-                        iec61850LogItemRequestMessage.getEncodedMessage());
-                objectMessage.setStringProperty(Constants.DECODED_MESSAGE,
-                        iec61850LogItemRequestMessage.getDecodedMessage());
-                objectMessage.setStringProperty(Constants.DEVICE_IDENTIFICATION,
-                        iec61850LogItemRequestMessage.getDeviceIdentification());
-                objectMessage.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
-                        iec61850LogItemRequestMessage.getOrganisationIdentification());
-                objectMessage.setStringProperty(Constants.IS_VALID, iec61850LogItemRequestMessage.isValid().toString());
-                objectMessage.setIntProperty(Constants.PAYLOAD_MESSAGE_SERIALIZED_SIZE,
-                        iec61850LogItemRequestMessage.getPayloadMessageSerializedSize());
-                return objectMessage;
+                return Iec61850LogItemRequestMessageSender.this.createMessage(session, iec61850LogItemRequestMessage);
+            }
+        });
+    }
+
+    /**
+     * Sends the messages using a single session and producer, or using the
+     * producers of the producer pool if it is enabled.
+     */
+    public void send(final List<Iec61850LogItemRequestMessage> iec61850LogItemRequestMessages) {
+
+        LOGGER.debug("Sending {} Iec61850LogItemRequestMessages", iec61850LogItemRequestMessages.size());
+
+        if (this.iec61850LogItemRequestsProducerPool.isEnabled()) {
+            for (final Iec61850LogItemRequestMessage logItem : iec61850LogItemRequestMessages) {
+                this.iec61850LogItemRequestsProducerPool.send(session -> this.createMessage(session, logItem));
+            }
+            return;
+        }
+
+        final JmsTemplate jmsTemplate = this.iec61850LogItemRequestsJmsTemplate;
+        jmsTemplate.execute(new ProducerCallback<Void>() {
+            @Override
+            public Void doInJms(final Session session, final MessageProducer producer) throws JMSException {
+                for (final Iec61850LogItemRequestMessage logItem : iec61850LogItemRequestMessages) {
+                    final Message message = Iec61850LogItemRequestMessageSender.this.createMessage(session, logItem);
+                    if (jmsTemplate.isExplicitQosEnabled()) {
+                        producer.send(message, jmsTemplate.getDeliveryMode(), jmsTemplate.getPriority(),
+                                jmsTemplate.getTimeToLive());
+                    } else {
+                        producer.send(message);
+                    }
+                }
+                if (jmsTemplate.isSessionTransacted()) {
+                    JmsUtils.commitIfNecessary(session);
+                }
+                return null;
             }
         });
     }
+
+    private Message createMessage(final Session session,
+            final Iec61850LogItemRequestMessage iec61850LogItemRequestMessage) throws JMSException {
+        final ObjectMessage objectMessage = session.createObjectMessage();
+        objectMessage.setJMSType(Constants.IEC61850_LOG_ITEM_REQUEST);
+        objectMessage.setStringProperty(Constants.IS_INCOMING, iec61850LogItemRequestMessage.isIncoming().toString());
+        objectMessage.setStringProperty(Constants.ENCODED_MESSAGE, iec61850LogItemRequestMessage.getEncodedMessage());
+        objectMessage.setStringProperty(Constants.DECODED_MESSAGE, iec61850LogItemRequestMessage.getDecodedMessage());
+        objectMessage.setStringProperty(Constants.DEVICE_IDENTIFICATION,
+                iec61850LogItemRequestMessage.getDeviceIdentification());
+        objectMessage.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
+                iec61850LogItemRequestMessage.getOrganisationIdentification());
+        objectMessage.setStringProperty(Constants.IS_VALID, iec61850LogItemRequestMessage.isValid().toString());
+        objectMessage.setIntProperty(Constants.PAYLOAD_MESSAGE_SERIALIZED_SIZE,
+                iec61850LogItemRequestMessage.getPayloadMessageSerializedSize());
+        return objectMessage;
+    }
 }
@@ -0,0 +1,328 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.jms.Connection;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.UncategorizedJmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureTask;
+import org.springframework.util.concurrent.SettableListenableFuture;
+
+/**
+ * Sends messages to the default destination of a {@link JmsTemplate} using
+ * long-lived sessions and producers on a single connection, instead of
+ * creating a session and producer for every message.
+ * <p>
+ * At most size sessions are opened, each used by one thread at a time. When
+ * sending fails, the session is closed, and the connection is opened again if
+ * the broker connection failed. With a size of 0 the pool is disabled and
+ * messages are sent with the JmsTemplate.
+ * <p>
+ * Messages can be sent asynchronously, in order, on a single sender thread.
+ * The number of messages sent and failed, the average send time and the
+ * number of open sessions are logged every metrics interval.
+ */
+public class JmsProducerPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsProducerPool.class);
+
+    private final String name;
+    private final JmsTemplate jmsTemplate;
+    private final int size;
+
+    private final BlockingQueue<Producer> idleProducers = new LinkedBlockingQueue<>();
+    private final Semaphore permits;
+    private final ScheduledExecutorService executor;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong sendNanos = new AtomicLong();
+    private final AtomicInteger openProducers = new AtomicInteger();
+    private final AtomicInteger connectionGeneration = new AtomicInteger();
+
+    private Connection connection;
+
+    private volatile boolean closed;
+
+    public JmsProducerPool(final String name, final JmsTemplate jmsTemplate, final int size,
+            final int metricsInterval) {
+        this.name = name;
+        this.jmsTemplate = jmsTemplate;
+        this.size = Math.max(size, 0);
+        this.permits = new Semaphore(this.size, true);
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-jms-producer-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (metricsInterval > 0) {
+            this.executor.scheduleAtFixedRate(this::logMetrics, metricsInterval, metricsInterval,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.size > 0;
+    }
+
+    /**
+     * Sends the message created by the message creator.
+     *
+     * @throws JmsException
+     *             In case sending fails, translated like the JmsTemplate does.
+     */
+    public void send(final MessageCreator messageCreator) {
+        final long start = System.nanoTime();
+        try {
+            if (this.isEnabled()) {
+                this.sendWithPooledProducer(messageCreator);
+            } else {
+                this.jmsTemplate.send(messageCreator);
+            }
+            this.sent.incrementAndGet();
+        } catch (final JmsException e) {
+            this.failed.incrementAndGet();
+            throw e;
+        } finally {
+            this.sendNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sends the message created by the message creator on the sender thread.
+     * Messages sent asynchronously are sent in the order of this call.
+     *
+     * @return A future completed when the message has been sent, or failed
+     *         with the {@link JmsException} if sending failed.
+     */
+    public ListenableFuture<Void> sendAsync(final MessageCreator messageCreator) {
+        final ListenableFutureTask<Void> task = new ListenableFutureTask<>(() -> {
+            this.send(messageCreator);
+            return null;
+        });
+        try {
+            this.executor.execute(task);
+        } catch (final RejectedExecutionException e) {
+            this.failed.incrementAndGet();
+            final SettableListenableFuture<Void> rejected = new SettableListenableFuture<>();
+            rejected.setException(
+                    new UncategorizedJmsException("Producer pool " + this.name + " has been closed", e));
+            return rejected;
+        }
+        return task;
+    }
+
+    public long getSent() {
+        return this.sent.get();
+    }
+
+    public long getFailed() {
+        return this.failed.get();
+    }
+
+    public int getOpenProducers() {
+        return this.openProducers.get();
+    }
+
+    /**
+     * Returns the average time in microseconds it took to send a message.
+     */
+    public long getAverageSendTime() {
+        final long count = this.sent.get() + this.failed.get();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(this.sendNanos.get()) / count;
+    }
+
+    public void logMetrics() {
+        LOGGER.info("Producer pool {}: sent: {}, failed: {}, average send time: {} us, open producers: {} of {}",
+                this.name, this.getSent(), this.getFailed(), this.getAverageSendTime(), this.getOpenProducers(),
+                this.size);
+    }
+
+    /**
+     * Sends the messages still waiting to be sent asynchronously, and closes
+     * the producers, sessions and connection.
+     */
+    public void close() {
+        this.executor.shutdown();
+        try {
+            if (!this.executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                this.executor.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.executor.shutdownNow();
+        }
+        this.closed = true;
+        Producer producer;
+        while ((producer = this.idleProducers.poll()) != null) {
+            this.closeProducer(producer);
+        }
+        this.closeConnection(this.connectionGeneration.get());
+        if (this.isEnabled()) {
+            this.logMetrics();
+        }
+    }
+
+    private void sendWithPooledProducer(final MessageCreator messageCreator) {
+        if (this.closed) {
+            throw new UncategorizedJmsException("Producer pool " + this.name + " has been closed");
+        }
+        try {
+            this.permits.acquire();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new UncategorizedJmsException("Interrupted waiting for a producer of pool " + this.name, e);
+        }
+        final int generation = this.connectionGeneration.get();
+        Producer producer = null;
+        try {
+            producer = this.borrowProducer();
+            producer.send(messageCreator);
+            this.idleProducers.offer(producer);
+        } catch (final JMSException e) {
+            if (producer == null) {
+                // No session could be created, open a new connection next
+                // time. Failures of an open connection are reported to its
+                // exception listener.
+                this.closeConnection(generation);
+            } else {
+                this.closeProducer(producer);
+            }
+            throw JmsUtils.convertJmsAccessException(e);
+        } catch (final RuntimeException e) {
+            if (producer != null) {
+                this.closeProducer(producer);
+            }
+            throw e;
+        } finally {
+            this.permits.release();
+        }
+    }
+
+    private Producer borrowProducer() throws JMSException {
+        final int generation = this.connectionGeneration.get();
+        Producer producer;
+        while ((producer = this.idleProducers.poll()) != null) {
+            if (producer.generation == generation) {
+                return producer;
+            }
+            // Created on a connection that has been closed.
+            this.closeProducer(producer);
+        }
+        return this.createProducer();
+    }
+
+    private Producer createProducer() throws JMSException {
+        final int generation;
+        final Connection currentConnection;
+        synchronized (this) {
+            if (this.connection == null) {
+                final Connection newConnection = this.jmsTemplate.getConnectionFactory().createConnection();
+                final int newGeneration = this.connectionGeneration.get();
+                newConnection.setExceptionListener(e -> {
+                    LOGGER.warn("Connection of producer pool {} failed", this.name, e);
+                    this.closeConnection(newGeneration);
+                });
+                this.connection = newConnection;
+            }
+            generation = this.connectionGeneration.get();
+            currentConnection = this.connection;
+        }
+        final Session session = currentConnection.createSession(this.jmsTemplate.isSessionTransacted(),
+                this.jmsTemplate.getSessionAcknowledgeMode());
+        try {
+            final MessageProducer messageProducer = session.createProducer(this.resolveDestination(session));
+            this.openProducers.incrementAndGet();
+            LOGGER.debug("Opened producer {} of pool {}", this.openProducers.get(), this.name);
+            return new Producer(session, messageProducer, generation);
+        } catch (final JMSException e) {
+            JmsUtils.closeSession(session);
+            throw e;
+        }
+    }
+
+    private Destination resolveDestination(final Session session) throws JMSException {
+        final Destination destination = this.jmsTemplate.getDefaultDestination();
+        if (destination != null) {
+            return destination;
+        }
+        return this.jmsTemplate.getDestinationResolver().resolveDestinationName(session,
+                this.jmsTemplate.getDefaultDestinationName(), this.jmsTemplate.isPubSubDomain());
+    }
+
+    private void closeProducer(final Producer producer) {
+        JmsUtils.closeMessageProducer(producer.messageProducer);
+        JmsUtils.closeSession(producer.session);
+        this.openProducers.decrementAndGet();
+    }
+
+    /**
+     * Closes the connection if it is still the connection of the generation,
+     * a new connection is opened when a producer is created next.
+     */
+    private void closeConnection(final int generation) {
+        final Connection closing;
+        synchronized (this) {
+            if (this.connection == null || generation != this.connectionGeneration.get()) {
+                return;
+            }
+            closing = this.connection;
+            this.connection = null;
+            this.connectionGeneration.incrementAndGet();
+        }
+        JmsUtils.closeConnection(closing);
+    }
+
+    private final class Producer {
+        private final Session session;
+        private final MessageProducer messageProducer;
+        private final int generation;
+
+        Producer(final Session session, final MessageProducer messageProducer, final int generation) {
+            this.session = session;
+            this.messageProducer = messageProducer;
+            this.generation = generation;
+        }
+
+        void send(final MessageCreator messageCreator) throws JMSException {
+            final Message message = messageCreator.createMessage(this.session);
+            final JmsTemplate template = JmsProducerPool.this.jmsTemplate;
+            if (template.isExplicitQosEnabled()) {
+                this.messageProducer.send(message, template.getDeliveryMode(), template.getPriority(),
+                        template.getTimeToLive());
+            } else {
+                this.messageProducer.send(message);
+            }
+            if (this.session.getTransacted()) {
+                this.session.commit();
+            }
+        }
+    }
+}
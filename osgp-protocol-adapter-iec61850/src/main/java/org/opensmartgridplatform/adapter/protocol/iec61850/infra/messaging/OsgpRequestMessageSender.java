@@ -9,16 +9,14 @@ package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
 
 import javax.jms.JMSException;
 import javax.jms.Message;
-import javax.jms.ObjectMessage;
 import javax.jms.Session;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessageCreator;
 
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec.MessageCodec;
 import org.opensmartgridplatform.shared.infra.jms.Constants;
 import org.opensmartgridplatform.shared.infra.jms.RequestMessage;
 
@@ -27,24 +25,27 @@ public class OsgpRequestMessageSender {
     private static final Logger LOGGER = LoggerFactory.getLogger(OsgpRequestMessageSender.class);
 
     @Autowired
-    @Qualifier("osgpRequestsJmsTemplate")
-    private JmsTemplate iec61850RequestsJmsTemplate;
+    private JmsProducerPool osgpRequestsProducerPool;
+
+    @Autowired
+    private MessageCodec osgpRequestsMessageCodec;
 
     public void send(final RequestMessage requestMessage, final String messageType) {
         LOGGER.info("Sending request message to OSGP.");
 
-        this.iec61850RequestsJmsTemplate.send(new MessageCreator() {
+        this.osgpRequestsProducerPool.send(new MessageCreator() {
 
             @Override
             public Message createMessage(final Session session) throws JMSException {
-                final ObjectMessage objectMessage = session.createObjectMessage(requestMessage);
-                objectMessage.setJMSType(messageType);
-                objectMessage.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
+                final Message message = OsgpRequestMessageSender.this.osgpRequestsMessageCodec.encode(session,
+                        requestMessage);
+                message.setJMSType(messageType);
+                message.setStringProperty(Constants.ORGANISATION_IDENTIFICATION,
                         requestMessage.getOrganisationIdentification());
-                objectMessage.setStringProperty(Constants.DEVICE_IDENTIFICATION,
+                message.setStringProperty(Constants.DEVICE_IDENTIFICATION,
                         requestMessage.getDeviceIdentification());
 
-                return objectMessage;
+                return message;
             }
 
         });
@@ -0,0 +1,148 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.Session;
+
+/**
+ * Sends the payload as a {@link BytesMessage} holding the deflate compressed
+ * Java serialization of the payload.
+ * <p>
+ * Most of a serialized DTO graph consists of class descriptors and field
+ * names that are repeated for every object of a class, which compress very
+ * well. The receiver must decode the message with this codec.
+ * <p>
+ * Only classes of the platform, Java and Joda-Time are deserialized when
+ * decoding, a message containing any other class is rejected.
+ */
+public class CompressedMessageCodec implements MessageCodec {
+
+    public static final String NAME = "compressed";
+
+    private static final int INITIAL_BUFFER_SIZE = 4096;
+
+    /**
+     * The packages of the classes that may be deserialized. Joda-Time is used
+     * for the dates in the DTOs.
+     */
+    private static final String[] ALLOWED_PACKAGES = { "org.opensmartgridplatform.", "java.", "org.joda.time." };
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Message encode(final Session session, final Serializable payload) throws JMSException {
+        final BytesMessage bytesMessage = session.createBytesMessage();
+        bytesMessage.writeBytes(compress(payload));
+        bytesMessage.setStringProperty(CODEC_PROPERTY, NAME);
+        return bytesMessage;
+    }
+
+    @Override
+    public Serializable decode(final Message message) throws JMSException {
+        if (!(message instanceof BytesMessage)) {
+            throw new MessageFormatException("Expected a BytesMessage, received: " + message.getClass().getName());
+        }
+        final BytesMessage bytesMessage = (BytesMessage) message;
+        bytesMessage.reset();
+        final byte[] bytes = new byte[(int) bytesMessage.getBodyLength()];
+        bytesMessage.readBytes(bytes);
+        return decompress(bytes);
+    }
+
+    private static byte[] compress(final Serializable payload) throws JMSException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(INITIAL_BUFFER_SIZE);
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (final ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            out.writeObject(payload);
+        } catch (final IOException e) {
+            throw messageFormatException("Unable to encode payload of type: " + payload.getClass().getName(), e);
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Serializable decompress(final byte[] bytes) throws JMSException {
+        try (final ObjectInputStream in = new AllowedClassesObjectInputStream(
+                new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            return (Serializable) in.readObject();
+        } catch (final IOException | ClassNotFoundException | ClassCastException e) {
+            throw messageFormatException("Unable to decode payload", e);
+        }
+    }
+
+    private static MessageFormatException messageFormatException(final String reason, final Exception cause) {
+        final MessageFormatException exception = new MessageFormatException(reason);
+        exception.setLinkedException(cause);
+        exception.initCause(cause);
+        return exception;
+    }
+
+    private static boolean isAllowed(final String className) {
+        String componentClassName = className;
+        if (componentClassName.startsWith("[")) {
+            // An array of a primitive type, like [B, or of a class, like
+            // [Ljava.lang.String;
+            componentClassName = componentClassName.replaceFirst("^\\[+", "");
+            if (!componentClassName.startsWith("L")) {
+                return true;
+            }
+            componentClassName = componentClassName.substring(1, componentClassName.length() - 1);
+        }
+        for (final String allowedPackage : ALLOWED_PACKAGES) {
+            if (componentClassName.startsWith(allowedPackage)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Resolves only the classes in the allowed packages, before any object of
+     * another class is created.
+     */
+    private static class AllowedClassesObjectInputStream extends ObjectInputStream {
+
+        AllowedClassesObjectInputStream(final InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            if (!isAllowed(desc.getName())) {
+                throw new InvalidClassException(desc.getName(), "Class is not allowed to be decoded");
+            }
+            return super.resolveClass(desc);
+        }
+
+        @Override
+        protected Class<?> resolveProxyClass(final String[] interfaces) throws IOException, ClassNotFoundException {
+            throw new InvalidClassException("Proxy classes are not allowed to be decoded");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec;
+
+import java.io.Serializable;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.Session;
+
+/**
+ * Encodes the payload of outgoing JMS messages, and decodes it again.
+ * <p>
+ * Every codec sets the {@link #CODEC_PROPERTY} of the messages it creates to
+ * its name, so the receiving side knows how to decode the payload.
+ */
+public interface MessageCodec {
+
+    String CODEC_PROPERTY = "MessageCodec";
+
+    String getName();
+
+    Message encode(Session session, Serializable payload) throws JMSException;
+
+    Serializable decode(Message message) throws JMSException;
+
+    /**
+     * Returns the codec with the given name.
+     *
+     * @throws IllegalArgumentException
+     *             If there is no codec with the given name.
+     */
+    static MessageCodec forName(final String name) {
+        if (ObjectMessageCodec.NAME.equalsIgnoreCase(name)) {
+            return new ObjectMessageCodec();
+        }
+        if (CompressedMessageCodec.NAME.equalsIgnoreCase(name)) {
+            return new CompressedMessageCodec();
+        }
+        throw new IllegalArgumentException("Unknown message codec: " + name);
+    }
+}
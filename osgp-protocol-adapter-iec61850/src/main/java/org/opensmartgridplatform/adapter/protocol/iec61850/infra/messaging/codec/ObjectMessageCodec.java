@@ -0,0 +1,45 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec;
+
+import java.io.Serializable;
+
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.ObjectMessage;
+import javax.jms.Session;
+
+/**
+ * Sends the payload as an {@link ObjectMessage}, which is what the receivers
+ * of the messages of this adapter expect by default.
+ */
+public class ObjectMessageCodec implements MessageCodec {
+
+    public static final String NAME = "object";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Message encode(final Session session, final Serializable payload) throws JMSException {
+        final ObjectMessage objectMessage = session.createObjectMessage(payload);
+        objectMessage.setStringProperty(CODEC_PROPERTY, NAME);
+        return objectMessage;
+    }
+
+    @Override
+    public Serializable decode(final Message message) throws JMSException {
+        if (!(message instanceof ObjectMessage)) {
+            throw new MessageFormatException("Expected an ObjectMessage, received: " + message.getClass().getName());
+        }
+        return ((ObjectMessage) message).getObject();
+    }
+}
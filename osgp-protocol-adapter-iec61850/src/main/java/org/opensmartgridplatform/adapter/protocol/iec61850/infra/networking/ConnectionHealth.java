@@ -0,0 +1,77 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking;
+
+import org.joda.time.DateTime;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ConnectionState;
+
+/**
+ * Health of a single association with a device, based on the last time the
+ * device was known to respond and on whether the association has been closed.
+ */
+public class ConnectionHealth {
+
+    private volatile long lastActivity;
+    private volatile boolean closed;
+    private volatile String closeReason;
+
+    public ConnectionHealth() {
+        this.lastActivity = System.currentTimeMillis();
+    }
+
+    /**
+     * Registers that a report or a response has been received from the device.
+     */
+    public void activity() {
+        this.lastActivity = System.currentTimeMillis();
+    }
+
+    public void closed(final String reason) {
+        this.closeReason = reason;
+        this.closed = true;
+    }
+
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    public String getCloseReason() {
+        return this.closeReason;
+    }
+
+    public DateTime getLastActivity() {
+        return new DateTime(this.lastActivity);
+    }
+
+    public long getMillisSinceLastActivity() {
+        return System.currentTimeMillis() - this.lastActivity;
+    }
+
+    /**
+     * Returns {@link ConnectionState#BROKEN} if the association has been
+     * closed, {@link ConnectionState#OK} if the device has been active within
+     * the given number of milliseconds, and {@link ConnectionState#UNKNOWN}
+     * otherwise.
+     */
+    public ConnectionState getState(final long maxInactivity) {
+        if (this.closed) {
+            return ConnectionState.BROKEN;
+        }
+        if (this.getMillisSinceLastActivity() <= maxInactivity) {
+            return ConnectionState.OK;
+        }
+        return ConnectionState.UNKNOWN;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionHealth[lastActivity=%s, closed=%b, closeReason=%s]", this.getLastActivity(),
+                this.closed, this.closeReason);
+    }
+}
@@ -9,12 +9,20 @@ package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking;
 
 import java.io.IOException;
 import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.annotation.PostConstruct;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openmuc.openiec61850.ClientAssociation;
+import org.openmuc.openiec61850.ClientEventListener;
 import org.openmuc.openiec61850.ClientSap;
+import org.openmuc.openiec61850.DataSet;
 import org.openmuc.openiec61850.FcModelNode;
 import org.openmuc.openiec61850.SclParseException;
 import org.openmuc.openiec61850.ServerModel;
@@ -35,12 +43,17 @@ import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.help
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalDevice;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting.Iec61850ClientBaseEventListener;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting.Iec61850ClientEventListenerFactory;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting.Iec61850ReportQueueService;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services.Iec61850ConnectionHealthService;
 
 @Component
 public class Iec61850Client {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850Client.class);
     private static final String COULD_NOT_EXECUTE_COMMAND = "Could not execute command";
+    private static final String READ_DATA_SET_PREFIX = "@OsgpRead";
+
+    private final AtomicInteger readDataSetCounter = new AtomicInteger();
 
     @Autowired
     private int iec61850PortClient;
@@ -60,6 +73,15 @@ public class Iec61850Client {
     @Autowired
     private int maxRetryCount;
 
+    @Autowired
+    private boolean isDeviceMessageLoggingEnabled;
+
+    @Autowired
+    private Iec61850ConnectionHealthService iec61850ConnectionHealthService;
+
+    @Autowired
+    private Iec61850ReportQueueService iec61850ReportQueueService;
+
     @PostConstruct
     private void init() {
         LOGGER.info(
@@ -98,8 +120,13 @@ public class Iec61850Client {
                 ipAddress.getHostAddress(), port, this.maxRedeliveriesForIec61850Requests, this.maxRetryCount);
 
         try {
-            final ClientAssociation association = clientSap.associate(ipAddress, port, null, reportListener);
-            clientAssociation = new Iec61850ClientAssociation(association, reportListener);
+            final ConnectionHealth connectionHealth = new ConnectionHealth();
+            final ClientEventListener queueingListener = this.iec61850ReportQueueService
+                    .queueing(deviceIdentification, reportListener);
+            final ClientAssociation association = clientSap.associate(ipAddress, port, null,
+                    new Iec61850ClientHealthTrackingListener(queueingListener, connectionHealth));
+            this.iec61850ReportQueueService.associated(queueingListener);
+            clientAssociation = new Iec61850ClientAssociation(association, reportListener, connectionHealth);
         } catch (final IOException e) {
             // An IOException will always indicate a fatal exception. It
             // indicates that the association was closed and
@@ -229,6 +256,151 @@ public class Iec61850Client {
         }
     }
 
+    /**
+     * Read the values of all data attributes of a number of data objects in a
+     * single request, using a temporary data set that only exists for the
+     * association. If the device does not create or read the data set, the
+     * nodes are read using a temporary data set per logical node and
+     * functional constraint, and the nodes of a logical node and functional
+     * constraint for which that fails as well are read one by one.
+     *
+     * @param clientAssociation
+     *            An {@link ClientAssociation} instance.
+     * @param modelNodes
+     *            The {@link FcModelNode}s to read.
+     *
+     * @throws NodeReadException
+     *             In case the read action fails.
+     */
+    public void readNodeDataValues(final ClientAssociation clientAssociation, final List<FcModelNode> modelNodes)
+            throws NodeReadException {
+        final List<FcModelNode> distinctNodes = new ArrayList<>(new LinkedHashSet<>(modelNodes));
+        if (distinctNodes.size() < 2) {
+            for (final FcModelNode modelNode : distinctNodes) {
+                this.readNodeDataValues(clientAssociation, modelNode);
+            }
+            return;
+        }
+
+        if (this.readTemporaryDataSetValues(clientAssociation, distinctNodes)) {
+            return;
+        }
+
+        final Map<String, List<FcModelNode>> nodesPerLogicalNode = new LinkedHashMap<>();
+        for (final FcModelNode modelNode : distinctNodes) {
+            nodesPerLogicalNode.computeIfAbsent(getLogicalNodeKey(modelNode), key -> new ArrayList<>())
+                    .add(modelNode);
+        }
+        LOGGER.warn("Unable to read {} nodes using a data set, reading them per logical node for {} logical nodes",
+                distinctNodes.size(), nodesPerLogicalNode.size());
+        for (final List<FcModelNode> nodes : nodesPerLogicalNode.values()) {
+            if (nodesPerLogicalNode.size() > 1 && nodes.size() > 1
+                    && this.readTemporaryDataSetValues(clientAssociation, nodes)) {
+                continue;
+            }
+            for (final FcModelNode modelNode : nodes) {
+                this.readNodeDataValues(clientAssociation, modelNode);
+            }
+        }
+    }
+
+    /**
+     * Reads the values of the nodes using a temporary data set. Returns false
+     * if the device does not create the data set or does not read its values.
+     *
+     * @throws NodeReadException
+     *             In case the connection with the device is broken.
+     */
+    private boolean readTemporaryDataSetValues(final ClientAssociation clientAssociation,
+            final List<FcModelNode> nodes) throws NodeReadException {
+        final DataSet dataSet = new DataSet(READ_DATA_SET_PREFIX + this.readDataSetCounter.incrementAndGet(), nodes);
+        try {
+            this.createDataSet(clientAssociation, dataSet);
+        } catch (final NodeWriteException e) {
+            if (!ConnectionState.OK.equals(e.getConnectionState())) {
+                throw new NodeReadException(e.getMessage(), e, e.getConnectionState());
+            }
+            LOGGER.warn("Unable to create data set to read {} nodes", nodes.size());
+            return false;
+        }
+
+        try {
+            this.readDataSetValues(clientAssociation, dataSet);
+            return true;
+        } catch (final NodeReadException e) {
+            if (!ConnectionState.OK.equals(e.getConnectionState())) {
+                throw e;
+            }
+            LOGGER.warn("Unable to read data set with {} nodes", nodes.size());
+            return false;
+        } finally {
+            this.deleteDataSet(clientAssociation, dataSet);
+        }
+    }
+
+    /**
+     * Returns the reference of the logical node of the node, with the
+     * functional constraint of the node.
+     */
+    private static String getLogicalNodeKey(final FcModelNode modelNode) {
+        final String reference = modelNode.getReference().toString();
+        final int endOfLogicalNode = reference.indexOf('.');
+        return (endOfLogicalNode < 0 ? reference : reference.substring(0, endOfLogicalNode)) + '['
+                + modelNode.getFc() + ']';
+    }
+
+    /**
+     * Create a data set on the device. Data sets with a reference starting
+     * with '@' only exist for the association.
+     *
+     * @throws NodeWriteException
+     *             In case the device does not create the data set.
+     */
+    public void createDataSet(final ClientAssociation clientAssociation, final DataSet dataSet)
+            throws NodeWriteException {
+        try {
+            clientAssociation.createDataSet(dataSet);
+        } catch (final ServiceError e) {
+            LOGGER.error("ServiceError during createDataSet", e);
+            throw new NodeWriteException(e.getMessage(), e, ConnectionState.OK);
+        } catch (final IOException e) {
+            LOGGER.error("IOException during createDataSet", e);
+            throw new NodeWriteException(e.getMessage(), e, ConnectionState.BROKEN);
+        }
+    }
+
+    /**
+     * Read the values of all members of a data set that exists on the device.
+     *
+     * @throws NodeReadException
+     *             In case the read action fails.
+     */
+    public void readDataSetValues(final ClientAssociation clientAssociation, final DataSet dataSet)
+            throws NodeReadException {
+        try {
+            clientAssociation.getDataSetValues(dataSet);
+        } catch (final ServiceError e) {
+            LOGGER.error("ServiceError during readDataSetValues", e);
+            throw new NodeReadException(e.getMessage(), e, ConnectionState.OK);
+        } catch (final IOException e) {
+            LOGGER.error("IOException during readDataSetValues", e);
+            throw new NodeReadException(e.getMessage(), e, ConnectionState.BROKEN);
+        }
+    }
+
+    /**
+     * Delete a data set from the device. Failing to delete the data set is
+     * only logged, as data sets that only exist for the association are
+     * removed when the association is closed anyway.
+     */
+    public void deleteDataSet(final ClientAssociation clientAssociation, final DataSet dataSet) {
+        try {
+            clientAssociation.deleteDataSet(dataSet);
+        } catch (final ServiceError | IOException e) {
+            LOGGER.warn("Unable to delete data set {}", dataSet.getReferenceStr(), e);
+        }
+    }
+
     /**
      * Executes the apply method of the given {@link Function} with retries.
      *
@@ -240,6 +412,7 @@ public class Iec61850Client {
 
         try {
             output = function.apply(null);
+            this.iec61850ConnectionHealthService.recordActivity(deviceIdentification);
         } catch (final NodeWriteException | NodeReadException e) {
             if (ConnectionState.OK.equals(e.getConnectionState())) {
                 // ServiceError means we have to retry.
@@ -247,6 +420,7 @@ public class Iec61850Client {
                 this.sendCommandWithRetry(function, deviceIdentification, 1, null);
             } else {
                 LOGGER.error("Caught IOException, connection with device is broken.", e);
+                this.iec61850ConnectionHealthService.recordBroken(deviceIdentification, e.getMessage());
             }
         } catch (final ProtocolAdapterException e) {
             throw e;
@@ -267,9 +441,10 @@ public class Iec61850Client {
             final String deviceIdentification) throws ProtocolAdapterException {
         T output = null;
         final DeviceMessageLog deviceMessageLog = new DeviceMessageLog(IED.FLEX_OVL, LogicalDevice.LIGHTING,
-                functionName);
+                functionName, this.isDeviceMessageLoggingEnabled);
         try {
             output = function.apply(deviceMessageLog);
+            this.iec61850ConnectionHealthService.recordActivity(deviceIdentification);
         } catch (final NodeWriteException | NodeReadException e) {
             if (ConnectionState.OK.equals(e.getConnectionState())) {
                 // ServiceError means we have to retry.
@@ -277,6 +452,7 @@ public class Iec61850Client {
                 this.sendCommandWithRetry(function, deviceIdentification, 1, deviceMessageLog);
             } else {
                 LOGGER.error("Caught IOException, connection with device is broken.", e);
+                this.iec61850ConnectionHealthService.recordBroken(deviceIdentification, e.getMessage());
             }
         } catch (final ProtocolAdapterException e) {
             throw e;
@@ -298,6 +474,9 @@ public class Iec61850Client {
         LOGGER.info("retry: {} of {} for deviceIdentification: {}", retryCount, this.maxRetryCount,
                 deviceIdentification);
 
+        if (deviceMessageLog != null) {
+            deviceMessageLog.clear();
+        }
         try {
             output = function.apply(deviceMessageLog);
         } catch (final ProtocolAdapterException e) {
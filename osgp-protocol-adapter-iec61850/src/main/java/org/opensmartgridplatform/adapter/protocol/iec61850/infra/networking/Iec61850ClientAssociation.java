@@ -24,11 +24,18 @@ public class Iec61850ClientAssociation {
 
     private final ClientAssociation clientAssociation;
     private final Iec61850ClientBaseEventListener reportListener;
+    private final ConnectionHealth connectionHealth;
 
     public Iec61850ClientAssociation(final ClientAssociation clientAssociation,
             final Iec61850ClientBaseEventListener reportListener) {
+        this(clientAssociation, reportListener, new ConnectionHealth());
+    }
+
+    public Iec61850ClientAssociation(final ClientAssociation clientAssociation,
+            final Iec61850ClientBaseEventListener reportListener, final ConnectionHealth connectionHealth) {
         this.clientAssociation = clientAssociation;
         this.reportListener = reportListener;
+        this.connectionHealth = connectionHealth;
     }
 
     public ClientAssociation getClientAssociation() {
@@ -38,4 +45,8 @@ public class Iec61850ClientAssociation {
     public Iec61850ClientBaseEventListener getReportListener() {
         return this.reportListener;
     }
+
+    public ConnectionHealth getConnectionHealth() {
+        return this.connectionHealth;
+    }
 }
@@ -0,0 +1,46 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking;
+
+import java.io.IOException;
+
+import org.openmuc.openiec61850.ClientEventListener;
+import org.openmuc.openiec61850.Report;
+
+/**
+ * Keeps the {@link ConnectionHealth} of an association up to date with the
+ * events received on it, and passes the events on to the report listener for
+ * the device (if any).
+ */
+class Iec61850ClientHealthTrackingListener implements ClientEventListener {
+
+    private final ClientEventListener reportListener;
+    private final ConnectionHealth connectionHealth;
+
+    Iec61850ClientHealthTrackingListener(final ClientEventListener reportListener,
+            final ConnectionHealth connectionHealth) {
+        this.reportListener = reportListener;
+        this.connectionHealth = connectionHealth;
+    }
+
+    @Override
+    public void newReport(final Report report) {
+        this.connectionHealth.activity();
+        if (this.reportListener != null) {
+            this.reportListener.newReport(report);
+        }
+    }
+
+    @Override
+    public void associationClosed(final IOException e) {
+        this.connectionHealth.closed(e == null ? "association closed" : e.getMessage());
+        if (this.reportListener != null) {
+            this.reportListener.associationClosed(e);
+        }
+    }
+}
@@ -12,6 +12,9 @@ import org.openmuc.openiec61850.ClientAssociation;
 import org.openmuc.openiec61850.ServerModel;
 
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.IED;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.PollingDataSets;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ServerModelNodeIndex;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ServerModelPqLayout;
 
 public class Iec61850Connection {
 
@@ -23,6 +26,14 @@ public class Iec61850Connection {
 
     private IED ied;
 
+    private ServerModelNodeIndex nodeIndex;
+
+    private ServerModelPqLayout pqLayout;
+
+    private PollingDataSets pollingDataSets;
+
+    private volatile boolean isReportingEnabled;
+
     public Iec61850Connection(final Iec61850ClientAssociation clientAssociation, final ServerModel serverModel) {
         this.clientAssociation = clientAssociation;
         this.serverModel = serverModel;
@@ -56,4 +67,45 @@ public class Iec61850Connection {
     public IED getIed() {
         return this.ied;
     }
+
+    public boolean isReportingEnabled() {
+        return this.isReportingEnabled;
+    }
+
+    public void setReportingEnabled(final boolean isReportingEnabled) {
+        this.isReportingEnabled = isReportingEnabled;
+    }
+
+    /**
+     * Returns the index of the nodes of the ServerModel that have been looked
+     * up. The index is discarded together with this connection.
+     */
+    public synchronized ServerModelNodeIndex getNodeIndex() {
+        if (this.nodeIndex == null) {
+            this.nodeIndex = new ServerModelNodeIndex();
+        }
+        return this.nodeIndex;
+    }
+
+    /**
+     * Returns the power quality layout of the ServerModel, which is determined
+     * the first time it is needed and discarded together with this connection.
+     */
+    public synchronized ServerModelPqLayout getPqLayout() {
+        if (this.pqLayout == null) {
+            this.pqLayout = new ServerModelPqLayout(this.serverModel);
+        }
+        return this.pqLayout;
+    }
+
+    /**
+     * Returns the data sets created on the device to poll nodes using this
+     * connection. The data sets are discarded together with this connection.
+     */
+    public synchronized PollingDataSets getPollingDataSets() {
+        if (this.pollingDataSets == null) {
+            this.pollingDataSets = new PollingDataSets();
+        }
+        return this.pollingDataSets;
+    }
 }
\ No newline at end of file
@@ -7,6 +7,11 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking;
 
+import java.util.Collections;
+import java.util.List;
+
+import org.openmuc.openiec61850.FcModelNode;
+
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
 import org.opensmartgridplatform.dto.valueobjects.microgrids.GetDataSystemIdentifierDto;
@@ -17,6 +22,16 @@ public interface SystemService {
     GetDataSystemIdentifierDto getData(SystemFilterDto systemFilter, final Iec61850Client client,
             final DeviceConnection connection) throws NodeException;
 
+    /**
+     * Returns the nodes {@link #getData} reads for the system filter, so they
+     * can be read from the device together with the nodes of the other system
+     * filters of a request.
+     */
+    default List<FcModelNode> getNodesToRead(final SystemFilterDto systemFilter, final DeviceConnection connection)
+            throws NodeException {
+        return Collections.emptyList();
+    }
+
     void setData(SetDataSystemIdentifierDto systemIdentifier, final Iec61850Client client, DeviceConnection connection)
             throws NodeException;
 }
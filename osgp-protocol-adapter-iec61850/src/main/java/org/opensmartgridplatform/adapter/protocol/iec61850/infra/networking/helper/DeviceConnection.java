@@ -7,6 +7,11 @@
  */
 package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper;
 
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
 import org.openmuc.openiec61850.Fc;
 import org.openmuc.openiec61850.FcModelNode;
 import org.openmuc.openiec61850.ObjectReference;
@@ -24,6 +29,8 @@ public class DeviceConnection {
     private final Iec61850Connection connection;
     private final String deviceIdentification;
     private final String organisationIdentification;
+    private final Set<FcModelNode> readAheadNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private NodeWriteBatch writeBatch;
 
     public static final String LOGICAL_NODE_SEPARATOR = "/";
     public static final String DATA_ATTRIBUTE_SEPARATOR = ".";
@@ -44,17 +51,8 @@ public class DeviceConnection {
      */
     public NodeContainer getFcModelNode(final LogicalDevice logicalDevice, final LogicalNode logicalNode,
             final DataAttribute dataAttribute, final Fc fc) throws NodeNotFoundException {
-        final ObjectReference objectReference = this.createObjectReference(logicalDevice, logicalNode, dataAttribute);
-        final FcModelNode fcModelNode = (FcModelNode) this.connection.getServerModel().findModelNode(objectReference,
-                fc);
-        if (fcModelNode == null) {
-            LOGGER.error("FcModelNode is null, most likely the data attribute: {} does not exist",
-                    dataAttribute.getDescription());
-            throw new NodeNotFoundException(
-                    String.format("FcModelNode with objectReference %s does not exist", objectReference));
-        }
-
-        return new NodeContainer(this, fcModelNode);
+        return new NodeContainer(this, this.findFcModelNode(logicalDevice, ServerModelNodeIndex.NO_INDEX,
+                logicalNode, dataAttribute, fc));
     }
 
     /**
@@ -66,10 +64,29 @@ public class DeviceConnection {
     public NodeContainer getFcModelNode(final LogicalDevice logicalDevice, final int logicalDeviceIndex,
             final LogicalNode logicalNode, final DataAttribute dataAttribute, final Fc fc)
             throws NodeNotFoundException {
-        final ObjectReference objectReference = this.createObjectReference(logicalDevice, logicalDeviceIndex,
-                logicalNode, dataAttribute);
-        final FcModelNode fcModelNode = (FcModelNode) this.connection.getServerModel().findModelNode(objectReference,
-                fc);
+        return new NodeContainer(this,
+                this.findFcModelNode(logicalDevice, logicalDeviceIndex, logicalNode, dataAttribute, fc));
+    }
+
+    /**
+     * Looks up the node in the {@link ServerModelNodeIndex} of the connection,
+     * and only searches the ServerModel if the node has not been looked up
+     * before.
+     */
+    private FcModelNode findFcModelNode(final LogicalDevice logicalDevice, final int logicalDeviceIndex,
+            final LogicalNode logicalNode, final DataAttribute dataAttribute, final Fc fc)
+            throws NodeNotFoundException {
+        final ServerModelNodeIndex index = this.connection.getNodeIndex();
+        FcModelNode fcModelNode = index.get(this.serverName, logicalDevice, logicalDeviceIndex, logicalNode,
+                dataAttribute, fc);
+        if (fcModelNode != null) {
+            return fcModelNode;
+        }
+
+        final ObjectReference objectReference = logicalDeviceIndex == ServerModelNodeIndex.NO_INDEX
+                ? this.createObjectReference(logicalDevice, logicalNode, dataAttribute)
+                : this.createObjectReference(logicalDevice, logicalDeviceIndex, logicalNode, dataAttribute);
+        fcModelNode = (FcModelNode) this.connection.getServerModel().findModelNode(objectReference, fc);
         if (fcModelNode == null) {
             LOGGER.error("FcModelNode is null, most likely the data attribute: {} does not exist",
                     dataAttribute.getDescription());
@@ -77,7 +94,8 @@ public class DeviceConnection {
                     String.format("FcModelNode with objectReference %s does not exist", objectReference));
         }
 
-        return new NodeContainer(this, fcModelNode);
+        index.put(this.serverName, logicalDevice, logicalDeviceIndex, logicalNode, dataAttribute, fc, fcModelNode);
+        return fcModelNode;
     }
 
     /**
@@ -91,7 +109,7 @@ public class DeviceConnection {
                 .concat(logicalNode.getDescription()).concat(DATA_ATTRIBUTE_SEPARATOR)
                 .concat(dataAttribute.getDescription());
 
-        LOGGER.info("Device: {}, ObjectReference: {}", this.deviceIdentification, objectReference);
+        LOGGER.debug("Device: {}, ObjectReference: {}", this.deviceIdentification, objectReference);
 
         return new ObjectReference(objectReference);
     }
@@ -107,11 +125,52 @@ public class DeviceConnection {
                 .concat(logicalNode.getDescription()).concat(DATA_ATTRIBUTE_SEPARATOR)
                 .concat(dataAttribute.getDescription());
 
-        LOGGER.info("Device: {}, ObjectReference: {}", this.deviceIdentification, objectReference);
+        LOGGER.debug("Device: {}, ObjectReference: {}", this.deviceIdentification, objectReference);
 
         return new ObjectReference(objectReference);
     }
 
+    /**
+     * Marks the nodes as read from the device, so commands using this
+     * connection do not read them again. The nodes stay marked until
+     * {@link #clearReadAhead()} is called.
+     */
+    public void markReadAhead(final Collection<FcModelNode> fcModelNodes) {
+        this.readAheadNodes.addAll(fcModelNodes);
+    }
+
+    public boolean isReadAhead(final FcModelNode fcModelNode) {
+        return this.readAheadNodes.contains(fcModelNode);
+    }
+
+    public void clearReadAhead() {
+        this.readAheadNodes.clear();
+    }
+
+    /**
+     * Starts collecting the writes of {@link NodeContainer}s using this
+     * connection, to write them to the device in as few requests as possible
+     * when the batch is committed.
+     */
+    public NodeWriteBatch startWriteBatch() {
+        if (this.writeBatch != null) {
+            throw new IllegalStateException("A write batch has already been started for device: "
+                    + this.deviceIdentification);
+        }
+        this.writeBatch = new NodeWriteBatch(this);
+        return this.writeBatch;
+    }
+
+    NodeWriteBatch getWriteBatch() {
+        return this.writeBatch;
+    }
+
+    void endWriteBatch(final NodeWriteBatch batch) {
+        if (this.writeBatch == batch) {
+            this.writeBatch = null;
+        }
+    }
+
     // GETTERS AND SETTERS
 
     public String getDeviceIdentification() {
@@ -280,9 +280,15 @@ public class NodeContainer {
     }
 
     /**
-     * Writes the new data of the node to the device.
+     * Writes the new data of the node to the device, or adds the node to the
+     * {@link NodeWriteBatch} of the connection if a batch has been started.
      */
     private void writeNode(final FcModelNode node) throws NodeWriteException {
+        final NodeWriteBatch writeBatch = this.connection.getWriteBatch();
+        if (writeBatch != null) {
+            writeBatch.add(this.parent, node);
+            return;
+        }
         try {
             this.connection.getConnection().getClientAssociation().setDataValues(node);
         } catch (final ServiceError e) {
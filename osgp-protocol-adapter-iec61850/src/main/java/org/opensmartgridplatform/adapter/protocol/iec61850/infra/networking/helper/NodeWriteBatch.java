@@ -0,0 +1,104 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openmuc.openiec61850.FcModelNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeWriteException;
+
+/**
+ * Collects the nodes modified by the write methods of {@link NodeContainer}s
+ * using a {@link DeviceConnection}, instead of writing each node to the device
+ * separately.
+ * <p>
+ * On {@link #commit()} the modified nodes are written per
+ * {@link NodeContainer} they were modified with: a container of which a single
+ * node has been modified only gets that node written, a container of which
+ * multiple nodes have been modified is written as a whole in a single request.
+ * Callers are expected to have read the container before modifying it, so the
+ * unmodified nodes are written with their current values.
+ * <p>
+ * Use with try-with-resources, closing the batch discards any changes that
+ * have not been committed:
+ *
+ * <pre>
+ * try (final NodeWriteBatch writeBatch = deviceConnection.startWriteBatch()) {
+ *     node.writeBoolean(SubDataAttribute.SCHEDULE_ENABLE, true);
+ *     ...
+ *     writeBatch.commit();
+ * }
+ * </pre>
+ */
+public class NodeWriteBatch implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(NodeWriteBatch.class);
+
+    private final DeviceConnection connection;
+    private final Map<FcModelNode, List<FcModelNode>> modifiedNodesPerContainer = new LinkedHashMap<>();
+
+    NodeWriteBatch(final DeviceConnection connection) {
+        this.connection = connection;
+    }
+
+    void add(final FcModelNode containingNode, final FcModelNode modifiedNode) {
+        final List<FcModelNode> modifiedNodes = this.modifiedNodesPerContainer.computeIfAbsent(containingNode,
+                key -> new ArrayList<>());
+        if (!modifiedNodes.contains(modifiedNode)) {
+            modifiedNodes.add(modifiedNode);
+        }
+    }
+
+    public boolean isEmpty() {
+        return this.modifiedNodesPerContainer.isEmpty();
+    }
+
+    /**
+     * Writes the modified nodes to the device, and ends the batch.
+     *
+     * @throws NodeWriteException
+     *             In case a write action fails, the nodes that have not been
+     *             written yet are discarded.
+     */
+    public void commit() throws NodeWriteException {
+        this.connection.endWriteBatch(this);
+
+        LOGGER.debug("Device: {}, writing {} modified nodes in {} requests", this.connection.getDeviceIdentification(),
+                this.modifiedNodesPerContainer.values().stream().mapToInt(List::size).sum(),
+                this.modifiedNodesPerContainer.size());
+
+        try {
+            for (final Map.Entry<FcModelNode, List<FcModelNode>> entry : this.modifiedNodesPerContainer.entrySet()) {
+                final List<FcModelNode> modifiedNodes = entry.getValue();
+                final FcModelNode nodeToWrite = modifiedNodes.size() == 1 ? modifiedNodes.get(0) : entry.getKey();
+                new NodeContainer(this.connection, nodeToWrite).write();
+            }
+        } finally {
+            this.modifiedNodesPerContainer.clear();
+        }
+    }
+
+    /**
+     * Ends the batch, discarding the changes that have not been committed.
+     */
+    @Override
+    public void close() {
+        if (!this.modifiedNodesPerContainer.isEmpty()) {
+            LOGGER.warn("Device: {}, discarding uncommitted changes of {} nodes",
+                    this.connection.getDeviceIdentification(), this.modifiedNodesPerContainer.size());
+            this.modifiedNodesPerContainer.clear();
+        }
+        this.connection.endWriteBatch(this);
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.openmuc.openiec61850.DataSet;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection;
+
+/**
+ * The data sets created on a device to poll combinations of nodes, by key of
+ * the combination, in least recently used order.
+ * <p>
+ * Data sets only exist on the device for the association they have been
+ * created with, and they refer to the nodes of its ServerModel. They are kept
+ * by the {@link Iec61850Connection}, so they are discarded together with the
+ * connection. Callers synchronize on this object.
+ */
+public class PollingDataSets {
+
+    private final Map<String, DataSet> dataSets = new LinkedHashMap<>(16, 0.75f, true);
+
+    private boolean isCreatingDataSetsFailed;
+
+    public DataSet get(final String key) {
+        return this.dataSets.get(key);
+    }
+
+    public void put(final String key, final DataSet dataSet) {
+        this.dataSets.put(key, dataSet);
+    }
+
+    public void remove(final String key) {
+        this.dataSets.remove(key);
+    }
+
+    public int size() {
+        return this.dataSets.size();
+    }
+
+    /**
+     * Removes and returns the least recently used data set, or {@code null} if
+     * there are none.
+     */
+    public DataSet removeLeastRecentlyUsed() {
+        final Iterator<DataSet> iterator = this.dataSets.values().iterator();
+        if (!iterator.hasNext()) {
+            return null;
+        }
+        final DataSet dataSet = iterator.next();
+        iterator.remove();
+        return dataSet;
+    }
+
+    /**
+     * Returns whether the device refused to create a data set, in which case
+     * no further data sets are created on this association.
+     */
+    public boolean isCreatingDataSetsFailed() {
+        return this.isCreatingDataSetsFailed;
+    }
+
+    public void setCreatingDataSetsFailed(final boolean isCreatingDataSetsFailed) {
+        this.isCreatingDataSetsFailed = isCreatingDataSetsFailed;
+    }
+}
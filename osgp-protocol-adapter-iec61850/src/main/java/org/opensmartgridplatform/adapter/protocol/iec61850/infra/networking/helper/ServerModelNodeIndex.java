@@ -0,0 +1,101 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openmuc.openiec61850.Fc;
+import org.openmuc.openiec61850.FcModelNode;
+import org.openmuc.openiec61850.ServerModel;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection;
+
+/**
+ * Index of the {@link FcModelNode}s of a {@link ServerModel} that have been
+ * looked up, by server name, {@link LogicalDevice}, logical device index,
+ * {@link LogicalNode}, {@link DataAttribute} and {@link Fc}.
+ * <p>
+ * Finding a node in a ServerModel requires building its object reference and
+ * walking the model tree. The index is kept by the {@link Iec61850Connection}
+ * the ServerModel was read for, so this is only done the first time a node is
+ * looked up on the connection. The indexed nodes refer to the ServerModel, so
+ * the index must not outlive the connection.
+ */
+public class ServerModelNodeIndex {
+
+    /**
+     * Logical device index for nodes of a logical device without an index.
+     */
+    public static final int NO_INDEX = -1;
+
+    private final Map<NodeKey, FcModelNode> nodes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the indexed node, or {@code null} if the node has not been
+     * indexed.
+     */
+    public FcModelNode get(final String serverName, final LogicalDevice logicalDevice, final int logicalDeviceIndex,
+            final LogicalNode logicalNode, final DataAttribute dataAttribute, final Fc fc) {
+        return this.nodes.get(new NodeKey(serverName, logicalDevice, logicalDeviceIndex, logicalNode, dataAttribute,
+                fc));
+    }
+
+    public void put(final String serverName, final LogicalDevice logicalDevice, final int logicalDeviceIndex,
+            final LogicalNode logicalNode, final DataAttribute dataAttribute, final Fc fc,
+            final FcModelNode fcModelNode) {
+        this.nodes.put(new NodeKey(serverName, logicalDevice, logicalDeviceIndex, logicalNode, dataAttribute, fc),
+                fcModelNode);
+    }
+
+    private static final class NodeKey {
+        private final String serverName;
+        private final LogicalDevice logicalDevice;
+        private final int logicalDeviceIndex;
+        private final LogicalNode logicalNode;
+        private final DataAttribute dataAttribute;
+        private final Fc fc;
+        private final int hashCode;
+
+        NodeKey(final String serverName, final LogicalDevice logicalDevice, final int logicalDeviceIndex,
+                final LogicalNode logicalNode, final DataAttribute dataAttribute, final Fc fc) {
+            this.serverName = serverName;
+            this.logicalDevice = logicalDevice;
+            this.logicalDeviceIndex = logicalDeviceIndex;
+            this.logicalNode = logicalNode;
+            this.dataAttribute = dataAttribute;
+            this.fc = fc;
+            int result = Objects.hashCode(serverName);
+            result = 31 * result + Objects.hashCode(logicalDevice);
+            result = 31 * result + logicalDeviceIndex;
+            result = 31 * result + Objects.hashCode(logicalNode);
+            result = 31 * result + Objects.hashCode(dataAttribute);
+            this.hashCode = 31 * result + Objects.hashCode(fc);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof NodeKey)) {
+                return false;
+            }
+            final NodeKey other = (NodeKey) obj;
+            return this.logicalDevice == other.logicalDevice && this.logicalDeviceIndex == other.logicalDeviceIndex
+                    && this.logicalNode == other.logicalNode && this.dataAttribute == other.dataAttribute
+                    && this.fc == other.fc && Objects.equals(this.serverName, other.serverName);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.openmuc.openiec61850.BdaFloat32;
+import org.openmuc.openiec61850.BdaQuality;
+import org.openmuc.openiec61850.BdaTimestamp;
+import org.openmuc.openiec61850.ConstructedDataAttribute;
+import org.openmuc.openiec61850.Fc;
+import org.openmuc.openiec61850.FcModelNode;
+import org.openmuc.openiec61850.ModelNode;
+import org.openmuc.openiec61850.ServerModel;
+
+import org.opensmartgridplatform.dto.da.iec61850.DataSampleDto;
+import org.opensmartgridplatform.dto.da.iec61850.LogicalDeviceDto;
+import org.opensmartgridplatform.dto.da.iec61850.LogicalNodeDto;
+
+/**
+ * Layout of the power quality values of a {@link ServerModel}: the data
+ * objects with functional constraint MX of its logical nodes, with the
+ * {@link BdaFloat32} and {@link BdaTimestamp} attributes of every sample and
+ * the type of the sample, like {@code A.phsA.cVal.mag.f}.
+ * <p>
+ * The layout is determined once per connection, and is immutable afterwards.
+ * It refers to the nodes of the ServerModel, so it is kept by the
+ * {@link org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection}
+ * the ServerModel was read for and must not outlive it. Reading the power
+ * quality values only reads the values of the attributes, so the values of
+ * different ServerModels can be read in parallel.
+ */
+public class ServerModelPqLayout {
+
+    private static final MathContext VALUE_CONTEXT = new MathContext(3, RoundingMode.HALF_EVEN);
+
+    private final List<LogicalDeviceLayout> logicalDevices;
+    private final List<FcModelNode> mxNodes;
+
+    public ServerModelPqLayout(final ServerModel serverModel) {
+        final List<LogicalDeviceLayout> logicalDeviceLayouts = new ArrayList<>();
+        final List<FcModelNode> mxNodeList = new ArrayList<>();
+        for (final ModelNode logicalDevice : serverModel.getChildren()) {
+            final List<LogicalNodeLayout> logicalNodeLayouts = new ArrayList<>();
+            for (final ModelNode logicalNode : logicalDevice.getChildren()) {
+                final List<SampleLayout> samples = new ArrayList<>();
+                for (final ModelNode dataObject : logicalNode.getChildren()) {
+                    if (isMxDataObject(dataObject)) {
+                        mxNodeList.add((FcModelNode) dataObject);
+                        addSamples(dataObject, samples);
+                    }
+                }
+                if (!samples.isEmpty()) {
+                    logicalNodeLayouts.add(new LogicalNodeLayout(logicalNode.getName(), samples));
+                }
+            }
+            if (!logicalNodeLayouts.isEmpty()) {
+                logicalDeviceLayouts.add(new LogicalDeviceLayout(logicalDevice.getName(), logicalNodeLayouts));
+            }
+        }
+        this.logicalDevices = Collections.unmodifiableList(logicalDeviceLayouts);
+        this.mxNodes = Collections.unmodifiableList(mxNodeList);
+    }
+
+    /**
+     * Returns the data objects with functional constraint MX that hold the
+     * power quality values.
+     */
+    public List<FcModelNode> getMxNodes() {
+        return this.mxNodes;
+    }
+
+    /**
+     * Returns the power quality values, as currently held by the attributes of
+     * the ServerModel.
+     */
+    public List<LogicalDeviceDto> readValues() {
+        final List<LogicalDeviceDto> logicalDeviceDtos = new ArrayList<>(this.logicalDevices.size());
+        for (final LogicalDeviceLayout logicalDevice : this.logicalDevices) {
+            final List<LogicalNodeDto> logicalNodeDtos = new ArrayList<>(logicalDevice.logicalNodes.size());
+            for (final LogicalNodeLayout logicalNode : logicalDevice.logicalNodes) {
+                final List<DataSampleDto> sampleDtos = new ArrayList<>(logicalNode.samples.size());
+                for (final SampleLayout sample : logicalNode.samples) {
+                    sampleDtos.add(sample.read());
+                }
+                logicalNodeDtos.add(new LogicalNodeDto(logicalNode.name, sampleDtos));
+            }
+            logicalDeviceDtos.add(new LogicalDeviceDto(logicalDevice.name, logicalNodeDtos));
+        }
+        return logicalDeviceDtos;
+    }
+
+    private static boolean isMxDataObject(final ModelNode node) {
+        return node instanceof FcModelNode && ((FcModelNode) node).getFc() == Fc.MX && node.getChildren() != null;
+    }
+
+    /**
+     * Adds a single sample for a data object with a quality attribute, like
+     * {@code TotW}, or a sample per sub data object otherwise, like the phases
+     * of {@code A}.
+     */
+    private static void addSamples(final ModelNode dataObject, final List<SampleLayout> samples) {
+        if (hasBdaQualityChild(dataObject)) {
+            final BdaFloat32 floatNode = findBdaFloat32NodeInConstructedDataAttribute(dataObject);
+            final String type = floatNode == null ? null
+                    : dataObject.getName() + "." + floatNode.getParent().getName() + "." + floatNode.getName();
+            samples.add(new SampleLayout(type, findBdaTimestampNode(dataObject), floatNode));
+            return;
+        }
+        for (final ModelNode subDataObject : dataObject.getChildren()) {
+            if (subDataObject.getChildren() == null) {
+                samples.add(new SampleLayout(null, null, null));
+                continue;
+            }
+            final BdaFloat32 floatNode = findDeeperBdaFloat32NodeInConstructedDataAttributeChildren(subDataObject);
+            final String type = floatNode == null ? null
+                    : dataObject.getName() + "." + subDataObject.getName() + "."
+                            + floatNode.getParent().getParent().getName() + "." + floatNode.getParent().getName()
+                            + "." + floatNode.getName();
+            samples.add(new SampleLayout(type, findBdaTimestampNode(subDataObject), floatNode));
+        }
+    }
+
+    private static boolean hasBdaQualityChild(final ModelNode node) {
+        for (final ModelNode child : node.getChildren()) {
+            if (child instanceof BdaQuality) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static BdaTimestamp findBdaTimestampNode(final ModelNode node) {
+        BdaTimestamp timestampNode = null;
+        for (final ModelNode child : node.getChildren()) {
+            if (child instanceof BdaTimestamp) {
+                timestampNode = (BdaTimestamp) child;
+            }
+        }
+        return timestampNode;
+    }
+
+    private static BdaFloat32 findDeeperBdaFloat32NodeInConstructedDataAttributeChildren(final ModelNode node) {
+        BdaFloat32 floatNode = null;
+        for (final ModelNode child : node.getChildren()) {
+            if (child instanceof ConstructedDataAttribute && child.getChildren() != null) {
+                floatNode = findBdaFloat32NodeInConstructedDataAttribute(child);
+            }
+        }
+        return floatNode;
+    }
+
+    private static BdaFloat32 findBdaFloat32NodeInConstructedDataAttribute(final ModelNode node) {
+        BdaFloat32 floatNode = null;
+        for (final ModelNode child : node.getChildren()) {
+            if (child instanceof ConstructedDataAttribute && child.getChildren() != null) {
+                floatNode = findBdaFloat32Node(child);
+            }
+        }
+        return floatNode;
+    }
+
+    private static BdaFloat32 findBdaFloat32Node(final ModelNode node) {
+        BdaFloat32 floatNode = null;
+        for (final ModelNode child : node.getChildren()) {
+            if (child instanceof BdaFloat32) {
+                floatNode = (BdaFloat32) child;
+            }
+        }
+        return floatNode;
+    }
+
+    private static final class LogicalDeviceLayout {
+        private final String name;
+        private final List<LogicalNodeLayout> logicalNodes;
+
+        LogicalDeviceLayout(final String name, final List<LogicalNodeLayout> logicalNodes) {
+            this.name = name;
+            this.logicalNodes = logicalNodes;
+        }
+    }
+
+    private static final class LogicalNodeLayout {
+        private final String name;
+        private final List<SampleLayout> samples;
+
+        LogicalNodeLayout(final String name, final List<SampleLayout> samples) {
+            this.name = name;
+            this.samples = samples;
+        }
+    }
+
+    private static final class SampleLayout {
+        private final String type;
+        private final BdaTimestamp timestampNode;
+        private final BdaFloat32 floatNode;
+
+        SampleLayout(final String type, final BdaTimestamp timestampNode, final BdaFloat32 floatNode) {
+            this.type = type;
+            this.timestampNode = timestampNode;
+            this.floatNode = floatNode;
+        }
+
+        DataSampleDto read() {
+            final Date timestamp = this.timestampNode == null ? null : this.timestampNode.getDate();
+            final BigDecimal value = this.floatNode == null ? null
+                    : new BigDecimal(this.floatNode.getFloat(), VALUE_CONTEXT);
+            return new DataSampleDto(this.type, timestamp, value);
+        }
+    }
+}
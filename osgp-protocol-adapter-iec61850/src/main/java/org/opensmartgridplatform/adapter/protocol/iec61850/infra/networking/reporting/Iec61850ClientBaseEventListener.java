@@ -39,6 +39,8 @@ public abstract class Iec61850ClientBaseEventListener implements ClientEventList
      */
     protected static final long IEC61850_ENTRY_TIME_OFFSET = 441763200000L;
 
+    private Iec61850ReportTrace reportTrace;
+
     public Iec61850ClientBaseEventListener(final String deviceIdentification,
             final DeviceManagementService deviceManagementService, final Class<?> loggerClass) {
         this.deviceManagementService = deviceManagementService;
@@ -50,6 +52,28 @@ public abstract class Iec61850ClientBaseEventListener implements ClientEventList
         return this.deviceIdentification;
     }
 
+    void setReportTrace(final Iec61850ReportTrace reportTrace) {
+        this.reportTrace = reportTrace;
+    }
+
+    /**
+     * Logs the details of the {@link Report} at DEBUG level, and writes it to
+     * the report trace if enabled. Nothing is built when both are disabled.
+     */
+    protected void logReport(final Report report) {
+        if (this.logger.isDebugEnabled()) {
+            this.logReportDetails(report);
+        }
+        if (this.reportTrace != null) {
+            this.reportTrace.trace(this.deviceIdentification, report);
+        }
+    }
+
+    /**
+     * Logs the details of the {@link Report}, only called if DEBUG is enabled.
+     */
+    protected abstract void logReportDetails(Report report);
+
     /**
      * Before enabling reporting on the device, set the SqNum of the buffered
      * report data to be able to check if incoming reports have been received
@@ -35,6 +35,7 @@ public class Iec61850ClientDaRTUEventListener extends Iec61850ClientBaseEventLis
     public Iec61850ClientDaRTUEventListener(final String deviceIdentification,
             final DeviceManagementService deviceManagementService) throws ProtocolAdapterException {
         super(deviceIdentification, deviceManagementService, Iec61850ClientDaRTUEventListener.class);
+        this.deviceManagementService.loadDeviceSettings(deviceIdentification);
     }
 
     @Override
@@ -45,7 +46,7 @@ public class Iec61850ClientDaRTUEventListener extends Iec61850ClientBaseEventLis
         final String reportDescription = this.getReportDescription(report, timeOfEntry);
 
         this.logger.info("newReport for {}", reportDescription);
-        this.logReportDetails(report);
+        this.logReport(report);
         try {
             this.processReport(report, reportDescription);
         } catch (final ProtocolAdapterException e) {
@@ -223,7 +224,8 @@ public class Iec61850ClientDaRTUEventListener extends Iec61850ClientBaseEventLis
                 report.isMoreSegmentsFollow() ? " (more segments follow for this sqNum)" : "");
     }
 
-    private void logReportDetails(final Report report) {
+    @Override
+    protected void logReportDetails(final Report report) {
         final StringBuilder sb = new StringBuilder("Report details for device ").append(this.deviceIdentification)
                 .append(System.lineSeparator());
         this.logDefaultReportDetails(sb, report);
@@ -231,7 +233,7 @@ public class Iec61850ClientDaRTUEventListener extends Iec61850ClientBaseEventLis
         final List<FcModelNode> dataSetMembers = report.getValues();
         this.logDataSetMembersDetails(report, dataSetMembers, sb);
 
-        this.logger.info(sb.append(System.lineSeparator()).toString());
+        this.logger.debug(sb.append(System.lineSeparator()).toString());
     }
 
     private void logDataSetMembersDetails(final Report report, final List<FcModelNode> dataSetMembers,
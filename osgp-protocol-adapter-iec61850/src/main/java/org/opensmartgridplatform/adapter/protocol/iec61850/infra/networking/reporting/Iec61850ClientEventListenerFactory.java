@@ -28,8 +28,20 @@ public class Iec61850ClientEventListenerFactory {
     @Autowired
     private ReportingService reportingService;
 
+    @Autowired
+    private Iec61850ReportTrace iec61850ReportTrace;
+
     public Iec61850ClientBaseEventListener getEventListener(final IED ied, final String deviceIdentification)
             throws ProtocolAdapterException {
+        final Iec61850ClientBaseEventListener eventListener = this.createEventListener(ied, deviceIdentification);
+        if (eventListener != null) {
+            eventListener.setReportTrace(this.iec61850ReportTrace);
+        }
+        return eventListener;
+    }
+
+    private Iec61850ClientBaseEventListener createEventListener(final IED ied, final String deviceIdentification)
+            throws ProtocolAdapterException {
         switch (ied) {
         case FLEX_OVL:
             return new Iec61850ClientSSLDEventListener(deviceIdentification, this.deviceManagementService);
@@ -22,7 +22,6 @@ import org.springframework.util.CollectionUtils;
 
 import org.opensmartgridplatform.adapter.protocol.iec61850.application.services.DeviceManagementService;
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAdapterException;
-import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalNode;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.SubDataAttribute;
 import org.opensmartgridplatform.core.db.api.iec61850.entities.LightMeasurementDevice;
 import org.opensmartgridplatform.dto.valueobjects.EventNotificationDto;
@@ -30,6 +29,8 @@ import org.opensmartgridplatform.dto.valueobjects.EventTypeDto;
 
 public class Iec61850ClientLMDEventListener extends Iec61850ClientBaseEventListener {
 
+    private static final String SPGGIO_PREFIX = "SPGGIO";
+
     public Iec61850ClientLMDEventListener(final String deviceIdentification,
             final DeviceManagementService deviceManagementService) throws ProtocolAdapterException {
         super(deviceIdentification, deviceManagementService, Iec61850ClientLMDEventListener.class);
@@ -53,7 +54,7 @@ public class Iec61850ClientLMDEventListener extends Iec61850ClientBaseEventListe
             this.logger.warn("report.getSqNum() < this.firstNewSqNum, report.getSqNum() = {}, this.firstNewSqNum = {}",
                     report.getSqNum(), this.firstNewSqNum);
         }
-        this.logReportDetails(report);
+        this.logReport(report);
 
         if (CollectionUtils.isEmpty(report.getValues())) {
             this.logger.warn("No dataSet members available for {}", reportDescription);
@@ -84,25 +85,41 @@ public class Iec61850ClientLMDEventListener extends Iec61850ClientBaseEventListe
             final List<FcModelNode> dataSetMembers) {
         final Map<LightMeasurementDevice, FcModelNode> result = new HashMap<>();
 
-        this.logger.info("Trying to find light measurement devices...");
-        final List<LightMeasurementDevice> lmds = this.deviceManagementService.findRealLightMeasurementDevices();
-        this.logger.info("Found {} light measurement devices.", lmds == null ? "null" : lmds.size());
-
-        for (final LightMeasurementDevice lmd : lmds) {
-            final String nodeName = LogicalNode.getSpggioByIndex(lmd.getDigitalInput()).getDescription().concat(".");
+        final Map<Integer, LightMeasurementDevice> lmdsBySpggioIndex = this.deviceManagementService
+                .getRealLightMeasurementDevicesBySpggioIndex();
 
-            for (final FcModelNode member : dataSetMembers) {
-                if (member.getReference().toString().contains(nodeName)) {
-                    result.put(lmd, member);
-                }
+        for (final FcModelNode member : dataSetMembers) {
+            final int spggioIndex = getSpggioIndex(member);
+            final LightMeasurementDevice lmd = lmdsBySpggioIndex.get(spggioIndex);
+            if (lmd != null) {
+                result.put(lmd, member);
             }
         }
 
-        this.logger.info("Returning {} results.", result.size());
+        this.logger.debug("Found {} light measurement devices in {} members.", result.size(), dataSetMembers.size());
 
         return result;
     }
 
+    /**
+     * Returns the index of the SPGGIO logical node of the member, or -1 if the
+     * member is not a data object of an SPGGIO logical node.
+     */
+    private static int getSpggioIndex(final FcModelNode member) {
+        if (member == null || member.getReference().size() < 2) {
+            return -1;
+        }
+        final String logicalNodeName = member.getReference().get(1);
+        if (!logicalNodeName.startsWith(SPGGIO_PREFIX)) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(logicalNodeName.substring(SPGGIO_PREFIX.length()));
+        } catch (final NumberFormatException e) {
+            return -1;
+        }
+    }
+
     private DateTime getTimeOfEntry(final Report report) {
         return report.getTimeOfEntry() == null ? DateTime.now(DateTimeZone.UTC)
                 : new DateTime(report.getTimeOfEntry().getTimestampValue() + IEC61850_ENTRY_TIME_OFFSET);
@@ -149,7 +166,8 @@ public class Iec61850ClientLMDEventListener extends Iec61850ClientBaseEventListe
                 + evnRpn.getReference() + " from " + reportDescription);
     }
 
-    private void logReportDetails(final Report report) {
+    @Override
+    protected void logReportDetails(final Report report) {
         final StringBuilder sb = new StringBuilder("Report details for device ").append(this.deviceIdentification)
                 .append(System.lineSeparator());
         this.logDefaultReportDetails(sb, report);
@@ -157,7 +175,7 @@ public class Iec61850ClientLMDEventListener extends Iec61850ClientBaseEventListe
         final List<FcModelNode> dataSetMembers = report.getValues();
         this.logDataSetMembersDetails(report, dataSetMembers, sb);
 
-        this.logger.info(sb.append(System.lineSeparator()).toString());
+        this.logger.debug(sb.append(System.lineSeparator()).toString());
     }
 
     private void logDataSetMembersDetails(final Report report, final List<FcModelNode> dataSetMembers,
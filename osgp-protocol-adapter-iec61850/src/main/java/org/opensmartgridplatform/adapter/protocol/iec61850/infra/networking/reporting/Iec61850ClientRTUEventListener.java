@@ -8,12 +8,13 @@
 package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting;
 
 import java.io.IOException;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -22,11 +23,8 @@ import org.openmuc.openiec61850.FcModelNode;
 import org.openmuc.openiec61850.Report;
 import org.springframework.util.CollectionUtils;
 
-import org.opensmartgridplatform.adapter.protocol.iec61850.application.config.BeanUtil;
 import org.opensmartgridplatform.adapter.protocol.iec61850.application.services.DeviceManagementService;
 import org.opensmartgridplatform.adapter.protocol.iec61850.application.services.ReportingService;
-import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850Device;
-import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850DeviceRepository;
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAdapterException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ReadOnlyNodeContainer;
 import org.opensmartgridplatform.dto.valueobjects.microgrids.GetDataResponseDto;
@@ -41,61 +39,61 @@ public class Iec61850ClientRTUEventListener extends Iec61850ClientBaseEventListe
     private static final Pattern REPORT_PATTERN = Pattern
             .compile("\\A(.*)" + NODE_NAMES + "([1-9]\\d*+)/LLN0\\.(Status|Measurements|Heartbeat)\\Z");
 
-    private static final Map<String, Class<? extends Iec61850ReportHandler>> REPORT_HANDLERS_MAP = new HashMap<>();
+    private static final Map<String, IntFunction<Iec61850ReportHandler>> REPORT_HANDLERS_MAP = new HashMap<>();
 
     private ReportingService reportingService;
 
+    /**
+     * The report handler per DataSetRef, created on the first report for the
+     * data set. Empty if the data set is not supported.
+     */
+    private final Map<String, Optional<Iec61850ReportHandler>> reportHandlers = new ConcurrentHashMap<>();
+
     static {
-        REPORT_HANDLERS_MAP.put("RTU", Iec61850RtuReportHandler.class);
-        REPORT_HANDLERS_MAP.put("PV", Iec61850PvReportHandler.class);
-        REPORT_HANDLERS_MAP.put("BATTERY", Iec61850BatteryReportHandler.class);
-        REPORT_HANDLERS_MAP.put("ENGINE", Iec61850EngineReportHandler.class);
-        REPORT_HANDLERS_MAP.put("LOAD", Iec61850LoadReportHandler.class);
-        REPORT_HANDLERS_MAP.put("LOAD_COMBINED", Iec61850CombinedLoadReportHandler.class);
-        REPORT_HANDLERS_MAP.put("CHP", Iec61850ChpReportHandler.class);
-        REPORT_HANDLERS_MAP.put("HEAT_BUFFER", Iec61850HeatBufferReportHandler.class);
-        REPORT_HANDLERS_MAP.put("GAS_FURNACE", Iec61850GasFurnaceReportHandler.class);
-        REPORT_HANDLERS_MAP.put("HEAT_PUMP", Iec61850HeatPumpReportHandler.class);
-        REPORT_HANDLERS_MAP.put("BOILER", Iec61850BoilerReportHandler.class);
-        REPORT_HANDLERS_MAP.put("WIND", Iec61850WindReportHandler.class);
-        REPORT_HANDLERS_MAP.put("PQ", Iec61850PqReportHandler.class);
+        REPORT_HANDLERS_MAP.put("RTU", Iec61850RtuReportHandler::new);
+        REPORT_HANDLERS_MAP.put("PV", Iec61850PvReportHandler::new);
+        REPORT_HANDLERS_MAP.put("BATTERY", Iec61850BatteryReportHandler::new);
+        REPORT_HANDLERS_MAP.put("ENGINE", Iec61850EngineReportHandler::new);
+        REPORT_HANDLERS_MAP.put("LOAD", Iec61850LoadReportHandler::new);
+        REPORT_HANDLERS_MAP.put("LOAD_COMBINED", Iec61850CombinedLoadReportHandler::new);
+        REPORT_HANDLERS_MAP.put("CHP", Iec61850ChpReportHandler::new);
+        REPORT_HANDLERS_MAP.put("HEAT_BUFFER", Iec61850HeatBufferReportHandler::new);
+        REPORT_HANDLERS_MAP.put("GAS_FURNACE", Iec61850GasFurnaceReportHandler::new);
+        REPORT_HANDLERS_MAP.put("HEAT_PUMP", Iec61850HeatPumpReportHandler::new);
+        REPORT_HANDLERS_MAP.put("BOILER", Iec61850BoilerReportHandler::new);
+        REPORT_HANDLERS_MAP.put("WIND", Iec61850WindReportHandler::new);
+        REPORT_HANDLERS_MAP.put("PQ", Iec61850PqReportHandler::new);
     }
 
     public Iec61850ClientRTUEventListener(final String deviceIdentification,
             final DeviceManagementService deviceManagementService, final ReportingService reportingService) {
         super(deviceIdentification, deviceManagementService, Iec61850ClientRTUEventListener.class);
         this.reportingService = reportingService;
+        this.deviceManagementService.loadDeviceSettings(deviceIdentification);
     }
 
     private Iec61850ReportHandler getReportHandler(final String dataSetRef) {
-        final Matcher reportMatcher = REPORT_PATTERN.matcher(dataSetRef);
-        if (reportMatcher.matches()) {
-            String node = reportMatcher.group(2);
-
-            if ("LOAD".equals(node) && this.useCombinedLoad()) {
-                node += "_COMBINED";
-            }
-
-            final int systemId = Integer.parseInt(reportMatcher.group(3));
-            final Class<?> clazz = REPORT_HANDLERS_MAP.get(node);
-            try {
-                final Constructor<?> ctor = clazz.getConstructor(int.class);
-                return (Iec61850ReportHandler) ctor.newInstance(systemId);
-            } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
-                    | InvocationTargetException | NoSuchMethodException ex) {
-                this.logger.error("Unable to instantiate Iec61850ReportHandler ", ex);
-            }
+        if (dataSetRef == null) {
+            return null;
         }
-        return null;
+        return this.reportHandlers.computeIfAbsent(dataSetRef, this::createReportHandler).orElse(null);
     }
 
-    private boolean useCombinedLoad() {
-        final Iec61850DeviceRepository repository = BeanUtil.getBean(Iec61850DeviceRepository.class);
-        final Iec61850Device device = repository.findByDeviceIdentification(this.deviceIdentification);
-        if (device != null) {
-            return device.isUseCombinedLoad();
+    private Optional<Iec61850ReportHandler> createReportHandler(final String dataSetRef) {
+        final Matcher reportMatcher = REPORT_PATTERN.matcher(dataSetRef);
+        if (!reportMatcher.matches()) {
+            return Optional.empty();
+        }
+
+        String node = reportMatcher.group(2);
+        if ("LOAD".equals(node) && this.deviceManagementService.useCombinedLoad(this.deviceIdentification)) {
+            node += "_COMBINED";
         }
-        return BeanUtil.getBeanByName("defaultUseCombinedLoad", Boolean.class);
+
+        final int systemId = Integer.parseInt(reportMatcher.group(3));
+        this.logger.info("Creating {} report handler for system {} for data set {} of device: {}", node, systemId,
+                dataSetRef, this.deviceIdentification);
+        return Optional.of(REPORT_HANDLERS_MAP.get(node).apply(systemId));
     }
 
     @Override
@@ -119,7 +117,7 @@ public class Iec61850ClientRTUEventListener extends Iec61850ClientBaseEventListe
             return;
         }
 
-        this.logReportDetails(report);
+        this.logReport(report);
         try {
             this.processReport(report, reportDescription, reportHandler);
         } catch (final ProtocolAdapterException e) {
@@ -156,10 +154,11 @@ public class Iec61850ClientRTUEventListener extends Iec61850ClientBaseEventListe
                 new DateTime(report.getTimeOfEntry().getTimestampValue() + IEC61850_ENTRY_TIME_OFFSET),
                 report.getRptId());
 
+        // The last report entry is stored once the measurements have been
+        // sent, which may be later when measurements are batched.
         this.deviceManagementService.sendMeasurements(this.deviceIdentification,
-                new GetDataResponseDto(systems, reportDto));
-
-        this.reportingService.storeLastReportEntry(report, this.deviceIdentification);
+                new GetDataResponseDto(systems, reportDto),
+                () -> this.reportingService.storeLastReportEntry(report, this.deviceIdentification));
     }
 
     private List<MeasurementDto> processMeasurements(final Iec61850ReportHandler reportHandler,
@@ -171,7 +170,7 @@ public class Iec61850ClientRTUEventListener extends Iec61850ClientBaseEventListe
                 continue;
             }
 
-            this.logger.info("Handle member {} for {}", member.getReference(), reportDescription);
+            this.logger.debug("Handle member {} for {}", member.getReference(), reportDescription);
             try {
                 final List<MeasurementDto> memberMeasurements = reportHandler
                         .handleMember(new ReadOnlyNodeContainer(this.deviceIdentification, member));
@@ -189,7 +188,8 @@ public class Iec61850ClientRTUEventListener extends Iec61850ClientBaseEventListe
         return measurements;
     }
 
-    private void logReportDetails(final Report report) {
+    @Override
+    protected void logReportDetails(final Report report) {
         final StringBuilder sb = new StringBuilder("Report details for device ").append(this.deviceIdentification)
                 .append(System.lineSeparator());
         this.logDefaultReportDetails(sb, report);
@@ -197,7 +197,7 @@ public class Iec61850ClientRTUEventListener extends Iec61850ClientBaseEventListe
         final List<FcModelNode> dataSetMembers = report.getValues();
         this.logDataSetMembersDetails(report, dataSetMembers, sb);
 
-        this.logger.info(sb.append(System.lineSeparator()).toString());
+        this.logger.debug(sb.append(System.lineSeparator()).toString());
     }
 
     private void logDataSetMembersDetails(final Report report, final List<FcModelNode> dataSetMembers,
@@ -99,7 +99,7 @@ public class Iec61850ClientSSLDEventListener extends Iec61850ClientBaseEventList
         if (this.firstNewSqNum != null && report.getSqNum() != null && report.getSqNum() < this.firstNewSqNum) {
             skipRecordBecauseOfOldSqNum = true;
         }
-        this.logReportDetails(report);
+        this.logReport(report);
 
         final List<FcModelNode> dataSetMembers = report.getValues();
         if (CollectionUtils.isEmpty(dataSetMembers)) {
@@ -113,7 +113,7 @@ public class Iec61850ClientSSLDEventListener extends Iec61850ClientBaseEventList
                 this.logger.warn("Member == null in DataSet for {}", reportDescription);
                 continue;
             }
-            this.logger.info("Handle member {} for {}", member.getReference(), reportDescription);
+            this.logger.debug("Handle member {} for {}", member.getReference(), reportDescription);
             try {
                 if (skipRecordBecauseOfOldSqNum) {
                     this.logger.warn(
@@ -260,7 +260,8 @@ public class Iec61850ClientSSLDEventListener extends Iec61850ClientBaseEventList
                 + evnRpn.getReference() + " from " + reportDescription);
     }
 
-    private void logReportDetails(final Report report) {
+    @Override
+    protected void logReportDetails(final Report report) {
         final StringBuilder sb = new StringBuilder("Report details for device ").append(this.deviceIdentification)
                 .append(System.lineSeparator());
         this.logDefaultReportDetails(sb, report);
@@ -268,7 +269,7 @@ public class Iec61850ClientSSLDEventListener extends Iec61850ClientBaseEventList
         final List<FcModelNode> dataSetMembers = report.getValues();
         this.logDataSetMembersDetails(report, dataSetMembers, sb);
 
-        this.logger.info(sb.append(System.lineSeparator()).toString());
+        this.logger.debug(sb.append(System.lineSeparator()).toString());
     }
 
     private void logDataSetMembersDetails(final Report report, final List<FcModelNode> dataSetMembers,
@@ -364,6 +365,15 @@ public class Iec61850ClientSSLDEventListener extends Iec61850ClientBaseEventList
         this.logger.info("associationClosed() for device: {}, {}", this.deviceIdentification,
                 e == null ? "no IOException" : "IOException: " + e.getMessage());
 
+        this.sendEventNotifications();
+    }
+
+    /**
+     * Sends the event notifications received so far. This happens when the
+     * association is closed, or earlier when the association is kept open for
+     * reuse.
+     */
+    public void sendEventNotifications() {
         synchronized (this.eventNotifications) {
             if (this.eventNotifications.isEmpty()) {
                 this.logger.info("No event notifications received from device: {}", this.deviceIdentification);
@@ -372,10 +382,12 @@ public class Iec61850ClientSSLDEventListener extends Iec61850ClientBaseEventList
 
             Collections.sort(this.eventNotifications, NOTIFICATIONS_BY_TIME);
             try {
-                this.deviceManagementService.addEventNotifications(this.deviceIdentification, this.eventNotifications);
+                this.deviceManagementService.addEventNotifications(this.deviceIdentification,
+                        new ArrayList<>(this.eventNotifications));
             } catch (final ProtocolAdapterException pae) {
                 this.logger.error("Error adding device notifications for device: " + this.deviceIdentification, pae);
             }
+            this.eventNotifications.clear();
         }
     }
 }
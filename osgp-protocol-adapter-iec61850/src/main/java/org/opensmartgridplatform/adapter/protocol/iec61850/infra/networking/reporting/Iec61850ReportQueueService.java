@@ -0,0 +1,461 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.openmuc.openiec61850.ClientEventListener;
+import org.openmuc.openiec61850.Report;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Processes the reports received from devices outside of the threads
+ * receiving them from the associations.
+ * <p>
+ * The report callback only puts the report in a bounded queue for the device.
+ * A pool of workers processes the queues, the reports (and the closing of the
+ * association) of a device are processed in the order they have been
+ * received. This keeps a slow database or message broker from stalling the
+ * reception of reports. openiec61850 creates a new {@link Report} with copies
+ * of the data set members for every report received, so the reports can be
+ * queued as they are.
+ * <p>
+ * What happens when the queue of a device is full is configured by the
+ * {@link OverflowPolicy}. The closing of an association is never dropped. The
+ * queue of a device is used by an association once it has been established,
+ * and removed once all of its associations have been closed.
+ */
+@Component
+public class Iec61850ReportQueueService {
+
+    /**
+     * What to do with a report for a device with a full queue.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Wait for room in the queue, holding up the association the report
+         * was received on.
+         */
+        BLOCK,
+        /**
+         * Discard the oldest report in the queue, keeping the closing of
+         * associations.
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the report that was received.
+         */
+        DROP_NEWEST
+    }
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850ReportQueueService.class);
+
+    private static final long STATISTICS_INTERVAL = 60000;
+
+    /**
+     * Maximum number of events a worker processes for a device, before giving
+     * other devices a turn.
+     */
+    private static final int MAX_EVENTS_PER_TURN = 100;
+
+    private static final long BLOCK_CHECK_INTERVAL = 1000;
+
+    /**
+     * Maximum time to wait for the workers to process the queued events when
+     * shutting down.
+     */
+    private static final long SHUTDOWN_TIMEOUT = 10000;
+
+    private final Map<String, DeviceReportQueue> queues = new ConcurrentHashMap<>();
+
+    private final AtomicLong enqueued = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+
+    private ExecutorService workers;
+    private ScheduledExecutorService statisticsExecutor;
+    private OverflowPolicy overflowPolicy;
+
+    @Autowired
+    private int reportQueueWorkers;
+
+    @Autowired
+    private int reportQueueCapacity;
+
+    @Autowired
+    private String reportQueueOverflowPolicy;
+
+    public Iec61850ReportQueueService() {
+        // Default constructor, the settings are autowired.
+    }
+
+    Iec61850ReportQueueService(final int reportQueueWorkers, final int reportQueueCapacity,
+            final String reportQueueOverflowPolicy) {
+        this.reportQueueWorkers = reportQueueWorkers;
+        this.reportQueueCapacity = reportQueueCapacity;
+        this.reportQueueOverflowPolicy = reportQueueOverflowPolicy;
+    }
+
+    @PostConstruct
+    public void init() {
+        if (this.reportQueueWorkers <= 0) {
+            LOGGER.info("Reports are processed on the threads receiving them");
+            return;
+        }
+        this.overflowPolicy = OverflowPolicy.valueOf(this.reportQueueOverflowPolicy.trim().toUpperCase());
+
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(this.reportQueueWorkers, runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-report-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.statisticsExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-report-queue-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.statisticsExecutor.scheduleWithFixedDelay(this::logStatistics, STATISTICS_INTERVAL, STATISTICS_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the workers after they have processed the queued events, waiting
+     * at most {@link #SHUTDOWN_TIMEOUT} milliseconds.
+     */
+    @PreDestroy
+    public void destroy() {
+        if (this.workers == null) {
+            return;
+        }
+        this.statisticsExecutor.shutdownNow();
+        this.workers.shutdown();
+        try {
+            if (!this.workers.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("Report workers did not finish processing the queued events within {} ms",
+                        SHUTDOWN_TIMEOUT);
+                this.workers.shutdownNow();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            this.workers.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.workers != null;
+    }
+
+    /**
+     * Returns a listener that queues the events of an association for
+     * processing by the given report listener, or the report listener itself
+     * if reports are processed on the threads receiving them. The listener
+     * uses the queue of the device once {@link #associated(ClientEventListener)}
+     * has been called, or once it receives an event.
+     */
+    public ClientEventListener queueing(final String deviceIdentification, final ClientEventListener reportListener) {
+        if (reportListener == null || !this.isEnabled()) {
+            return reportListener;
+        }
+        return new QueueingListener(deviceIdentification, reportListener);
+    }
+
+    /**
+     * Lets a listener returned by
+     * {@link #queueing(String, ClientEventListener)} use the queue of the
+     * device, after the association it listens to has been established. A
+     * listener for an association that could not be established does not use
+     * the queue, so it does not keep the queue from being removed.
+     */
+    public void associated(final ClientEventListener listener) {
+        if (listener instanceof QueueingListener) {
+            ((QueueingListener) listener).register();
+        }
+    }
+
+    private DeviceReportQueue associationOpened(final String deviceIdentification) {
+        return this.queues.compute(deviceIdentification, (key, current) -> {
+            final DeviceReportQueue deviceQueue = current == null ? new DeviceReportQueue(key) : current;
+            deviceQueue.associations++;
+            return deviceQueue;
+        });
+    }
+
+    /**
+     * Removes the queue of the device once the last association using it has
+     * been closed. Events still in the queue are processed by the worker that
+     * is processing the queue.
+     */
+    private void associationClosed(final DeviceReportQueue queue) {
+        this.queues.computeIfPresent(queue.deviceIdentification,
+                (key, current) -> current == queue && --current.associations == 0 ? null : current);
+    }
+
+    /**
+     * Returns the number of events waiting to be processed per device.
+     */
+    public Map<String, Integer> getQueueSizePerDevice() {
+        final Map<String, Integer> queueSizePerDevice = new TreeMap<>();
+        this.queues.forEach((deviceIdentification, queue) -> queueSizePerDevice.put(deviceIdentification,
+                queue.size()));
+        return queueSizePerDevice;
+    }
+
+    public long getEnqueued() {
+        return this.enqueued.get();
+    }
+
+    public long getProcessed() {
+        return this.processed.get();
+    }
+
+    public long getDropped() {
+        return this.dropped.get();
+    }
+
+    public long getBlocked() {
+        return this.blocked.get();
+    }
+
+    private void logStatistics() {
+        int waiting = 0;
+        int maxSize = 0;
+        String maxSizeDevice = null;
+        for (final DeviceReportQueue queue : this.queues.values()) {
+            final int size = queue.size();
+            waiting += size;
+            if (size > maxSize) {
+                maxSize = size;
+                maxSizeDevice = queue.deviceIdentification;
+            }
+        }
+        LOGGER.info(
+                "Report queues: {} devices, {} waiting (at most {} for device: {}), enqueued: {}, processed: {}, dropped: {}, blocked: {}",
+                this.queues.size(), waiting, maxSize, maxSizeDevice, this.enqueued.get(), this.processed.get(),
+                this.dropped.get(), this.blocked.get());
+    }
+
+    private class QueueingListener implements ClientEventListener {
+
+        private final String deviceIdentification;
+        private final ClientEventListener reportListener;
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private DeviceReportQueue queue;
+
+        QueueingListener(final String deviceIdentification, final ClientEventListener reportListener) {
+            this.deviceIdentification = deviceIdentification;
+            this.reportListener = reportListener;
+        }
+
+        /**
+         * Starts using the queue of the device, unless the association has
+         * been closed already.
+         */
+        void register() {
+            if (!this.closed.get()) {
+                this.getQueue();
+            }
+        }
+
+        private synchronized DeviceReportQueue getQueue() {
+            if (this.queue == null) {
+                this.queue = Iec61850ReportQueueService.this.associationOpened(this.deviceIdentification);
+            }
+            return this.queue;
+        }
+
+        @Override
+        public void newReport(final Report report) {
+            this.getQueue().offer(new QueuedEvent(() -> this.reportListener.newReport(report), true));
+        }
+
+        @Override
+        public void associationClosed(final IOException e) {
+            if (!this.closed.compareAndSet(false, true)) {
+                return;
+            }
+            final DeviceReportQueue deviceQueue = this.getQueue();
+            // Never dropped, the listener may have work to do when the
+            // association is closed.
+            deviceQueue.offer(new QueuedEvent(() -> {
+                try {
+                    this.reportListener.associationClosed(e);
+                } finally {
+                    Iec61850ReportQueueService.this.associationClosed(deviceQueue);
+                }
+            }, false));
+        }
+    }
+
+    private static class QueuedEvent {
+        private final Runnable action;
+        private final boolean isReport;
+
+        QueuedEvent(final Runnable action, final boolean isReport) {
+            this.action = action;
+            this.isReport = isReport;
+        }
+    }
+
+    /**
+     * The events of a device waiting to be processed. At most one worker at a
+     * time processes the events of a device. Associations is only changed
+     * while computing the entry of the device in the map of queues.
+     */
+    private class DeviceReportQueue implements Runnable {
+
+        private final String deviceIdentification;
+        private final Deque<QueuedEvent> events = new ArrayDeque<>();
+        private boolean processing;
+        private int associations;
+
+        DeviceReportQueue(final String deviceIdentification) {
+            this.deviceIdentification = deviceIdentification;
+        }
+
+        synchronized int size() {
+            return this.events.size();
+        }
+
+        void offer(final QueuedEvent event) {
+            boolean startProcessing = false;
+            synchronized (this) {
+                if (event.isReport && this.events.size() >= Iec61850ReportQueueService.this.reportQueueCapacity
+                        && !this.makeRoom()) {
+                    return;
+                }
+                this.events.addLast(event);
+                Iec61850ReportQueueService.this.enqueued.incrementAndGet();
+                if (!this.processing) {
+                    this.processing = true;
+                    startProcessing = true;
+                }
+            }
+            if (startProcessing) {
+                this.schedule();
+            }
+        }
+
+        /**
+         * Applies the overflow policy to the full queue. Returns whether the
+         * new event can be added.
+         */
+        private boolean makeRoom() {
+            switch (Iec61850ReportQueueService.this.overflowPolicy) {
+            case DROP_NEWEST:
+                Iec61850ReportQueueService.this.dropped.incrementAndGet();
+                LOGGER.warn("Report queue for device: {} is full, dropping the report received",
+                        this.deviceIdentification);
+                return false;
+            case DROP_OLDEST:
+                Iec61850ReportQueueService.this.dropped.incrementAndGet();
+                if (this.removeOldestReport()) {
+                    LOGGER.warn("Report queue for device: {} is full, dropping the oldest report",
+                            this.deviceIdentification);
+                    return true;
+                }
+                LOGGER.warn("Report queue for device: {} is full without reports, dropping the report received",
+                        this.deviceIdentification);
+                return false;
+            case BLOCK:
+            default:
+                Iec61850ReportQueueService.this.blocked.incrementAndGet();
+                LOGGER.warn("Report queue for device: {} is full, waiting for room", this.deviceIdentification);
+                return this.awaitRoom();
+            }
+        }
+
+        private boolean removeOldestReport() {
+            final Iterator<QueuedEvent> iterator = this.events.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().isReport) {
+                    iterator.remove();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean awaitRoom() {
+            try {
+                while (this.events.size() >= Iec61850ReportQueueService.this.reportQueueCapacity) {
+                    if (Iec61850ReportQueueService.this.workers.isShutdown()) {
+                        Iec61850ReportQueueService.this.dropped.incrementAndGet();
+                        return false;
+                    }
+                    this.wait(BLOCK_CHECK_INTERVAL);
+                }
+                return true;
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                Iec61850ReportQueueService.this.dropped.incrementAndGet();
+                LOGGER.warn("Interrupted waiting for room in report queue for device: {}, dropping the report",
+                        this.deviceIdentification);
+                return false;
+            }
+        }
+
+        private void schedule() {
+            try {
+                Iec61850ReportQueueService.this.workers.execute(this);
+            } catch (final RejectedExecutionException e) {
+                LOGGER.warn("Unable to process reports for device: {}, workers have been shut down",
+                        this.deviceIdentification);
+            }
+        }
+
+        @Override
+        public void run() {
+            // When shutting down, the queue can not be scheduled again, so it
+            // is processed until it is empty.
+            for (int i = 0; i < MAX_EVENTS_PER_TURN
+                    || Iec61850ReportQueueService.this.workers.isShutdown(); i++) {
+                final QueuedEvent event;
+                synchronized (this) {
+                    event = this.events.pollFirst();
+                    if (event == null) {
+                        this.processing = false;
+                        return;
+                    }
+                    this.notifyAll();
+                }
+                try {
+                    event.action.run();
+                } catch (final RuntimeException e) {
+                    LOGGER.error("Unexpected exception processing report for device: {}", this.deviceIdentification,
+                            e);
+                } finally {
+                    Iec61850ReportQueueService.this.processed.incrementAndGet();
+                }
+            }
+            // Give the other devices a turn, processing stays true.
+            this.schedule();
+        }
+    }
+}
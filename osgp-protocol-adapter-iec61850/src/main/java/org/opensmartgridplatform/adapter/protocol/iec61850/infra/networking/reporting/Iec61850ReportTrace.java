@@ -0,0 +1,132 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openmuc.openiec61850.BasicDataAttribute;
+import org.openmuc.openiec61850.BdaReasonForInclusion;
+import org.openmuc.openiec61850.FcModelNode;
+import org.openmuc.openiec61850.HexConverter;
+import org.openmuc.openiec61850.Report;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the reports received from devices as JSON lines to the report trace
+ * logger, for later inspection.
+ * <p>
+ * Nothing is built unless DEBUG is enabled for the logger named after this
+ * class, which logback.xml sends to a separate rolling file. Only one in every
+ * sample interval reports is traced per device.
+ */
+@Component
+public class Iec61850ReportTrace {
+
+    private static final Logger TRACE_LOGGER = LoggerFactory.getLogger(Iec61850ReportTrace.class);
+
+    private final Map<String, AtomicLong> reportsPerDevice = new ConcurrentHashMap<>();
+
+    @Autowired
+    private int reportTraceSampleInterval;
+
+    public boolean isEnabled() {
+        return TRACE_LOGGER.isDebugEnabled();
+    }
+
+    /**
+     * Traces the report if tracing is enabled and the report is sampled for the
+     * device.
+     */
+    public void trace(final String deviceIdentification, final Report report) {
+        if (!this.isEnabled() || !this.isSampled(deviceIdentification)) {
+            return;
+        }
+        TRACE_LOGGER.debug(toJson(deviceIdentification, report));
+    }
+
+    private boolean isSampled(final String deviceIdentification) {
+        if (this.reportTraceSampleInterval <= 1) {
+            return true;
+        }
+        final long reports = this.reportsPerDevice.computeIfAbsent(deviceIdentification, key -> new AtomicLong())
+                .getAndIncrement();
+        return reports % this.reportTraceSampleInterval == 0;
+    }
+
+    private static String toJson(final String deviceIdentification, final Report report) {
+        final StringBuilder json = new StringBuilder(512);
+        json.append("{\"time\":").append(System.currentTimeMillis());
+        appendString(json.append(",\"device\":"), deviceIdentification);
+        appendString(json.append(",\"rptId\":"), report.getRptId());
+        appendString(json.append(",\"dataSetRef\":"), report.getDataSetRef());
+        json.append(",\"confRev\":").append(report.getConfRev());
+        json.append(",\"sqNum\":").append(report.getSqNum());
+        json.append(",\"subSqNum\":").append(report.getSubSqNum());
+        json.append(",\"moreSegmentsFollow\":").append(report.isMoreSegmentsFollow());
+        json.append(",\"bufOvfl\":").append(report.getBufOvfl());
+        appendString(json.append(",\"entryId\":"),
+                report.getEntryId() == null ? null : HexConverter.toHexString(report.getEntryId().getValue()));
+        json.append(",\"timeOfEntry\":")
+                .append(report.getTimeOfEntry() == null ? null : report.getTimeOfEntry().getTimestampValue());
+
+        final List<BdaReasonForInclusion> reasonCodes = report.getReasonCodes();
+        if (reasonCodes != null) {
+            json.append(",\"reasonCodes\":[");
+            for (int i = 0; i < reasonCodes.size(); i++) {
+                appendString(json.append(i == 0 ? "" : ","), HexConverter.toHexString(reasonCodes.get(i).getValue()));
+            }
+            json.append(']');
+        }
+
+        final List<FcModelNode> members = report.getValues();
+        if (members != null) {
+            json.append(",\"members\":[");
+            boolean first = true;
+            for (final FcModelNode member : members) {
+                if (member == null) {
+                    continue;
+                }
+                for (final BasicDataAttribute bda : member.getBasicDataAttributes()) {
+                    json.append(first ? "{" : ",{");
+                    first = false;
+                    appendString(json.append("\"ref\":"), bda.getReference().toString());
+                    appendString(json.append(",\"fc\":"), bda.getFc().toString());
+                    appendString(json.append(",\"value\":"), bda.getValueString());
+                    json.append('}');
+                }
+            }
+            json.append(']');
+        }
+        return json.append('}').toString();
+    }
+
+    private static void appendString(final StringBuilder json, final String value) {
+        if (value == null) {
+            json.append("null");
+            return;
+        }
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+}
@@ -21,6 +21,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import org.opensmartgridplatform.adapter.protocol.iec61850.application.services.ReportingService;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850Device;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850DeviceReportGroup;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850Report;
@@ -28,7 +29,6 @@ import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.entities.Iec61850ReportGroup;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850DeviceReportGroupRepository;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850DeviceRepository;
-import org.opensmartgridplatform.adapter.protocol.iec61850.domain.repositories.Iec61850ReportEntryRepository;
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeReadException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeWriteException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
@@ -49,7 +49,7 @@ public class Iec61850RtuDeviceReportingService {
     private Iec61850DeviceReportGroupRepository iec61850DeviceReportRepository;
 
     @Autowired
-    private Iec61850ReportEntryRepository iec61850ReportEntryRepository;
+    private ReportingService reportingService;
 
     @Autowired
     private Iec61850Client client;
@@ -71,6 +71,8 @@ public class Iec61850RtuDeviceReportingService {
             } else {
                 this.enableSpecificReports(connection, deviceIdentification, serverName);
             }
+            // Closing the connection would end the reporting.
+            connection.getConnection().setReportingEnabled(true);
         } catch (final NullPointerException npe) {
             LOGGER.error(
                     "Caught null pointer exception, is Iec61850Device.enableAllReportsOnConnect not set in database?",
@@ -129,8 +131,8 @@ public class Iec61850RtuDeviceReportingService {
 
         LOGGER.debug("Resync reporting for report {} on device {}", reportId, deviceIdentification);
 
-        final Iec61850ReportEntry reportEntry = this.iec61850ReportEntryRepository
-                .findByDeviceIdentificationAndReportId(deviceIdentification, reportId);
+        final Iec61850ReportEntry reportEntry = this.reportingService.retrieveReportEntry(deviceIdentification,
+                reportId);
         if (reportEntry == null) {
             LOGGER.info("Resync reporting for report {} on device {} not possible, no last report entry found",
                     reportId, deviceIdentification);
@@ -0,0 +1,97 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+/**
+ * Circuit breaker for connecting to a single device.
+ * <p>
+ * The circuit opens after a number of consecutive connection failures. While
+ * open, connects to the device should fail right away. When the back-off
+ * period has passed, the circuit becomes half-open and a single probe should
+ * be done. If the probe succeeds the circuit closes, otherwise it opens again
+ * with a doubled back-off period, up to a maximum.
+ */
+public class DeviceCircuitBreaker {
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long initialBackoff;
+    private final long maxBackoff;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long backoff;
+    private long openUntil;
+
+    public DeviceCircuitBreaker(final int failureThreshold, final long initialBackoff, final long maxBackoff) {
+        this.failureThreshold = failureThreshold;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.backoff = initialBackoff;
+    }
+
+    /**
+     * Returns whether a connect to the device may be done.
+     */
+    public synchronized boolean allowConnect() {
+        return this.state == State.CLOSED;
+    }
+
+    /**
+     * Returns whether a probe should be done now, which is the case once when
+     * the back-off period of an open circuit has passed. The circuit is
+     * half-open until the result of the probe is recorded.
+     */
+    public synchronized boolean startProbe(final long now) {
+        if (this.state != State.OPEN || now < this.openUntil) {
+            return false;
+        }
+        this.state = State.HALF_OPEN;
+        return true;
+    }
+
+    public synchronized void recordSuccess() {
+        this.state = State.CLOSED;
+        this.consecutiveFailures = 0;
+        this.backoff = this.initialBackoff;
+    }
+
+    public synchronized void recordFailure(final long now) {
+        if (this.state == State.HALF_OPEN) {
+            this.backoff = Math.min(this.backoff * 2, this.maxBackoff);
+            this.open(now);
+            return;
+        }
+        this.consecutiveFailures++;
+        if (this.state == State.CLOSED && this.consecutiveFailures >= this.failureThreshold) {
+            this.open(now);
+        }
+    }
+
+    public synchronized State getState() {
+        return this.state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return this.consecutiveFailures;
+    }
+
+    public synchronized long getOpenUntil() {
+        return this.openUntil;
+    }
+
+    private void open(final long now) {
+        this.state = State.OPEN;
+        this.openUntil = now + this.backoff;
+    }
+}
@@ -11,6 +11,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.apache.commons.lang3.NotImplementedException;
+import org.openmuc.openiec61850.FcModelNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,6 +63,13 @@ public class Iec61850ChpSystemService implements SystemService {
         return new GetDataSystemIdentifierDto(systemFilter.getId(), systemFilter.getSystemType(), measurements);
     }
 
+    @Override
+    public List<FcModelNode> getNodesToRead(final SystemFilterDto systemFilter, final DeviceConnection connection)
+            throws NodeException {
+        return this.iec61850ChpCommandFactory.getNodesToRead(systemFilter.getMeasurementFilters(), connection, DEVICE,
+                systemFilter.getId());
+    }
+
     @Override
     public void setData(final SetDataSystemIdentifierDto systemIdentifier, final Iec61850Client client,
             final DeviceConnection connection) throws NodeWriteException {
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.valueobjects.DeviceConnectionParameters;
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ConnectionFailureException;
+
+/**
+ * Keeps a {@link DeviceCircuitBreaker} for each device that failed to connect,
+ * so requests for devices that are offline fail right away instead of waiting
+ * for the connect time-out every time. Devices with an open circuit are
+ * probed in the background once the back-off period has passed.
+ */
+@Component
+public class Iec61850CircuitBreakerService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850CircuitBreakerService.class);
+
+    private static final long PROBE_CHECK_INTERVAL = 1000;
+
+    private static final int PROBE_THREADS = 4;
+
+    private final Map<String, BrokenDevice> brokenDevices = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService probeScheduler;
+
+    private ExecutorService probeExecutor;
+
+    @Autowired
+    private Iec61850DeviceConnectionService iec61850DeviceConnectionService;
+
+    @Autowired
+    private int circuitBreakerFailureThreshold;
+
+    @Autowired
+    private int circuitBreakerBackoff;
+
+    @Autowired
+    private int circuitBreakerMaxBackoff;
+
+    @PostConstruct
+    public void init() {
+        if (!this.isEnabled()) {
+            return;
+        }
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.probeExecutor = Executors.newFixedThreadPool(PROBE_THREADS, runnable -> {
+            final Thread thread = new Thread(runnable,
+                    "iec61850-circuit-breaker-probe-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-circuit-breaker-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.probeScheduler.scheduleWithFixedDelay(this::startProbes, PROBE_CHECK_INTERVAL, PROBE_CHECK_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.probeScheduler != null) {
+            this.probeScheduler.shutdownNow();
+            this.probeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Throws a {@link ConnectionFailureException} if the circuit for the device
+     * is open.
+     */
+    public void checkConnectAllowed(final String deviceIdentification) throws ConnectionFailureException {
+        final BrokenDevice brokenDevice = this.brokenDevices.get(deviceIdentification);
+        if (brokenDevice != null && !brokenDevice.circuitBreaker.allowConnect()) {
+            throw new ConnectionFailureException("Device: " + deviceIdentification
+                    + " is unreachable, not connecting until a probe succeeds, next probe at "
+                    + new DateTime(brokenDevice.circuitBreaker.getOpenUntil()));
+        }
+    }
+
+    public void recordSuccess(final String deviceIdentification) {
+        final BrokenDevice brokenDevice = this.brokenDevices.remove(deviceIdentification);
+        if (brokenDevice != null) {
+            LOGGER.info("Closing circuit for device: {}", deviceIdentification);
+        }
+    }
+
+    public void recordFailure(final DeviceConnectionParameters deviceConnectionParameters) {
+        if (!this.isEnabled()) {
+            return;
+        }
+        final String deviceIdentification = deviceConnectionParameters.getDeviceIdentification();
+        final BrokenDevice brokenDevice = this.brokenDevices.computeIfAbsent(deviceIdentification,
+                key -> new BrokenDevice(new DeviceCircuitBreaker(this.circuitBreakerFailureThreshold,
+                        this.circuitBreakerBackoff, this.circuitBreakerMaxBackoff)));
+        brokenDevice.deviceConnectionParameters = deviceConnectionParameters;
+        brokenDevice.circuitBreaker.recordFailure(System.currentTimeMillis());
+        if (brokenDevice.circuitBreaker.getState() == DeviceCircuitBreaker.State.OPEN) {
+            LOGGER.warn("Circuit for device: {} is open after {} consecutive connection failures, next probe at {}",
+                    deviceIdentification, brokenDevice.circuitBreaker.getConsecutiveFailures(),
+                    new DateTime(brokenDevice.circuitBreaker.getOpenUntil()));
+        }
+    }
+
+    /**
+     * Returns the state of the circuit for the device.
+     */
+    public DeviceCircuitBreaker.State getState(final String deviceIdentification) {
+        final BrokenDevice brokenDevice = this.brokenDevices.get(deviceIdentification);
+        return brokenDevice == null ? DeviceCircuitBreaker.State.CLOSED : brokenDevice.circuitBreaker.getState();
+    }
+
+    private boolean isEnabled() {
+        return this.circuitBreakerFailureThreshold > 0;
+    }
+
+    private void startProbes() {
+        try {
+            final long now = System.currentTimeMillis();
+            for (final Map.Entry<String, BrokenDevice> entry : this.brokenDevices.entrySet()) {
+                if (entry.getValue().circuitBreaker.startProbe(now)) {
+                    this.probeExecutor.execute(() -> this.probe(entry.getKey(), entry.getValue()));
+                }
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unexpected exception starting probes", e);
+        }
+    }
+
+    private void probe(final String deviceIdentification, final BrokenDevice brokenDevice) {
+        try {
+            LOGGER.info("Probing device: {} with open circuit", deviceIdentification);
+            this.iec61850DeviceConnectionService.probe(brokenDevice.deviceConnectionParameters);
+            brokenDevice.circuitBreaker.recordSuccess();
+            this.brokenDevices.remove(deviceIdentification, brokenDevice);
+            LOGGER.info("Probe succeeded, closing circuit for device: {}", deviceIdentification);
+        } catch (final ConnectionFailureException | RuntimeException e) {
+            brokenDevice.circuitBreaker.recordFailure(System.currentTimeMillis());
+            LOGGER.info("Probe failed for device: {}, next probe at {}", deviceIdentification,
+                    new DateTime(brokenDevice.circuitBreaker.getOpenUntil()));
+        }
+    }
+
+    private static class BrokenDevice {
+        private final DeviceCircuitBreaker circuitBreaker;
+        private volatile DeviceConnectionParameters deviceConnectionParameters;
+
+        BrokenDevice(final DeviceCircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.openmuc.openiec61850.ClientAssociation;
+import org.openmuc.openiec61850.FcModelNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeReadException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.ConnectionHealth;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ConnectionState;
+
+/**
+ * Keeps track of the health of cached connections with devices.
+ * <p>
+ * A connection is considered healthy if the association has not been closed
+ * and a report or a response has been received from the device recently. The
+ * association being closed is signalled by the report listener of the
+ * association, and by requests failing with an IOException. Optionally, cached
+ * connections that have been inactive for a while are pinged in the
+ * background by reading the name plate of the device, so requests for devices
+ * that do not report often can use the cached connection without checking it
+ * first.
+ */
+@Component
+public class Iec61850ConnectionHealthService {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850ConnectionHealthService.class);
+
+    private final Map<String, MonitoredConnection> monitoredConnections = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService pingExecutor;
+
+    @Autowired
+    private Iec61850Client iec61850Client;
+
+    @Autowired
+    private int connectionHealthMaxInactivity;
+
+    @Autowired
+    private int connectionHealthPingInterval;
+
+    @PostConstruct
+    public void init() {
+        if (this.connectionHealthPingInterval <= 0) {
+            return;
+        }
+        this.pingExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-connection-health-ping");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.pingExecutor.scheduleWithFixedDelay(this::pingInactiveConnections, this.connectionHealthPingInterval,
+                this.connectionHealthPingInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.pingExecutor != null) {
+            this.pingExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts tracking the health of a cached connection with the device.
+     *
+     * @param probeNode
+     *            the node to read when pinging the device, or {@code null} if
+     *            the device should not be pinged.
+     */
+    public void register(final String deviceIdentification, final ConnectionHealth connectionHealth,
+            final ClientAssociation clientAssociation, final FcModelNode probeNode) {
+        this.monitoredConnections.put(deviceIdentification,
+                new MonitoredConnection(connectionHealth, clientAssociation, probeNode));
+    }
+
+    public void unregister(final String deviceIdentification) {
+        this.monitoredConnections.remove(deviceIdentification);
+    }
+
+    public void unregisterAll() {
+        this.monitoredConnections.clear();
+    }
+
+    /**
+     * Returns the state of the cached connection with the device:
+     * {@link ConnectionState#OK} if it can be used without checking it first,
+     * {@link ConnectionState#BROKEN} if it can no longer be used, and
+     * {@link ConnectionState#UNKNOWN} if it has to be checked, or if there is
+     * no cached connection for the device.
+     */
+    public ConnectionState getConnectionState(final String deviceIdentification) {
+        final MonitoredConnection monitoredConnection = this.monitoredConnections.get(deviceIdentification);
+        if (monitoredConnection == null) {
+            return ConnectionState.UNKNOWN;
+        }
+        return monitoredConnection.connectionHealth.getState(this.connectionHealthMaxInactivity);
+    }
+
+    /**
+     * Returns the health of the cached connections per device.
+     */
+    public Map<String, ConnectionHealth> getConnectionHealthPerDevice() {
+        final Map<String, ConnectionHealth> connectionHealthPerDevice = new TreeMap<>();
+        this.monitoredConnections.forEach((deviceIdentification,
+                monitoredConnection) -> connectionHealthPerDevice.put(deviceIdentification,
+                        monitoredConnection.connectionHealth));
+        return connectionHealthPerDevice;
+    }
+
+    public void recordActivity(final String deviceIdentification) {
+        final MonitoredConnection monitoredConnection = this.monitoredConnections.get(deviceIdentification);
+        if (monitoredConnection != null) {
+            monitoredConnection.connectionHealth.activity();
+        }
+    }
+
+    public void recordBroken(final String deviceIdentification, final String reason) {
+        final MonitoredConnection monitoredConnection = this.monitoredConnections.get(deviceIdentification);
+        if (monitoredConnection != null) {
+            LOGGER.info("Connection with device: {} is broken: {}", deviceIdentification, reason);
+            monitoredConnection.connectionHealth.closed(reason);
+        }
+    }
+
+    private void pingInactiveConnections() {
+        for (final Map.Entry<String, MonitoredConnection> entry : this.monitoredConnections.entrySet()) {
+            final MonitoredConnection monitoredConnection = entry.getValue();
+            final ConnectionHealth connectionHealth = monitoredConnection.connectionHealth;
+            if (monitoredConnection.probeNode == null || connectionHealth.isClosed()
+                    || connectionHealth.getMillisSinceLastActivity() < this.connectionHealthPingInterval) {
+                continue;
+            }
+            this.ping(entry.getKey(), monitoredConnection);
+        }
+    }
+
+    private void ping(final String deviceIdentification, final MonitoredConnection monitoredConnection) {
+        try {
+            LOGGER.debug("Pinging device: {} using {}", deviceIdentification,
+                    monitoredConnection.probeNode.getReference());
+            this.iec61850Client.readNodeDataValues(monitoredConnection.clientAssociation,
+                    monitoredConnection.probeNode);
+            monitoredConnection.connectionHealth.activity();
+        } catch (final NodeReadException e) {
+            if (ConnectionState.BROKEN.equals(e.getConnectionState())) {
+                LOGGER.info("Ping failed, connection with device: {} is broken", deviceIdentification);
+                monitoredConnection.connectionHealth.closed(e.getMessage());
+            } else {
+                LOGGER.warn("Ping failed for device: {}", deviceIdentification, e);
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unexpected exception pinging device: {}", deviceIdentification, e);
+        }
+    }
+
+    private static class MonitoredConnection {
+        private final ConnectionHealth connectionHealth;
+        private final ClientAssociation clientAssociation;
+        private final FcModelNode probeNode;
+
+        MonitoredConnection(final ConnectionHealth connectionHealth, final ClientAssociation clientAssociation,
+                final FcModelNode probeNode) {
+            this.connectionHealth = connectionHealth;
+            this.clientAssociation = clientAssociation;
+            this.probeNode = probeNode;
+        }
+    }
+}
@@ -0,0 +1,395 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection;
+
+/**
+ * Registry of cached connections with devices.
+ * <p>
+ * The number of cached connections is bounded. When the maximum is exceeded,
+ * the least recently used connection is closed. Optionally, connections that
+ * have not been used and have not received any reports for a while are
+ * closed as well. Connections on which reporting has been enabled are not
+ * evicted, unless they are closed already, since evicting them would end the
+ * reporting. A connection that is evicted while a request uses it is closed
+ * once the request releases it. A lock per device makes sure only one
+ * connection is set up for a device at a time, so concurrent requests for the
+ * same device wait for the connection being set up instead of setting up
+ * connections of their own.
+ */
+@Component
+public class Iec61850ConnectionRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850ConnectionRegistry.class);
+
+    private static final long MAINTENANCE_INTERVAL = 60000;
+
+    private final Map<String, CachedConnection> connections = new ConcurrentHashMap<>();
+
+    /**
+     * The cached connections, and the connections that have been evicted or
+     * replaced while in use, by connection.
+     */
+    private final Map<Iec61850Connection, CachedConnection> openConnections = new ConcurrentHashMap<>();
+
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong connects = new AtomicLong();
+    private final AtomicLong totalConnectTime = new AtomicLong();
+    private final AtomicLong maxConnectTime = new AtomicLong();
+
+    private ScheduledExecutorService maintenanceExecutor;
+
+    @Autowired
+    private Iec61850ConnectionHealthService iec61850ConnectionHealthService;
+
+    @Autowired
+    private int connectionCacheMaxSize;
+
+    @Autowired
+    private int connectionCacheMaxIdleTime;
+
+    @PostConstruct
+    public void init() {
+        this.maintenanceExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-connection-registry-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.maintenanceExecutor.scheduleWithFixedDelay(this::maintain, MAINTENANCE_INTERVAL, MAINTENANCE_INTERVAL,
+                TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.maintenanceExecutor.shutdownNow();
+    }
+
+    /**
+     * Returns the lock to hold while looking up, setting up and caching a
+     * connection with the device.
+     */
+    public Lock getLock(final String deviceIdentification) {
+        return this.locks.computeIfAbsent(deviceIdentification, key -> new ReentrantLock());
+    }
+
+    public Iec61850Connection get(final String deviceIdentification) {
+        final CachedConnection cachedConnection = this.connections.get(deviceIdentification);
+        if (cachedConnection == null) {
+            return null;
+        }
+        cachedConnection.lastUsed = System.currentTimeMillis();
+        return cachedConnection.connection;
+    }
+
+    /**
+     * Returns the cached connection with the device for use by a request, or
+     * null if there is none. The connection is not closed until it has been
+     * handed back using {@link #release(Iec61850Connection)}.
+     */
+    public Iec61850Connection acquire(final String deviceIdentification) {
+        final CachedConnection cachedConnection = this.connections.get(deviceIdentification);
+        if (cachedConnection == null || !cachedConnection.acquire()) {
+            return null;
+        }
+        return cachedConnection.connection;
+    }
+
+    /**
+     * Hands back a connection obtained by {@link #acquire(String)} or cached
+     * by {@link #put(String, Iec61850Connection)}. A connection that has been
+     * evicted or replaced in the mean time is closed when it is no longer used.
+     */
+    public void release(final Iec61850Connection connection) {
+        final CachedConnection cachedConnection = this.openConnections.get(connection);
+        if (cachedConnection != null && cachedConnection.release()) {
+            this.openConnections.remove(connection);
+            this.close(connection);
+        }
+    }
+
+    /**
+     * Caches the connection with the device for use by the calling request,
+     * which has to release it. A different connection cached for the device is
+     * closed, as is the least recently used connection if the maximum number
+     * of cached connections is exceeded, once they are no longer used.
+     */
+    public void put(final String deviceIdentification, final Iec61850Connection connection) {
+        final CachedConnection cachedConnection = new CachedConnection(connection);
+        this.openConnections.put(connection, cachedConnection);
+        final CachedConnection previous = this.connections.put(deviceIdentification, cachedConnection);
+        if (previous != null && previous.connection != connection) {
+            LOGGER.warn("Replacing cached connection for device: {}, closing the previous connection",
+                    deviceIdentification);
+            this.retire(deviceIdentification, previous);
+        }
+        while (this.connections.size() > this.connectionCacheMaxSize) {
+            if (!this.evictLeastRecentlyUsed(deviceIdentification)) {
+                LOGGER.warn(
+                        "Maximum number of {} cached connections exceeded, no connection can be evicted, {} connections are cached",
+                        this.connectionCacheMaxSize, this.connections.size());
+                break;
+            }
+        }
+    }
+
+    /**
+     * Removes the cached connection with the device, and closes it once it is
+     * no longer used.
+     */
+    public void discard(final String deviceIdentification) {
+        final CachedConnection removed = this.connections.remove(deviceIdentification);
+        if (removed != null) {
+            this.retire(deviceIdentification, removed);
+        }
+    }
+
+    public Iec61850Connection remove(final String deviceIdentification) {
+        final CachedConnection removed = this.connections.remove(deviceIdentification);
+        if (removed == null) {
+            return null;
+        }
+        this.openConnections.remove(removed.connection);
+        return removed.connection;
+    }
+
+    /**
+     * Removes all cached connections, and returns them.
+     */
+    public List<Iec61850Connection> removeAll() {
+        final List<Iec61850Connection> removed = new ArrayList<>();
+        for (final String deviceIdentification : new ArrayList<>(this.connections.keySet())) {
+            final Iec61850Connection connection = this.remove(deviceIdentification);
+            if (connection != null) {
+                removed.add(connection);
+            }
+        }
+        return removed;
+    }
+
+    public int size() {
+        return this.connections.size();
+    }
+
+    public void recordHit() {
+        this.hits.incrementAndGet();
+    }
+
+    public void recordMiss() {
+        this.misses.incrementAndGet();
+    }
+
+    public void recordConnectTime(final long milliseconds) {
+        this.connects.incrementAndGet();
+        this.totalConnectTime.addAndGet(milliseconds);
+        this.maxConnectTime.accumulateAndGet(milliseconds, Math::max);
+    }
+
+    public long getHits() {
+        return this.hits.get();
+    }
+
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    public long getConnects() {
+        return this.connects.get();
+    }
+
+    public long getAverageConnectTime() {
+        final long count = this.connects.get();
+        return count == 0 ? 0 : this.totalConnectTime.get() / count;
+    }
+
+    public long getMaxConnectTime() {
+        return this.maxConnectTime.get();
+    }
+
+    /**
+     * Evicts the least recently used connection that can be evicted. Returns
+     * false if no connection can be evicted.
+     */
+    private boolean evictLeastRecentlyUsed(final String excludedDeviceIdentification) {
+        final List<Map.Entry<String, CachedConnection>> candidates = new ArrayList<>();
+        for (final Map.Entry<String, CachedConnection> entry : this.connections.entrySet()) {
+            if (!entry.getKey().equals(excludedDeviceIdentification) && this.isEvictable(entry.getValue())) {
+                candidates.add(entry);
+            }
+        }
+        candidates.sort(Comparator.comparingLong(entry -> this.lastActivity(entry.getValue())));
+        for (final Map.Entry<String, CachedConnection> candidate : candidates) {
+            LOGGER.info("Maximum number of {} cached connections exceeded, evicting connection for device: {}",
+                    this.connectionCacheMaxSize, candidate.getKey());
+            if (this.evict(candidate.getKey())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void maintain() {
+        try {
+            if (this.connectionCacheMaxIdleTime > 0) {
+                final long now = System.currentTimeMillis();
+                for (final Map.Entry<String, CachedConnection> entry : this.connections.entrySet()) {
+                    if (now - this.lastActivity(entry.getValue()) > this.connectionCacheMaxIdleTime
+                            && this.isEvictable(entry.getValue())) {
+                        LOGGER.info("Evicting idle connection for device: {}", entry.getKey());
+                        this.evict(entry.getKey());
+                    }
+                }
+            }
+            LOGGER.info(
+                    "Connection cache size: {}, hits: {}, misses: {}, evictions: {}, connects: {}, average connect time: {} ms, max connect time: {} ms",
+                    this.connections.size(), this.hits.get(), this.misses.get(), this.evictions.get(),
+                    this.connects.get(), this.getAverageConnectTime(), this.maxConnectTime.get());
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unexpected exception maintaining cached connections", e);
+        }
+    }
+
+    /**
+     * Returns the last time the connection was used for a request, or a report
+     * or response was received on it.
+     */
+    private long lastActivity(final CachedConnection cachedConnection) {
+        final long lastReceived = System.currentTimeMillis() - cachedConnection.connection
+                .getIec61850ClientAssociation().getConnectionHealth().getMillisSinceLastActivity();
+        return Math.max(cachedConnection.lastUsed, lastReceived);
+    }
+
+    /**
+     * Returns whether the connection may be evicted, which is not the case if
+     * reporting has been enabled on it, unless it is closed already.
+     */
+    private boolean isEvictable(final CachedConnection cachedConnection) {
+        return !cachedConnection.connection.isReportingEnabled()
+                || cachedConnection.connection.getIec61850ClientAssociation().getConnectionHealth().isClosed();
+    }
+
+    private boolean evict(final String deviceIdentification) {
+        final ReentrantLock lock = this.locks.computeIfAbsent(deviceIdentification, key -> new ReentrantLock());
+        if (!lock.tryLock()) {
+            // A connection is being set up for the device right now.
+            return false;
+        }
+        try {
+            final CachedConnection removed = this.connections.remove(deviceIdentification);
+            if (removed != null) {
+                this.evictions.incrementAndGet();
+                this.iec61850ConnectionHealthService.unregister(deviceIdentification);
+                this.retire(deviceIdentification, removed);
+            }
+            if (!lock.hasQueuedThreads()) {
+                this.locks.remove(deviceIdentification, lock);
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes a connection that has been removed from the cache, or has it
+     * closed when the last request using it releases it.
+     */
+    private void retire(final String deviceIdentification, final CachedConnection cachedConnection) {
+        if (!cachedConnection.retire()) {
+            LOGGER.info("Connection for device: {} is in use, closing it when it is released", deviceIdentification);
+            return;
+        }
+        this.openConnections.remove(cachedConnection.connection);
+        this.close(cachedConnection.connection);
+    }
+
+    private void close(final Iec61850Connection connection) {
+        try {
+            connection.getClientAssociation().disconnect();
+            connection.getIec61850ClientAssociation().getConnectionHealth().closed("evicted from cache");
+        } catch (final RuntimeException e) {
+            LOGGER.debug("Exception closing evicted connection", e);
+        }
+    }
+
+    /**
+     * A cached connection, with the number of requests using it. Once it has
+     * been retired, it can no longer be acquired and it is closed when the
+     * number of users drops to zero.
+     */
+    private static class CachedConnection {
+        private final Iec61850Connection connection;
+        private volatile long lastUsed;
+        private int users;
+        private boolean isRetired;
+
+        CachedConnection(final Iec61850Connection connection) {
+            this.connection = connection;
+            this.lastUsed = System.currentTimeMillis();
+            // Used by the request that set up the connection.
+            this.users = 1;
+        }
+
+        synchronized boolean acquire() {
+            if (this.isRetired) {
+                return false;
+            }
+            this.users++;
+            this.lastUsed = System.currentTimeMillis();
+            return true;
+        }
+
+        /**
+         * Returns true if the connection has been retired and is no longer
+         * used, so it has to be closed.
+         */
+        synchronized boolean release() {
+            if (this.users > 0) {
+                this.users--;
+            }
+            this.lastUsed = System.currentTimeMillis();
+            return this.isRetired && this.users == 0;
+        }
+
+        /**
+         * Returns true if the connection is not used, so it has to be closed.
+         */
+        synchronized boolean retire() {
+            this.isRetired = true;
+            return this.users == 0;
+        }
+    }
+}
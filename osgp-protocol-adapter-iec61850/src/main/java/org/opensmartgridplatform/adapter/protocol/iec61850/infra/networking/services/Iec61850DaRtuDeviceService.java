@@ -11,8 +11,6 @@ import java.io.Serializable;
 
 import javax.jms.JMSException;
 
-import org.openmuc.openiec61850.ClientAssociation;
-import org.openmuc.openiec61850.ServerModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,8 +30,6 @@ import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.Connection
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAdapterException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.DaRtuDeviceRequestMessageProcessor;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
-import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850ClientAssociation;
-import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.Function;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.IED;
@@ -56,21 +52,12 @@ public class Iec61850DaRtuDeviceService implements DaRtuDeviceService {
     @Override
     public void getData(final DaDeviceRequest deviceRequest, final DeviceResponseHandler deviceResponseHandler,
             final DaRtuDeviceRequestMessageProcessor messageProcessor) throws JMSException {
+        DeviceConnection deviceConnection = null;
         try {
             final String serverName = this.getServerName(deviceRequest);
-            final ServerModel serverModel = this.connectAndRetrieveServerModel(deviceRequest, serverName);
+            deviceConnection = this.connectAndRetrieveConnection(deviceRequest, serverName);
 
-            final ClientAssociation clientAssociation = this.iec61850DeviceConnectionService
-                    .getClientAssociation(deviceRequest.getDeviceIdentification());
-
-            final Serializable dataResponse = this
-                    .handleGetData(
-                            new DeviceConnection(
-                                    new Iec61850Connection(new Iec61850ClientAssociation(clientAssociation, null),
-                                            serverModel),
-                                    deviceRequest.getDeviceIdentification(),
-                                    deviceRequest.getOrganisationIdentification(), serverName),
-                            deviceRequest, messageProcessor);
+            final Serializable dataResponse = this.handleGetData(deviceConnection, deviceRequest, messageProcessor);
 
             final DaDeviceResponse deviceResponse = new DaDeviceResponse(deviceRequest, DeviceMessageStatus.OK,
                     dataResponse);
@@ -90,6 +77,8 @@ public class Iec61850DaRtuDeviceService implements DaRtuDeviceService {
                     DeviceMessageStatus.FAILURE);
 
             deviceResponseHandler.handleException(e, deviceResponse);
+        } finally {
+            this.iec61850DeviceConnectionService.release(deviceConnection);
         }
     }
 
@@ -97,16 +86,20 @@ public class Iec61850DaRtuDeviceService implements DaRtuDeviceService {
     // PRIVATE DEVICE COMMUNICATION METHODS =
     // ======================================
 
-    private ServerModel connectAndRetrieveServerModel(final DeviceRequest deviceRequest, final String serverName)
-            throws ProtocolAdapterException {
+    /**
+     * Connects to the device and returns the cached connection, to be released
+     * after use. The connection keeps the node index and the power quality
+     * layout of the ServerModel for as long as the connection is open.
+     */
+    private DeviceConnection connectAndRetrieveConnection(final DeviceRequest deviceRequest,
+            final String serverName) throws ProtocolAdapterException {
 
         final DeviceConnectionParameters deviceConnectionParameters = DeviceConnectionParameters.newBuilder()
                 .ipAddress(deviceRequest.getIpAddress()).deviceIdentification(deviceRequest.getDeviceIdentification())
                 .ied(IED.DA_RTU).serverName(serverName).logicalDevice(LogicalDevice.RTU.getDescription() + 1).build();
 
-        this.iec61850DeviceConnectionService.connect(deviceConnectionParameters,
+        return this.iec61850DeviceConnectionService.connect(deviceConnectionParameters,
                 deviceRequest.getOrganisationIdentification());
-        return this.iec61850DeviceConnectionService.getServerModel(deviceRequest.getDeviceIdentification());
     }
 
     // ========================
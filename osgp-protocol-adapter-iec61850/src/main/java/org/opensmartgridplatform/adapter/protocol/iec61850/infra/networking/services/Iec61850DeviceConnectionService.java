@@ -10,7 +10,18 @@ package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.ser
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.file.Paths;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
@@ -33,6 +44,7 @@ import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAd
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850ClientAssociation;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ConnectionState;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DataAttribute;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.Function;
@@ -47,8 +59,6 @@ public class Iec61850DeviceConnectionService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850DeviceConnectionService.class);
 
-    private static ConcurrentHashMap<String, Iec61850Connection> cache = new ConcurrentHashMap<>();
-
     private static final int IEC61850_DEFAULT_PORT = 102;
 
     @Autowired
@@ -63,6 +73,15 @@ public class Iec61850DeviceConnectionService {
     @Autowired
     private Iec61850Client iec61850Client;
 
+    @Autowired
+    private Iec61850ServerModelCache iec61850ServerModelCache;
+
+    @Autowired
+    private Iec61850ConnectionHealthService iec61850ConnectionHealthService;
+
+    @Autowired
+    private Iec61850ConnectionRegistry iec61850ConnectionRegistry;
+
     @Autowired
     private int iec61850SsldPortServer;
 
@@ -81,6 +100,38 @@ public class Iec61850DeviceConnectionService {
     @Autowired
     private boolean isIcdFileUsed;
 
+    @Autowired
+    private int connectMaxConcurrent;
+
+    @Autowired
+    private int connectMaxQueued;
+
+    @Autowired
+    private int connectMaxWait;
+
+    @Autowired
+    private Iec61850CircuitBreakerService iec61850CircuitBreakerService;
+
+    private ThreadPoolExecutor connectExecutor;
+
+    @PostConstruct
+    public void init() {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.connectExecutor = new ThreadPoolExecutor(this.connectMaxConcurrent, this.connectMaxConcurrent, 60,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<>(this.connectMaxQueued), runnable -> {
+                    final Thread thread = new Thread(runnable,
+                            "iec61850-connect-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.connectExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.connectExecutor.shutdownNow();
+    }
+
     public DeviceConnection connectWithoutConnectionCaching(final DeviceConnectionParameters deviceConnectionParameters,
             final String organisationIdentification) throws ConnectionFailureException {
         return this.connect(deviceConnectionParameters, organisationIdentification, false);
@@ -95,19 +146,172 @@ public class Iec61850DeviceConnectionService {
             final String organisationIdentification, final boolean cacheConnection) throws ConnectionFailureException {
 
         final String deviceIdentification = deviceConnectionParameters.getDeviceIdentification();
-        final String serverName = deviceConnectionParameters.getServerName();
-        final IED ied = deviceConnectionParameters.getIed();
-        // When connection-caching is used, check if a connection is available
-        // an usable for the given deviceIdentification.
+        if (cacheConnection) {
+            // Use a cached connection right away, without waiting for the
+            // connect executor, which may be busy connecting to other devices.
+            final DeviceConnection cachedConnection = this.findCachedConnection(deviceConnectionParameters,
+                    organisationIdentification);
+            if (cachedConnection != null) {
+                return cachedConnection;
+            }
+        }
+
+        return this.awaitConnection(
+                this.connectAsync(deviceConnectionParameters, organisationIdentification, cacheConnection),
+                deviceIdentification, cacheConnection);
+    }
+
+    /**
+     * Connects to the device on the connect executor, so the number of connects
+     * in progress is limited. Fails right away if the maximum number of connects
+     * is in progress and waiting, or if the circuit for the device is open.
+     */
+    private CompletableFuture<DeviceConnection> connectAsync(
+            final DeviceConnectionParameters deviceConnectionParameters, final String organisationIdentification,
+            final boolean cacheConnection) {
+
+        final String deviceIdentification = deviceConnectionParameters.getDeviceIdentification();
+        final CompletableFuture<DeviceConnection> future = new CompletableFuture<>();
+
+        try {
+            this.iec61850CircuitBreakerService.checkConnectAllowed(deviceIdentification);
+        } catch (final ConnectionFailureException e) {
+            LOGGER.info("Not connecting to deviceIdentification: {}, circuit is open", deviceIdentification);
+            future.completeExceptionally(e);
+            return future;
+        }
+
+        try {
+            this.connectExecutor.execute(() -> {
+                try {
+                    future.complete(this.connectWithLock(deviceConnectionParameters, organisationIdentification,
+                            cacheConnection));
+                    this.iec61850CircuitBreakerService.recordSuccess(deviceIdentification);
+                } catch (final ConnectionFailureException e) {
+                    this.iec61850CircuitBreakerService.recordFailure(deviceConnectionParameters);
+                    future.completeExceptionally(e);
+                } catch (final RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (final RejectedExecutionException e) {
+            LOGGER.warn("Maximum number of connects in progress, not connecting to deviceIdentification: {}",
+                    deviceIdentification);
+            future.completeExceptionally(new ConnectionFailureException(
+                    "Maximum number of connects in progress, unable to connect to device: " + deviceIdentification,
+                    e));
+        }
+        return future;
+    }
+
+    /**
+     * Returns the cached connection of the device if it is healthy, or if it is
+     * still alive when its health is unknown. Returns null otherwise.
+     */
+    private DeviceConnection findCachedConnection(final DeviceConnectionParameters deviceConnectionParameters,
+            final String organisationIdentification) {
+        final String deviceIdentification = deviceConnectionParameters.getDeviceIdentification();
         try {
-            if (cacheConnection && this.testIfConnectionIsCachedAndAlive(deviceIdentification, ied, serverName,
-                    deviceConnectionParameters.getLogicalDevice())) {
-                return new DeviceConnection(this.fetchIec61850Connection(deviceIdentification), deviceIdentification,
-                        organisationIdentification, serverName);
+            if (this.testIfConnectionIsCachedAndAlive(deviceIdentification, deviceConnectionParameters.getIed(),
+                    deviceConnectionParameters.getServerName(), deviceConnectionParameters.getLogicalDevice())) {
+                final Iec61850Connection iec61850Connection = this.iec61850ConnectionRegistry
+                        .acquire(deviceIdentification);
+                if (iec61850Connection != null) {
+                    this.iec61850ConnectionRegistry.recordHit();
+                    return new DeviceConnection(iec61850Connection, deviceIdentification,
+                            organisationIdentification, deviceConnectionParameters.getServerName());
+                }
             }
         } catch (final ProtocolAdapterException e) {
             this.logProtocolAdapterException(deviceIdentification, e);
         }
+        return null;
+    }
+
+    /**
+     * Waits at most the maximum connect wait for the connect, so the listener
+     * thread is not held up by connects queued for other devices. A connect
+     * that is still in progress will cache the connection when it succeeds,
+     * or close it if the connection is not cached, as no one will use it.
+     * A cached connection is released, so it can be evicted.
+     */
+    private DeviceConnection awaitConnection(final CompletableFuture<DeviceConnection> future,
+            final String deviceIdentification, final boolean cacheConnection) throws ConnectionFailureException {
+        try {
+            return future.get(this.connectMaxWait, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            LOGGER.warn("Connect to deviceIdentification: {} did not finish within {} ms", deviceIdentification,
+                    this.connectMaxWait);
+            future.whenComplete((connection, t) -> {
+                if (connection == null) {
+                    return;
+                }
+                if (cacheConnection) {
+                    this.release(connection);
+                } else {
+                    LOGGER.info("Closing connection to deviceIdentification: {}, connected after time-out",
+                            deviceIdentification);
+                    this.disconnect(connection, null);
+                }
+            });
+            throw new ConnectionFailureException("Timed out connecting to device: " + deviceIdentification, e);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionFailureException("Interrupted connecting to device: " + deviceIdentification, e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof ConnectionFailureException) {
+                throw (ConnectionFailureException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new ConnectionFailureException(cause.getMessage(), cause);
+        }
+    }
+
+    private DeviceConnection connectWithLock(final DeviceConnectionParameters deviceConnectionParameters,
+            final String organisationIdentification, final boolean cacheConnection) throws ConnectionFailureException {
+
+        if (!cacheConnection) {
+            return this.connectDevice(deviceConnectionParameters, organisationIdentification, false);
+        }
+
+        // Concurrent requests for the same device wait for a single connection
+        // to be set up and cached.
+        final Lock lock = this.iec61850ConnectionRegistry
+                .getLock(deviceConnectionParameters.getDeviceIdentification());
+        lock.lock();
+        try {
+            return this.connectDevice(deviceConnectionParameters, organisationIdentification, true);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private DeviceConnection connectDevice(final DeviceConnectionParameters deviceConnectionParameters,
+            final String organisationIdentification, final boolean cacheConnection) throws ConnectionFailureException {
+
+        final String deviceIdentification = deviceConnectionParameters.getDeviceIdentification();
+        final String serverName = deviceConnectionParameters.getServerName();
+        final IED ied = deviceConnectionParameters.getIed();
+        // When connection-caching is used, the cached connection has been
+        // checked before the connect was queued. Only use a connection cached
+        // by a concurrent connect for the same device in the mean time, which
+        // needs no check.
+        if (cacheConnection) {
+            if (ConnectionState.OK
+                    .equals(this.iec61850ConnectionHealthService.getConnectionState(deviceIdentification))) {
+                final Iec61850Connection cachedConnection = this.iec61850ConnectionRegistry
+                        .acquire(deviceIdentification);
+                if (cachedConnection != null) {
+                    this.iec61850ConnectionRegistry.recordHit();
+                    return new DeviceConnection(cachedConnection, deviceIdentification, organisationIdentification,
+                            serverName);
+                }
+            }
+            this.iec61850ConnectionRegistry.recordMiss();
+        }
 
         final InetAddress inetAddress = this.convertIpAddress(deviceConnectionParameters.getIpAddress());
 
@@ -138,7 +342,8 @@ public class Iec61850DeviceConnectionService {
         // Read the ServerModel, either from the device or from a SCL file.
         ServerModel serverModel;
         try {
-            serverModel = this.readServerModel(clientAssociation, deviceIdentification, iec61850Device);
+            serverModel = this.readServerModel(clientAssociation, deviceIdentification, iec61850Device, ied,
+                    serverName);
         } catch (final ProtocolAdapterException e) {
             LOGGER.error("ProtocolAdapterException: unable to read ServerModel for deviceIdentification "
                     + deviceIdentification, e);
@@ -150,12 +355,17 @@ public class Iec61850DeviceConnectionService {
                 startTime, ied);
         if (cacheConnection) {
             this.cacheIec61850Connection(deviceIdentification, iec61850Connection);
+            this.iec61850ConnectionHealthService.register(deviceIdentification,
+                    iec61850ClientAssociation.getConnectionHealth(), clientAssociation,
+                    this.findProbeNode(deviceIdentification, ied, serverName,
+                            deviceConnectionParameters.getLogicalDevice(), iec61850Connection));
         }
 
         final DeviceConnection connection = new DeviceConnection(iec61850Connection, deviceIdentification,
                 organisationIdentification, serverName);
 
         final DateTime endTime = DateTime.now();
+        this.iec61850ConnectionRegistry.recordConnectTime(endTime.getMillis() - startTime.getMillis());
         LOGGER.info(
                 "Connected to device: {}, fetched server model. Start time: {}, end time: {}, total time in milliseconds: {}",
                 deviceIdentification, startTime, endTime, endTime.minus(startTime.getMillis()).getMillis());
@@ -165,10 +375,27 @@ public class Iec61850DeviceConnectionService {
         return connection;
     }
 
+    /**
+     * Sets up and closes an association with the device, without a report
+     * listener and without reading the ServerModel, to check whether the
+     * device can be reached.
+     */
+    public void probe(final DeviceConnectionParameters deviceConnectionParameters)
+            throws ConnectionFailureException {
+        final String deviceIdentification = deviceConnectionParameters.getDeviceIdentification();
+        final InetAddress inetAddress = this.convertIpAddress(deviceConnectionParameters.getIpAddress());
+        final Iec61850Device iec61850Device = this.iec61850DeviceRepository
+                .findByDeviceIdentification(deviceIdentification);
+        final int port = this.determinePortForIec61850Device(deviceConnectionParameters.getIed(), iec61850Device);
+        final Iec61850ClientAssociation iec61850ClientAssociation = this.iec61850Client.connect(deviceIdentification,
+                inetAddress, null, port);
+        iec61850ClientAssociation.getClientAssociation().disconnect();
+    }
+
     public void closeAllConnections() {
-        LOGGER.warn("Closing connections for {} devices", cache.size());
-        cache.values().forEach(c -> c.getClientAssociation().close());
-        cache.clear();
+        LOGGER.warn("Closing connections for {} devices", this.iec61850ConnectionRegistry.size());
+        this.iec61850ConnectionRegistry.removeAll().forEach(c -> c.getClientAssociation().close());
+        this.iec61850ConnectionHealthService.unregisterAll();
     }
 
     private void logProtocolAdapterException(final String deviceIdentification, final ProtocolAdapterException e) {
@@ -204,6 +431,18 @@ public class Iec61850DeviceConnectionService {
             if (iec61850Connection != null) {
                 // Already connected, check if connection is still usable.
                 LOGGER.info("Connection found for deviceIdentification: {}", deviceIdentification);
+                final ConnectionState connectionState = this.iec61850ConnectionHealthService
+                        .getConnectionState(deviceIdentification);
+                if (ConnectionState.OK.equals(connectionState)) {
+                    // Device has been active recently, no need to check.
+                    return true;
+                }
+                if (ConnectionState.BROKEN.equals(connectionState)) {
+                    LOGGER.info("Connection is closed, removing connection from cache for deviceIdentification: {}",
+                            deviceIdentification);
+                    this.disconnect(deviceIdentification);
+                    return false;
+                }
                 // Read physical name node (only), which is much faster, but
                 // requires manual reads of remote data.
                 if (ied != null && logicalDevice != null) {
@@ -222,6 +461,7 @@ public class Iec61850DeviceConnectionService {
                     this.iec61850Client.readAllDataValues(iec61850Connection.getClientAssociation());
                 }
                 LOGGER.info("Connection is still active for deviceIdentification: {}", deviceIdentification);
+                this.iec61850ConnectionHealthService.recordActivity(deviceIdentification);
                 return true;
             }
         } catch (final NodeReadException e) {
@@ -232,6 +472,23 @@ public class Iec61850DeviceConnectionService {
         return false;
     }
 
+    /**
+     * Returns the name plate node used to ping the device in the background,
+     * or {@code null} if no logical device is known for the connection.
+     */
+    private FcModelNode findProbeNode(final String deviceIdentification, final IED ied, final String serverName,
+            final String logicalDevice, final Iec61850Connection iec61850Connection) {
+        if (ied == null || logicalDevice == null) {
+            return null;
+        }
+        try {
+            return this.getModelNode(logicalDevice, iec61850Connection, this.getActualServerName(ied, serverName));
+        } catch (final ProtocolAdapterException e) {
+            LOGGER.warn("No name plate node to ping deviceIdentification: {}", deviceIdentification, e);
+            return null;
+        }
+    }
+
     private FcModelNode getModelNode(final String logicalDevice, final Iec61850Connection iec61850Connection,
             final String description) throws ProtocolAdapterException {
         final ServerModel serverModel = iec61850Connection.getServerModel();
@@ -259,7 +516,8 @@ public class Iec61850DeviceConnectionService {
     }
 
     private ServerModel readServerModel(final ClientAssociation clientAssociation, final String deviceIdentification,
-            final Iec61850Device iec61850Device) throws ProtocolAdapterException {
+            final Iec61850Device iec61850Device, final IED ied, final String serverName)
+            throws ProtocolAdapterException {
 
         ServerModel serverModel;
         try {
@@ -281,7 +539,8 @@ public class Iec61850DeviceConnectionService {
             LOGGER.warn("Ignore exception reading server model based on configured ICD file.", e);
         }
         LOGGER.info("Reading ServerModel from device: {} using readServerModelFromDevice()", deviceIdentification);
-        return this.iec61850Client.readServerModelFromDevice(clientAssociation);
+        return this.iec61850ServerModelCache.getServerModelFromDevice(clientAssociation, ied, serverName,
+                deviceIdentification);
     }
 
     private ServerModel readServerModelConfiguredForDevice(final ClientAssociation clientAssociation,
@@ -303,7 +562,7 @@ public class Iec61850DeviceConnectionService {
         final String filePath = Paths.get(this.icdFilesFolder, iec61850Device.getIcdFilename()).toString();
         LOGGER.info("Reading ServerModel from SCL / ICD file: {} configured for device: {}", filePath,
                 deviceIdentification);
-        return this.iec61850Client.readServerModelFromSclFile(clientAssociation, filePath);
+        return this.iec61850ServerModelCache.getServerModelFromSclFile(clientAssociation, filePath);
     }
 
     private ServerModel readServerModelFromConfiguredIcdFile(final ClientAssociation clientAssociation)
@@ -314,19 +573,20 @@ public class Iec61850DeviceConnectionService {
         }
 
         LOGGER.info("Reading ServerModel from SCL / ICD file: {}", this.icdFilePath);
-        return this.iec61850Client.readServerModelFromSclFile(clientAssociation, this.icdFilePath);
+        return this.iec61850ServerModelCache.getServerModelFromSclFile(clientAssociation, this.icdFilePath);
     }
 
     /**
      * Closes the {@link ClientAssociation}, send a disconnect request and close
-     * the socket.
+     * the socket. A cached connection in use by a request is closed when the
+     * request releases it.
      */
     public void disconnect(final String deviceIdentification) {
         LOGGER.info("Trying to disconnect from deviceIdentification: {}", deviceIdentification);
         final Iec61850Connection iec61850Connection = this.fetchIec61850Connection(deviceIdentification);
+        this.iec61850ConnectionHealthService.unregister(deviceIdentification);
         if (iec61850Connection != null) {
-            iec61850Connection.getClientAssociation().disconnect();
-            this.removeIec61850Connection(deviceIdentification);
+            this.iec61850ConnectionRegistry.discard(deviceIdentification);
             LOGGER.info("Disconnected from deviceIdentification: {}", deviceIdentification);
         } else {
             LOGGER.info("Unable to disconnect from deviceIdentification: {}, no cached connection was found",
@@ -336,13 +596,27 @@ public class Iec61850DeviceConnectionService {
 
     public void disconnect(final DeviceConnection deviceConnection, final DeviceRequest deviceRequest) {
         try {
-            deviceConnection.getConnection().getIec61850ClientAssociation().getClientAssociation().disconnect();
+            final Iec61850ClientAssociation iec61850ClientAssociation = deviceConnection.getConnection()
+                    .getIec61850ClientAssociation();
+            iec61850ClientAssociation.getClientAssociation().disconnect();
+            iec61850ClientAssociation.getConnectionHealth().closed("disconnected");
             this.logDuration(deviceConnection, deviceRequest);
         } catch (final NullPointerException e) {
             LOGGER.debug("NullPointerException during disconnect()", e);
         }
     }
 
+    /**
+     * Hands back a cached connection obtained by
+     * {@link #connect(DeviceConnectionParameters, String)} once the request is
+     * done with it, so it can be closed when it is evicted.
+     */
+    public void release(final DeviceConnection deviceConnection) {
+        if (deviceConnection != null) {
+            this.iec61850ConnectionRegistry.release(deviceConnection.getConnection());
+        }
+    }
+
     private void logDuration(final DeviceConnection deviceConnection, final DeviceRequest deviceRequest) {
         if (deviceConnection == null) {
             return;
@@ -410,21 +684,17 @@ public class Iec61850DeviceConnectionService {
 
     private void cacheIec61850Connection(final String deviceIdentification,
             final Iec61850Connection iec61850Connection) {
-        cache.put(deviceIdentification, iec61850Connection);
+        this.iec61850ConnectionRegistry.put(deviceIdentification, iec61850Connection);
     }
 
     private Iec61850Connection fetchIec61850Connection(final String deviceIdentification) {
-        final Iec61850Connection iec61850Connection = cache.get(deviceIdentification);
+        final Iec61850Connection iec61850Connection = this.iec61850ConnectionRegistry.get(deviceIdentification);
         if (iec61850Connection == null) {
             LOGGER.info("No connection found for device: {}", deviceIdentification);
         }
         return iec61850Connection;
     }
 
-    private void removeIec61850Connection(final String deviceIdentification) {
-        cache.remove(deviceIdentification);
-    }
-
     private InetAddress convertIpAddress(final String ipAddress) throws ConnectionFailureException {
         try {
             if (StringUtils.isEmpty(ipAddress)) {
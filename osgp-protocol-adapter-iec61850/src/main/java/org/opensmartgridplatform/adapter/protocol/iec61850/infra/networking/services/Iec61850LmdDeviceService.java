@@ -76,6 +76,8 @@ public class Iec61850LmdDeviceService implements LmdDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
             this.iec61850DeviceConnectionService.disconnect(devCon, deviceRequest);
+        } finally {
+            this.iec61850DeviceConnectionService.release(devCon);
         }
     }
 
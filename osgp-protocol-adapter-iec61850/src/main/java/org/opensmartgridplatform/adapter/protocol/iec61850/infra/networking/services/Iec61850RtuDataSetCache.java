@@ -0,0 +1,143 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openmuc.openiec61850.ClientAssociation;
+import org.openmuc.openiec61850.DataSet;
+import org.openmuc.openiec61850.FcModelNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeReadException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeWriteException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ConnectionState;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.PollingDataSets;
+
+/**
+ * Reads the nodes of RTU GetData requests using data sets on the device.
+ * <p>
+ * A data set is created for each combination of nodes that is read, and kept
+ * on the device for as long as the association with the device and its server
+ * model are in use. Requests polling the same filters read the values of all
+ * nodes with a single request for the values of the data set. The data sets
+ * only exist for the association, so they are removed from the device when
+ * the connection is closed, and they are kept by the connection.
+ */
+@Component
+public class Iec61850RtuDataSetCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850RtuDataSetCache.class);
+
+    private static final String DATA_SET_PREFIX = "@OsgpPoll";
+
+    private final AtomicInteger dataSetCounter = new AtomicInteger();
+
+    @Autowired
+    private Iec61850Client iec61850Client;
+
+    @Autowired
+    private boolean isRtuDataSetPollingEnabled;
+
+    @Autowired
+    private int rtuDataSetPollingMaxDataSets;
+
+    public boolean isEnabled() {
+        return this.isRtuDataSetPollingEnabled;
+    }
+
+    /**
+     * Reads the values of the nodes using the data set for this combination of
+     * nodes, creating the data set on the device if it does not exist yet. If
+     * the device does not allow creating data sets, the nodes are read without
+     * one.
+     *
+     * @throws NodeReadException
+     *             In case the read action fails.
+     */
+    public void readNodeDataValues(final DeviceConnection connection, final List<FcModelNode> nodes)
+            throws NodeReadException {
+        final ClientAssociation clientAssociation = connection.getConnection().getClientAssociation();
+        final List<FcModelNode> distinctNodes = new ArrayList<>(new LinkedHashSet<>(nodes));
+        if (distinctNodes.size() < 2) {
+            this.iec61850Client.readNodeDataValues(clientAssociation, distinctNodes);
+            return;
+        }
+
+        final String key = createKey(distinctNodes);
+        final PollingDataSets pollingDataSets = connection.getConnection().getPollingDataSets();
+        final DataSet dataSet;
+        synchronized (pollingDataSets) {
+            dataSet = this.getDataSet(connection.getDeviceIdentification(), pollingDataSets, clientAssociation, key,
+                    distinctNodes);
+        }
+
+        if (dataSet == null) {
+            this.iec61850Client.readNodeDataValues(clientAssociation, distinctNodes);
+            return;
+        }
+
+        try {
+            this.iec61850Client.readDataSetValues(clientAssociation, dataSet);
+        } catch (final NodeReadException e) {
+            // Create the data set again on the next request.
+            synchronized (pollingDataSets) {
+                pollingDataSets.remove(key);
+            }
+            throw e;
+        }
+    }
+
+    private DataSet getDataSet(final String deviceIdentification, final PollingDataSets pollingDataSets,
+            final ClientAssociation clientAssociation, final String key, final List<FcModelNode> nodes)
+            throws NodeReadException {
+
+        DataSet dataSet = pollingDataSets.get(key);
+        if (dataSet != null || pollingDataSets.isCreatingDataSetsFailed()) {
+            return dataSet;
+        }
+
+        while (pollingDataSets.size() >= this.rtuDataSetPollingMaxDataSets && pollingDataSets.size() > 0) {
+            this.iec61850Client.deleteDataSet(clientAssociation, pollingDataSets.removeLeastRecentlyUsed());
+        }
+
+        dataSet = new DataSet(DATA_SET_PREFIX + this.dataSetCounter.incrementAndGet(), nodes);
+        try {
+            this.iec61850Client.createDataSet(clientAssociation, dataSet);
+        } catch (final NodeWriteException e) {
+            if (!ConnectionState.OK.equals(e.getConnectionState())) {
+                throw new NodeReadException(e.getMessage(), e, e.getConnectionState());
+            }
+            LOGGER.warn("Unable to create data set for device: {}, reading nodes without data sets",
+                    deviceIdentification);
+            pollingDataSets.setCreatingDataSetsFailed(true);
+            return null;
+        }
+
+        LOGGER.info("Created data set {} with {} nodes for device: {}", dataSet.getReferenceStr(), nodes.size(),
+                deviceIdentification);
+        pollingDataSets.put(key, dataSet);
+        return dataSet;
+    }
+
+    private static String createKey(final List<FcModelNode> nodes) {
+        final StringBuilder key = new StringBuilder();
+        for (final FcModelNode node : nodes) {
+            key.append(node.getReference()).append('[').append(node.getFc()).append(']');
+        }
+        return key.toString();
+    }
+}
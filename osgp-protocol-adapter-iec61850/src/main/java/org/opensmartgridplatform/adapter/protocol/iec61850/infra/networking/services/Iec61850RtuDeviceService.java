@@ -12,8 +12,7 @@ import java.util.List;
 
 import javax.jms.JMSException;
 
-import org.openmuc.openiec61850.ClientAssociation;
-import org.openmuc.openiec61850.ServerModel;
+import org.openmuc.openiec61850.FcModelNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -34,8 +33,6 @@ import org.opensmartgridplatform.adapter.protocol.iec61850.domain.valueobjects.D
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ConnectionFailureException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAdapterException;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
-import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850ClientAssociation;
-import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.SystemService;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.Function;
@@ -62,23 +59,21 @@ public class Iec61850RtuDeviceService implements RtuDeviceService {
     @Autowired
     private Iec61850Client iec61850Client;
 
+    @Autowired
+    private Iec61850RtuDataSetCache iec61850RtuDataSetCache;
+
     @Autowired
     private Iec61850DeviceRepository iec61850DeviceRepository;
 
     @Override
     public void getData(final GetDataDeviceRequest deviceRequest, final DeviceResponseHandler deviceResponseHandler)
             throws JMSException {
+        DeviceConnection deviceConnection = null;
         try {
             final String serverName = this.getServerName(deviceRequest);
-            final ServerModel serverModel = this.connectAndRetrieveServerModel(deviceRequest, serverName);
-
-            final ClientAssociation clientAssociation = this.iec61850DeviceConnectionService
-                    .getClientAssociation(deviceRequest.getDeviceIdentification());
+            deviceConnection = this.connectAndRetrieveConnection(deviceRequest, serverName);
 
-            final GetDataResponseDto getDataResponse = this.handleGetData(new DeviceConnection(
-                    new Iec61850Connection(new Iec61850ClientAssociation(clientAssociation, null), serverModel),
-                    deviceRequest.getDeviceIdentification(), deviceRequest.getOrganisationIdentification(), serverName),
-                    deviceRequest);
+            final GetDataResponseDto getDataResponse = this.handleGetData(deviceConnection, deviceRequest);
 
             if (getDataResponse == null) {
                 throw new ProtocolAdapterException("No valid response received during GetData");
@@ -102,22 +97,20 @@ public class Iec61850RtuDeviceService implements RtuDeviceService {
                     DeviceMessageStatus.FAILURE);
 
             deviceResponseHandler.handleException(e, deviceResponse);
+        } finally {
+            this.iec61850DeviceConnectionService.release(deviceConnection);
         }
     }
 
     @Override
     public void setData(final SetDataDeviceRequest deviceRequest, final DeviceResponseHandler deviceResponseHandler)
             throws JMSException {
+        DeviceConnection deviceConnection = null;
         try {
             final String serverName = this.getServerName(deviceRequest);
-            final ServerModel serverModel = this.connectAndRetrieveServerModel(deviceRequest, serverName);
-            final ClientAssociation clientAssociation = this.iec61850DeviceConnectionService
-                    .getClientAssociation(deviceRequest.getDeviceIdentification());
+            deviceConnection = this.connectAndRetrieveConnection(deviceRequest, serverName);
 
-            this.handleSetData(new DeviceConnection(
-                    new Iec61850Connection(new Iec61850ClientAssociation(clientAssociation, null), serverModel),
-                    deviceRequest.getDeviceIdentification(), deviceRequest.getOrganisationIdentification(), serverName),
-                    deviceRequest);
+            this.handleSetData(deviceConnection, deviceRequest);
 
             final EmptyDeviceResponse deviceResponse = new EmptyDeviceResponse(deviceRequest, DeviceMessageStatus.OK);
 
@@ -136,6 +129,8 @@ public class Iec61850RtuDeviceService implements RtuDeviceService {
                     DeviceMessageStatus.FAILURE);
 
             deviceResponseHandler.handleException(e, deviceResponse);
+        } finally {
+            this.iec61850DeviceConnectionService.release(deviceConnection);
         }
     }
 
@@ -143,16 +138,20 @@ public class Iec61850RtuDeviceService implements RtuDeviceService {
     // PRIVATE DEVICE COMMUNICATION METHODS =
     // ======================================
 
-    private ServerModel connectAndRetrieveServerModel(final DeviceRequest deviceRequest, final String serverName)
-            throws ProtocolAdapterException {
+    /**
+     * Connects to the device and returns the cached connection, to be released
+     * after use. The connection keeps the index of the nodes looked up for as
+     * long as the connection is open.
+     */
+    private DeviceConnection connectAndRetrieveConnection(final DeviceRequest deviceRequest,
+            final String serverName) throws ProtocolAdapterException {
 
         final DeviceConnectionParameters deviceConnectionParameters = DeviceConnectionParameters.newBuilder()
                 .ipAddress(deviceRequest.getIpAddress()).deviceIdentification(deviceRequest.getDeviceIdentification())
                 .ied(IED.ZOWN_RTU).serverName(serverName).logicalDevice(LogicalDevice.RTU.getDescription() + 1).build();
 
-        this.iec61850DeviceConnectionService.connect(deviceConnectionParameters,
+        return this.iec61850DeviceConnectionService.connect(deviceConnectionParameters,
                 deviceRequest.getOrganisationIdentification());
-        return this.iec61850DeviceConnectionService.getServerModel(deviceRequest.getDeviceIdentification());
     }
 
     // ========================
@@ -169,16 +168,36 @@ public class Iec61850RtuDeviceService implements RtuDeviceService {
             @Override
             public GetDataResponseDto apply(final DeviceMessageLog deviceMessageLog) throws ProtocolAdapterException {
 
-                final List<GetDataSystemIdentifierDto> identifiers = new ArrayList<>();
+                // Read the nodes of all system filters in a single request.
+                final List<FcModelNode> nodesToRead = new ArrayList<>();
                 for (final SystemFilterDto systemFilter : requestedData.getSystemFilters()) {
-                    final SystemService systemService = Iec61850RtuDeviceService.this.systemServiceFactory
-                            .getSystemService(systemFilter);
-                    final GetDataSystemIdentifierDto getDataSystemIdentifier = systemService.getData(systemFilter,
-                            Iec61850RtuDeviceService.this.iec61850Client, connection);
-                    identifiers.add(getDataSystemIdentifier);
+                    nodesToRead.addAll(Iec61850RtuDeviceService.this.systemServiceFactory
+                            .getSystemService(systemFilter).getNodesToRead(systemFilter, connection));
                 }
 
-                return new GetDataResponseDto(identifiers, null);
+                try {
+                    if (Iec61850RtuDeviceService.this.iec61850RtuDataSetCache.isEnabled()) {
+                        Iec61850RtuDeviceService.this.iec61850RtuDataSetCache.readNodeDataValues(connection,
+                                nodesToRead);
+                    } else {
+                        Iec61850RtuDeviceService.this.iec61850Client
+                                .readNodeDataValues(connection.getConnection().getClientAssociation(), nodesToRead);
+                    }
+                    connection.markReadAhead(nodesToRead);
+
+                    final List<GetDataSystemIdentifierDto> identifiers = new ArrayList<>();
+                    for (final SystemFilterDto systemFilter : requestedData.getSystemFilters()) {
+                        final SystemService systemService = Iec61850RtuDeviceService.this.systemServiceFactory
+                                .getSystemService(systemFilter);
+                        final GetDataSystemIdentifierDto getDataSystemIdentifier = systemService.getData(systemFilter,
+                                Iec61850RtuDeviceService.this.iec61850Client, connection);
+                        identifiers.add(getDataSystemIdentifier);
+                    }
+
+                    return new GetDataResponseDto(identifiers, null);
+                } finally {
+                    connection.clearReadAhead();
+                }
             }
         };
 
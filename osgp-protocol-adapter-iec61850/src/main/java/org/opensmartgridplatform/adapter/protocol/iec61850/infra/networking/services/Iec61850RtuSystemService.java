@@ -10,6 +10,7 @@ package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.ser
 import java.util.ArrayList;
 import java.util.List;
 
+import org.openmuc.openiec61850.FcModelNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -79,6 +80,16 @@ public class Iec61850RtuSystemService implements SystemService {
                 profiles);
     }
 
+    @Override
+    public List<FcModelNode> getNodesToRead(final SystemFilterDto systemFilter, final DeviceConnection connection)
+            throws NodeException {
+        final List<FcModelNode> nodes = new ArrayList<>(this.iec61850RtuCommandFactory
+                .getNodesToRead(systemFilter.getMeasurementFilters(), connection, DEVICE, systemFilter.getId()));
+        nodes.addAll(Iec61850RtuReadProfileCommandFactory.getInstance()
+                .getNodesToRead(systemFilter.getProfileFilters(), connection, DEVICE, systemFilter.getId()));
+        return nodes;
+    }
+
     @Override
     public void setData(final SetDataSystemIdentifierDto systemIdentifier, final Iec61850Client client,
             final DeviceConnection connection) throws NodeException {
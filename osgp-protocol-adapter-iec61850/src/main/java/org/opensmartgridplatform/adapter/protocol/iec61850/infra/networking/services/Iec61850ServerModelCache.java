@@ -0,0 +1,198 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.openmuc.openiec61850.BasicDataAttribute;
+import org.openmuc.openiec61850.ClientAssociation;
+import org.openmuc.openiec61850.Fc;
+import org.openmuc.openiec61850.FcModelNode;
+import org.openmuc.openiec61850.ModelNode;
+import org.openmuc.openiec61850.ServerModel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeReadException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ProtocolAdapterException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Client;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.ConnectionState;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DataAttribute;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.IED;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalNode;
+
+/**
+ * Process wide cache of {@link ServerModel} templates.
+ * <p>
+ * Reading a ServerModel, either by parsing an SCL / ICD file or by retrieving
+ * it from the device using GetDirectory and GetDefinition services, is
+ * expensive, while the model is identical for all devices of the same type. A
+ * template is kept for each ICD file, and optionally for each combination of
+ * {@link IED}, server name and name plate of devices the model has been
+ * retrieved from. Every connection gets its own copy of a template, which is
+ * set as the model of the {@link ClientAssociation}, since values read from a
+ * device are stored in the nodes of the model.
+ */
+@Component
+public class Iec61850ServerModelCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850ServerModelCache.class);
+
+    private final Map<String, SclFileTemplate> sclFileTemplates = new ConcurrentHashMap<>();
+
+    private final Map<String, Map<String, ServerModel>> retrievedTemplates = new ConcurrentHashMap<>();
+
+    @Autowired
+    private Iec61850Client iec61850Client;
+
+    @Autowired
+    private boolean isServerModelCacheEnabled;
+
+    @Autowired
+    private boolean isServerModelFingerprintCacheEnabled;
+
+    /**
+     * Returns a ServerModel for the given SCL / ICD file and sets it as the
+     * model of the {@link ClientAssociation}. The file is only parsed if it has
+     * not been parsed before, or if it has been modified since.
+     */
+    public ServerModel getServerModelFromSclFile(final ClientAssociation clientAssociation, final String filePath)
+            throws ProtocolAdapterException {
+
+        if (!this.isServerModelCacheEnabled) {
+            return this.iec61850Client.readServerModelFromSclFile(clientAssociation, filePath);
+        }
+
+        final long lastModified = new File(filePath).lastModified();
+        final SclFileTemplate cached = this.sclFileTemplates.get(filePath);
+        if (cached != null && cached.lastModified == lastModified) {
+            LOGGER.info("Using cached ServerModel for SCL / ICD file: {}", filePath);
+            return this.useCopy(clientAssociation, cached.serverModel);
+        }
+
+        final ServerModel serverModel = this.iec61850Client.readServerModelFromSclFile(clientAssociation, filePath);
+        this.sclFileTemplates.put(filePath, new SclFileTemplate(serverModel.copy(), lastModified));
+        LOGGER.info("Cached ServerModel for SCL / ICD file: {}", filePath);
+        return serverModel;
+    }
+
+    /**
+     * Returns a ServerModel for the device the {@link ClientAssociation} is
+     * connected to.
+     * <p>
+     * If fingerprint caching is enabled, the name plate of the device is read
+     * using a copy of a cached model for the same IED and server name. If the
+     * name plate matches a cached model, a copy of that model is used.
+     * Otherwise the model is retrieved from the device and cached for its name
+     * plate.
+     */
+    public ServerModel getServerModelFromDevice(final ClientAssociation clientAssociation, final IED ied,
+            final String serverName, final String deviceIdentification) throws ProtocolAdapterException {
+
+        if (!this.isServerModelCacheEnabled || !this.isServerModelFingerprintCacheEnabled || ied == null) {
+            return this.iec61850Client.readServerModelFromDevice(clientAssociation);
+        }
+
+        final String templateKey = ied.name() + ":" + serverName;
+        final Map<String, ServerModel> templatesPerFingerprint = this.retrievedTemplates
+                .computeIfAbsent(templateKey, key -> new ConcurrentHashMap<>());
+
+        if (!templatesPerFingerprint.isEmpty()) {
+            final ServerModel candidate = this.useCopy(clientAssociation,
+                    templatesPerFingerprint.values().iterator().next());
+            final String fingerprint = this.readFingerprint(clientAssociation, candidate);
+            final ServerModel template = fingerprint == null ? null : templatesPerFingerprint.get(fingerprint);
+            if (template != null) {
+                LOGGER.info("Using cached ServerModel for {} with name plate: {} for device: {}", templateKey,
+                        fingerprint, deviceIdentification);
+                return this.useCopy(clientAssociation, template);
+            }
+            LOGGER.info("No cached ServerModel for {} with name plate: {} for device: {}", templateKey, fingerprint,
+                    deviceIdentification);
+        }
+
+        final ServerModel serverModel = this.iec61850Client.readServerModelFromDevice(clientAssociation);
+        final String fingerprint = this.readFingerprint(clientAssociation, serverModel);
+        if (fingerprint != null) {
+            templatesPerFingerprint.put(fingerprint, serverModel.copy());
+            LOGGER.info("Cached ServerModel for {} with name plate: {} retrieved from device: {}", templateKey,
+                    fingerprint, deviceIdentification);
+        }
+        return serverModel;
+    }
+
+    /**
+     * Removes all cached templates, for instance after ICD files or device
+     * firmware have been replaced.
+     */
+    public void clear() {
+        LOGGER.info("Clearing {} SCL / ICD file and {} retrieved ServerModel templates", this.sclFileTemplates.size(),
+                this.retrievedTemplates.size());
+        this.sclFileTemplates.clear();
+        this.retrievedTemplates.clear();
+    }
+
+    private ServerModel useCopy(final ClientAssociation clientAssociation, final ServerModel template) {
+        final ServerModel serverModel = template.copy();
+        clientAssociation.setServerModel(serverModel);
+        return serverModel;
+    }
+
+    /**
+     * Reads the name plate of the first logical device in the given model and
+     * returns its values as fingerprint of the device model, or {@code null}
+     * if the name plate can not be read.
+     */
+    private String readFingerprint(final ClientAssociation clientAssociation, final ServerModel serverModel)
+            throws ProtocolAdapterException {
+
+        if (serverModel.getChildren() == null || serverModel.getChildren().isEmpty()) {
+            return null;
+        }
+        final ModelNode logicalDevice = serverModel.getChildren().iterator().next();
+        final ModelNode logicalNodeZero = logicalDevice.getChild(LogicalNode.LOGICAL_NODE_ZERO.getDescription());
+        if (logicalNodeZero == null) {
+            return null;
+        }
+        final FcModelNode namePlate = (FcModelNode) logicalNodeZero.getChild(DataAttribute.NAME_PLATE.getDescription(),
+                Fc.DC);
+        if (namePlate == null) {
+            return null;
+        }
+
+        try {
+            this.iec61850Client.readNodeDataValues(clientAssociation, namePlate);
+        } catch (final NodeReadException e) {
+            if (ConnectionState.BROKEN.equals(e.getConnectionState())) {
+                throw e;
+            }
+            LOGGER.warn("Unable to read name plate {}", namePlate.getReference(), e);
+            return null;
+        }
+
+        final StringBuilder sb = new StringBuilder();
+        for (final BasicDataAttribute bda : namePlate.getBasicDataAttributes()) {
+            sb.append(bda.getName()).append('=').append(bda.getValueString()).append(';');
+        }
+        return sb.toString();
+    }
+
+    private static class SclFileTemplate {
+        private final ServerModel serverModel;
+        private final long lastModified;
+
+        SclFileTemplate(final ServerModel serverModel, final long lastModified) {
+            this.serverModel = serverModel;
+            this.lastModified = lastModified;
+        }
+    }
+}
@@ -0,0 +1,422 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import org.opensmartgridplatform.adapter.protocol.iec61850.domain.valueobjects.DeviceConnectionParameters;
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.ConnectionFailureException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.exceptions.NodeException;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.Iec61850Connection;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.DeviceConnection;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting.Iec61850ClientBaseEventListener;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting.Iec61850ClientSSLDEventListener;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services.commands.Iec61850ClearReportCommand;
+
+/**
+ * Pool of associations with SSLDs.
+ * <p>
+ * Without the pool, every request for an SSLD connects to the device, sets up
+ * the ServerModel and disconnects afterwards. With the pool, an association
+ * that is released after a request is kept open, so the next request for the
+ * same device can use it without connecting again. The number of associations
+ * in use at the same time per device is limited, and associations are closed
+ * when they have been idle or open for too long, or when a request using them
+ * fails. Reporting enabled on a pooled association is cleared before it is
+ * closed.
+ */
+@Component
+public class Iec61850SsldConnectionPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Iec61850SsldConnectionPool.class);
+
+    private static final long EVICTION_INTERVAL = 10000;
+
+    private final Map<String, DevicePool> devicePools = new ConcurrentHashMap<>();
+
+    private final Map<Iec61850Connection, PooledConnection> leasedConnections = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pooledConnectionCount = new AtomicInteger();
+
+    private ScheduledExecutorService evictionExecutor;
+
+    @Autowired
+    private Iec61850DeviceConnectionService iec61850DeviceConnectionService;
+
+    @Autowired
+    private boolean isSsldConnectionPoolEnabled;
+
+    @Autowired
+    private int ssldConnectionPoolMaxSize;
+
+    @Autowired
+    private int ssldConnectionPoolMaxPerDevice;
+
+    @Autowired
+    private int ssldConnectionPoolMaxIdleTime;
+
+    @Autowired
+    private int ssldConnectionPoolMaxLifetime;
+
+    @Autowired
+    private int ssldConnectionPoolAcquireTimeout;
+
+    @PostConstruct
+    public void init() {
+        if (!this.isSsldConnectionPoolEnabled) {
+            return;
+        }
+        this.evictionExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-ssld-connection-pool-eviction");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evictionExecutor.scheduleWithFixedDelay(this::evictExpiredConnections, EVICTION_INTERVAL,
+                EVICTION_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.evictionExecutor != null) {
+            this.evictionExecutor.shutdownNow();
+        }
+        for (final DevicePool devicePool : this.devicePools.values()) {
+            this.close(devicePool.removeAllIdle());
+        }
+    }
+
+    public boolean isEnabled() {
+        return this.isSsldConnectionPoolEnabled;
+    }
+
+    /**
+     * Returns a connection with the device, reusing an idle pooled association
+     * if available. Every connection returned must be handed back using
+     * {@link #release(DeviceConnection)}.
+     *
+     * @throws ConnectionFailureException
+     *             if no connection is available for the device within the
+     *             acquire timeout, or if connecting to the device fails.
+     */
+    public DeviceConnection acquire(final DeviceConnectionParameters deviceConnectionParameters,
+            final String organisationIdentification) throws ConnectionFailureException {
+
+        final String deviceIdentification = deviceConnectionParameters.getDeviceIdentification();
+        final DevicePool devicePool = this.devicePools.computeIfAbsent(deviceIdentification,
+                key -> new DevicePool(this.ssldConnectionPoolMaxPerDevice));
+
+        try {
+            if (!devicePool.permits.tryAcquire(this.ssldConnectionPoolAcquireTimeout, TimeUnit.MILLISECONDS)) {
+                throw new ConnectionFailureException(
+                        "Timeout waiting for a pooled connection for device: " + deviceIdentification);
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConnectionFailureException(
+                    "Interrupted waiting for a pooled connection for device: " + deviceIdentification, e);
+        }
+
+        try {
+            final PooledConnection idle = this.takeIdleConnection(devicePool,
+                    deviceConnectionParameters.getIpAddress());
+            if (idle != null) {
+                LOGGER.info("Reusing pooled connection for device: {}", deviceIdentification);
+                this.leasedConnections.put(idle.connection, idle);
+                return new DeviceConnection(idle.connection, deviceIdentification, organisationIdentification,
+                        deviceConnectionParameters.getServerName());
+            }
+
+            final DeviceConnection deviceConnection = this.iec61850DeviceConnectionService
+                    .connectWithoutConnectionCaching(deviceConnectionParameters, organisationIdentification);
+            final boolean pooled = this.reservePoolCapacity();
+            if (!pooled) {
+                LOGGER.info("Connection pool is full, connection for device: {} will not be pooled",
+                        deviceIdentification);
+            }
+            this.leasedConnections.put(deviceConnection.getConnection(), new PooledConnection(
+                    deviceConnection.getConnection(), deviceIdentification, deviceConnectionParameters.getIpAddress(),
+                    pooled));
+            return deviceConnection;
+        } catch (final ConnectionFailureException | RuntimeException e) {
+            devicePool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands back a connection obtained by
+     * {@link #acquire(DeviceConnectionParameters, String)}. The association is
+     * kept open for reuse, unless it has been invalidated or has expired.
+     */
+    public void release(final DeviceConnection deviceConnection) {
+        if (deviceConnection == null) {
+            return;
+        }
+        final PooledConnection pooled = this.leasedConnections.remove(deviceConnection.getConnection());
+        if (pooled == null) {
+            // Not obtained from the pool, or released already.
+            this.iec61850DeviceConnectionService.disconnect(deviceConnection, null);
+            return;
+        }
+        final DevicePool devicePool = this.devicePools.get(pooled.deviceIdentification);
+
+        try {
+            if (!pooled.pooled) {
+                this.iec61850DeviceConnectionService.disconnect(deviceConnection, null);
+                return;
+            }
+
+            /*
+             * Event notifications are sent when the association is closed. A
+             * pooled association stays open, so send them now.
+             */
+            this.sendEventNotifications(pooled);
+
+            final long now = System.currentTimeMillis();
+            if (pooled.invalid || this.isExpired(pooled, now)) {
+                this.close(pooled);
+                return;
+            }
+            pooled.lastUsed = now;
+            devicePool.addIdle(pooled);
+        } finally {
+            devicePool.permits.release();
+        }
+    }
+
+    /**
+     * Hands back a connection on which reporting has been enabled, if it can
+     * be kept open in the pool. The report is cleared on the device before the
+     * association is closed.
+     *
+     * @return false if the connection is not kept in the pool and has not been
+     *         handed back, in which case the caller has to clear the report and
+     *         release the connection itself.
+     */
+    public boolean releaseReporting(final DeviceConnection deviceConnection) {
+        final PooledConnection pooled = this.leasedConnections.get(deviceConnection.getConnection());
+        if (pooled == null || !pooled.pooled) {
+            return false;
+        }
+        pooled.reportingConnection = deviceConnection;
+        this.release(deviceConnection);
+        return true;
+    }
+
+    /**
+     * Closes all idle associations with the device, and makes sure
+     * associations that are in use are closed when they are released. To be
+     * called when a request for the device fails, since the association may no
+     * longer be usable.
+     */
+    public void invalidate(final String deviceIdentification) {
+        if (!this.isSsldConnectionPoolEnabled) {
+            return;
+        }
+        for (final PooledConnection pooled : this.leasedConnections.values()) {
+            if (pooled.deviceIdentification.equals(deviceIdentification)) {
+                pooled.invalid = true;
+            }
+        }
+        final DevicePool devicePool = this.devicePools.get(deviceIdentification);
+        if (devicePool != null) {
+            final List<PooledConnection> idle = devicePool.removeAllIdle();
+            if (!idle.isEmpty()) {
+                LOGGER.info("Closing {} pooled connection(s) for device: {}", idle.size(), deviceIdentification);
+            }
+            this.close(idle);
+        }
+    }
+
+    private PooledConnection takeIdleConnection(final DevicePool devicePool, final String ipAddress) {
+        final long now = System.currentTimeMillis();
+        PooledConnection pooled;
+        while ((pooled = devicePool.pollIdle()) != null) {
+            if (!this.isExpired(pooled, now) && Objects.equals(pooled.ipAddress, ipAddress)
+                    && !pooled.connection.getIec61850ClientAssociation().getConnectionHealth().isClosed()) {
+                return pooled;
+            }
+            this.close(pooled);
+        }
+        return null;
+    }
+
+    /**
+     * Reserves room in the pool for a new connection. If the pool is full, the
+     * least recently used idle connection of any device is closed.
+     */
+    private boolean reservePoolCapacity() {
+        if (this.pooledConnectionCount.incrementAndGet() <= this.ssldConnectionPoolMaxSize) {
+            return true;
+        }
+        this.pooledConnectionCount.decrementAndGet();
+
+        DevicePool leastRecentlyUsedPool = null;
+        long leastRecentlyUsed = Long.MAX_VALUE;
+        for (final DevicePool devicePool : this.devicePools.values()) {
+            final long lastUsed = devicePool.oldestIdleLastUsed();
+            if (lastUsed < leastRecentlyUsed) {
+                leastRecentlyUsed = lastUsed;
+                leastRecentlyUsedPool = devicePool;
+            }
+        }
+        final PooledConnection evicted = leastRecentlyUsedPool == null ? null
+                : leastRecentlyUsedPool.removeOldestIdle();
+        if (evicted == null) {
+            return false;
+        }
+        this.close(evicted);
+        this.pooledConnectionCount.incrementAndGet();
+        return true;
+    }
+
+    private void evictExpiredConnections() {
+        try {
+            final long now = System.currentTimeMillis();
+            for (final DevicePool devicePool : this.devicePools.values()) {
+                this.close(devicePool.removeIdle(pooled -> this.isExpired(pooled, now)));
+                // Idle associations may have received reports since they were
+                // released, send the event notifications without waiting for
+                // the next request or for the association to be closed.
+                for (final PooledConnection pooled : devicePool.idleConnections()) {
+                    this.sendEventNotifications(pooled);
+                }
+            }
+        } catch (final RuntimeException e) {
+            LOGGER.error("Unexpected exception evicting pooled connections", e);
+        }
+    }
+
+    private boolean isExpired(final PooledConnection pooled, final long now) {
+        return now - pooled.lastUsed > this.ssldConnectionPoolMaxIdleTime
+                || now - pooled.created > this.ssldConnectionPoolMaxLifetime;
+    }
+
+    private void sendEventNotifications(final PooledConnection pooled) {
+        final Iec61850ClientBaseEventListener reportListener = pooled.connection.getIec61850ClientAssociation()
+                .getReportListener();
+        if (reportListener instanceof Iec61850ClientSSLDEventListener) {
+            ((Iec61850ClientSSLDEventListener) reportListener).sendEventNotifications();
+        }
+    }
+
+    private void close(final List<PooledConnection> pooledConnections) {
+        for (final PooledConnection pooled : pooledConnections) {
+            this.close(pooled);
+        }
+    }
+
+    private void close(final PooledConnection pooled) {
+        this.pooledConnectionCount.decrementAndGet();
+        LOGGER.info("Closing pooled connection for device: {}", pooled.deviceIdentification);
+        if (pooled.reportingConnection != null
+                && !pooled.connection.getIec61850ClientAssociation().getConnectionHealth().isClosed()) {
+            try {
+                new Iec61850ClearReportCommand().clearReportOnDevice(pooled.reportingConnection);
+            } catch (final NodeException | RuntimeException e) {
+                LOGGER.warn("Unable to clear report for device: {}", pooled.deviceIdentification, e);
+            }
+        }
+        try {
+            pooled.connection.getClientAssociation().disconnect();
+        } catch (final RuntimeException e) {
+            LOGGER.debug("Exception closing pooled connection for device: {}", pooled.deviceIdentification, e);
+        }
+    }
+
+    private static class DevicePool {
+        private final Semaphore permits;
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+
+        DevicePool(final int maxPerDevice) {
+            this.permits = new Semaphore(maxPerDevice, true);
+        }
+
+        synchronized PooledConnection pollIdle() {
+            return this.idle.pollFirst();
+        }
+
+        synchronized void addIdle(final PooledConnection pooled) {
+            this.idle.addFirst(pooled);
+        }
+
+        synchronized long oldestIdleLastUsed() {
+            final PooledConnection oldest = this.idle.peekLast();
+            return oldest == null ? Long.MAX_VALUE : oldest.lastUsed;
+        }
+
+        synchronized PooledConnection removeOldestIdle() {
+            return this.idle.pollLast();
+        }
+
+        synchronized List<PooledConnection> idleConnections() {
+            return new ArrayList<>(this.idle);
+        }
+
+        synchronized List<PooledConnection> removeAllIdle() {
+            final List<PooledConnection> removed = new ArrayList<>(this.idle);
+            this.idle.clear();
+            return removed;
+        }
+
+        synchronized List<PooledConnection> removeIdle(final Predicate<PooledConnection> filter) {
+            final List<PooledConnection> removed = new ArrayList<>();
+            final Iterator<PooledConnection> iterator = this.idle.iterator();
+            while (iterator.hasNext()) {
+                final PooledConnection pooled = iterator.next();
+                if (filter.test(pooled)) {
+                    iterator.remove();
+                    removed.add(pooled);
+                }
+            }
+            return removed;
+        }
+    }
+
+    private static class PooledConnection {
+        private final Iec61850Connection connection;
+        private final String deviceIdentification;
+        private final String ipAddress;
+        private final boolean pooled;
+        private final long created;
+        private volatile long lastUsed;
+        private volatile boolean invalid;
+        private volatile DeviceConnection reportingConnection;
+
+        PooledConnection(final Iec61850Connection connection, final String deviceIdentification,
+                final String ipAddress, final boolean pooled) {
+            this.connection = connection;
+            this.deviceIdentification = deviceIdentification;
+            this.ipAddress = ipAddress;
+            this.pooled = pooled;
+            this.created = System.currentTimeMillis();
+            this.lastUsed = this.created;
+        }
+    }
+}
@@ -9,9 +9,13 @@ package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.ser
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.jms.JMSException;
 
 import org.slf4j.Logger;
@@ -83,6 +87,9 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
     @Autowired
     private Iec61850DeviceConnectionService iec61850DeviceConnectionService;
 
+    @Autowired
+    private Iec61850SsldConnectionPool iec61850SsldConnectionPool;
+
     @Autowired
     private SsldDataService ssldDataService;
 
@@ -99,6 +106,28 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
     @Autowired
     private int disconnectDelay;
 
+    @Autowired
+    private int disconnectThreads;
+
+    private ScheduledExecutorService disconnectExecutor;
+
+    @PostConstruct
+    public void init() {
+        // Several threads, so a device that does not respond does not hold up
+        // disconnecting from other devices.
+        final AtomicInteger threadNumber = new AtomicInteger();
+        this.disconnectExecutor = Executors.newScheduledThreadPool(this.disconnectThreads, runnable -> {
+            final Thread thread = new Thread(runnable, "iec61850-ssld-disconnect-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.disconnectExecutor.shutdownNow();
+    }
+
     @Override
     public void getStatus(final DeviceRequest deviceRequest, final DeviceResponseHandler deviceResponseHandler)
             throws JMSException {
@@ -119,10 +148,10 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
             this.enableReporting(deviceConnection, deviceRequest);
         } catch (final ConnectionFailureException se) {
             this.handleConnectionFailureException(deviceRequest, deviceResponseHandler, se);
-            this.iec61850DeviceConnectionService.disconnect(devCon, deviceRequest);
+            this.disconnectFromDevice(devCon, deviceRequest);
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
-            this.iec61850DeviceConnectionService.disconnect(devCon, deviceRequest);
+            this.disconnectFromDevice(devCon, deviceRequest);
         }
     }
 
@@ -151,7 +180,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -193,10 +222,10 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
             this.enableReporting(deviceConnection, deviceRequest);
         } catch (final ConnectionFailureException se) {
             this.handleConnectionFailureException(deviceRequest, deviceResponseHandler, se);
-            this.iec61850DeviceConnectionService.disconnect(devCon, deviceRequest);
+            this.disconnectFromDevice(devCon, deviceRequest);
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
-            this.iec61850DeviceConnectionService.disconnect(devCon, deviceRequest);
+            this.disconnectFromDevice(devCon, deviceRequest);
         }
     }
 
@@ -277,7 +306,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -302,7 +331,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -320,7 +349,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -383,7 +412,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
                     "Selftest failure - " + e.getMessage());
             this.handleException(deviceRequest, deviceResponseHandler, te);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     private void selfTestSleep() throws TechnicalException {
@@ -419,7 +448,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -441,7 +470,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -460,10 +489,10 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
             this.enableReporting(deviceConnection, deviceRequest);
         } catch (final ConnectionFailureException se) {
             this.handleConnectionFailureException(deviceRequest, deviceResponseHandler, se);
-            this.iec61850DeviceConnectionService.disconnect(devCon, deviceRequest);
+            this.disconnectFromDevice(devCon, deviceRequest);
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
-            this.iec61850DeviceConnectionService.disconnect(devCon, deviceRequest);
+            this.disconnectFromDevice(devCon, deviceRequest);
         }
     }
 
@@ -484,7 +513,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -503,7 +532,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     @Override
@@ -526,7 +555,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         } catch (final Exception e) {
             this.handleException(deviceRequest, deviceResponseHandler, e);
         }
-        this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        this.disconnectFromDevice(deviceConnection, deviceRequest);
     }
 
     // ======================================
@@ -540,10 +569,22 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
                 .ied(IED.FLEX_OVL).serverName(IED.FLEX_OVL.getDescription())
                 .logicalDevice(LogicalDevice.LIGHTING.getDescription()).build();
 
+        if (this.iec61850SsldConnectionPool.isEnabled()) {
+            return this.iec61850SsldConnectionPool.acquire(deviceConnectionParameters,
+                    deviceRequest.getOrganisationIdentification());
+        }
         return this.iec61850DeviceConnectionService.connectWithoutConnectionCaching(deviceConnectionParameters,
                 deviceRequest.getOrganisationIdentification());
     }
 
+    private void disconnectFromDevice(final DeviceConnection deviceConnection, final DeviceRequest deviceRequest) {
+        if (this.iec61850SsldConnectionPool.isEnabled()) {
+            this.iec61850SsldConnectionPool.release(deviceConnection);
+        } else {
+            this.iec61850DeviceConnectionService.disconnect(deviceConnection, deviceRequest);
+        }
+    }
+
     // ========================
     // PRIVATE HELPER METHODS =
     // ========================
@@ -570,6 +611,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
             final DeviceResponseHandler deviceResponseHandler,
             final ConnectionFailureException connectionFailureException) throws JMSException {
         LOGGER.error("Could not connect to device", connectionFailureException);
+        this.iec61850SsldConnectionPool.invalidate(deviceRequest.getDeviceIdentification());
         final EmptyDeviceResponse deviceResponse = this.createDefaultResponse(deviceRequest,
                 DeviceMessageStatus.FAILURE);
         deviceResponseHandler.handleConnectionFailure(connectionFailureException, deviceResponse);
@@ -580,6 +622,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
             final ProtocolAdapterException protocolAdapterException) {
         LOGGER.error("Could not complete the request: " + deviceRequest.getMessageType() + " for device: "
                 + deviceRequest.getDeviceIdentification(), protocolAdapterException);
+        this.iec61850SsldConnectionPool.invalidate(deviceRequest.getDeviceIdentification());
         final EmptyDeviceResponse deviceResponse = this.createDefaultResponse(deviceRequest,
                 DeviceMessageStatus.FAILURE);
         deviceResponseHandler.handleException(protocolAdapterException, deviceResponse);
@@ -588,6 +631,7 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
     private void handleException(final DeviceRequest deviceRequest, final DeviceResponseHandler deviceResponseHandler,
             final Exception exception) {
         LOGGER.error("Unexpected exception", exception);
+        this.iec61850SsldConnectionPool.invalidate(deviceRequest.getDeviceIdentification());
         final EmptyDeviceResponse deviceResponse = this.createDefaultResponse(deviceRequest,
                 DeviceMessageStatus.FAILURE);
         deviceResponseHandler.handleException(exception, deviceResponse);
@@ -622,18 +666,21 @@ public class Iec61850SsldDeviceService implements SsldDeviceService {
         // Enabling device reporting.
         new Iec61850EnableReportingCommand().enableReportingOnDeviceWithoutUsingSequenceNumber(this.iec61850Client,
                 deviceConnection);
+        if (this.iec61850SsldConnectionPool.isEnabled()
+                && this.iec61850SsldConnectionPool.releaseReporting(deviceConnection)) {
+            // The pool keeps the association open, so the device is able to
+            // send reports. The pool clears the report and closes the
+            // association once it has been idle for too long.
+            return;
+        }
         // Don't disconnect now! The device should be able to send reports.
-        new Timer().schedule(new TimerTask() {
-            @Override
-            public void run() {
-                try {
-                    new Iec61850ClearReportCommand().clearReportOnDevice(deviceConnection);
-                } catch (final ProtocolAdapterException e) {
-                    LOGGER.error("Unable to clear report for device: " + deviceRequest.getDeviceIdentification(), e);
-                }
-                Iec61850SsldDeviceService.this.iec61850DeviceConnectionService.disconnect(deviceConnection,
-                        deviceRequest);
+        this.disconnectExecutor.schedule(() -> {
+            try {
+                new Iec61850ClearReportCommand().clearReportOnDevice(deviceConnection);
+            } catch (final ProtocolAdapterException e) {
+                LOGGER.error("Unable to clear report for device: " + deviceRequest.getDeviceIdentification(), e);
             }
-        }, this.disconnectDelay);
+            this.disconnectFromDevice(deviceConnection, deviceRequest);
+        }, this.disconnectDelay, TimeUnit.MILLISECONDS);
     }
 }
@@ -128,18 +128,18 @@ public class Iec61850PowerUsageHistoryCommand {
             LOGGER.info("device: {}, itv{}.itv: {}", deviceConnection.getDeviceIdentification(), bufferIndex + 1,
                     itvNode);
 
-            deviceMessageLog.addVariable(LogicalNode.STREET_LIGHT_CONFIGURATION,
-                    DataAttribute.SWITCH_ON_INTERVAL_BUFFER, Fc.ST,
-                    SubDataAttribute.INTERVAL.getDescription().concat(Integer.toString(bufferIndex + 1)),
-                    SubDataAttribute.INTERVAL, itvNode.toString());
-
             final DateTime date = new DateTime(indexedItvNode.getDate(SubDataAttribute.DAY));
             LOGGER.info("device: {}, itv{}.day: {}", deviceConnection.getDeviceIdentification(), bufferIndex + 1, date);
 
-            deviceMessageLog.addVariable(LogicalNode.STREET_LIGHT_CONFIGURATION,
-                    DataAttribute.SWITCH_ON_INTERVAL_BUFFER, Fc.ST,
-                    SubDataAttribute.INTERVAL.getDescription().concat(Integer.toString(bufferIndex + 1)),
-                    SubDataAttribute.DAY, date.toString("yyyy-MM-dd"));
+            if (deviceMessageLog.isEnabled()) {
+                final String intervalName = SubDataAttribute.INTERVAL.getDescription() + (bufferIndex + 1);
+                deviceMessageLog.addVariable(LogicalNode.STREET_LIGHT_CONFIGURATION,
+                        DataAttribute.SWITCH_ON_INTERVAL_BUFFER, Fc.ST, intervalName, SubDataAttribute.INTERVAL,
+                        itvNode);
+                deviceMessageLog.addVariable(LogicalNode.STREET_LIGHT_CONFIGURATION,
+                        DataAttribute.SWITCH_ON_INTERVAL_BUFFER, Fc.ST, intervalName, SubDataAttribute.DAY,
+                        date.toString("yyyy-MM-dd"));
+            }
 
             final int totalMinutesOnForDate = itvNode;
             final boolean includeEntryInResponse = this.timePeriodContainsDateTime(timePeriod, date,
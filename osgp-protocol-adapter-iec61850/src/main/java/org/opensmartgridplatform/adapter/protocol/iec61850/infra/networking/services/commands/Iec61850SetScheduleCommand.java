@@ -33,6 +33,7 @@ import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.help
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalDevice;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.LogicalNode;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.NodeContainer;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.NodeWriteBatch;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.helper.SubDataAttribute;
 import org.opensmartgridplatform.adapter.protocol.iec61850.services.DeviceMessageLoggingService;
 import org.opensmartgridplatform.core.db.api.iec61850.application.services.SsldDataService;
@@ -107,12 +108,17 @@ public class Iec61850SetScheduleCommand {
 
                         // Write the schedule entries of the switch schedule to
                         // the logical node of the schedule for the current
-                        // relay.
-                        for (int i = 0; i < numberOfScheduleEntries; i++) {
-
-                            LOGGER.info("Write {} schedule entry {} for relay {}", tariffOrLight, i + 1, relayIndex);
-                            this.writeScheduleEntryForRelay(deviceMessageLog, scheduleEntries, logicalNode, schedule,
-                                    i);
+                        // relay. The changed attributes of a schedule entry
+                        // are written to the device in a single request.
+                        try (final NodeWriteBatch writeBatch = deviceConnection.startWriteBatch()) {
+                            for (int i = 0; i < numberOfScheduleEntries; i++) {
+
+                                LOGGER.info("Write {} schedule entry {} for relay {}", tariffOrLight, i + 1,
+                                        relayIndex);
+                                this.writeScheduleEntryForRelay(deviceMessageLog, scheduleEntries, logicalNode,
+                                        schedule, i);
+                            }
+                            writeBatch.commit();
                         }
                     }
                     DeviceMessageLoggingService.logMessage(deviceMessageLog, deviceConnection.getDeviceIdentification(),
@@ -141,7 +147,7 @@ public class Iec61850SetScheduleCommand {
                         scheduleNode.writeInteger(SubDataAttribute.SCHEDULE_DAY, scheduleEntry.getDay());
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
-                                SubDataAttribute.SCHEDULE_DAY, Integer.toString(scheduleEntry.getDay()));
+                                SubDataAttribute.SCHEDULE_DAY, scheduleEntry.getDay());
                     }
 
                     /*
@@ -171,7 +177,7 @@ public class Iec61850SetScheduleCommand {
                         scheduleNode.writeInteger(SubDataAttribute.SCHEDULE_TIME_ON, timeOnValue);
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
-                                SubDataAttribute.SCHEDULE_TIME_ON, Integer.toString(timeOnValue));
+                                SubDataAttribute.SCHEDULE_TIME_ON, timeOnValue);
                     }
 
                     final Byte timeOnActionTime = scheduleNode.getByte(SubDataAttribute.SCHEDULE_TIME_ON_TYPE)
@@ -180,7 +186,7 @@ public class Iec61850SetScheduleCommand {
                         scheduleNode.writeByte(SubDataAttribute.SCHEDULE_TIME_ON_TYPE, timeOnTypeValue);
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
-                                SubDataAttribute.SCHEDULE_TIME_ON_TYPE, Byte.toString(timeOnTypeValue));
+                                SubDataAttribute.SCHEDULE_TIME_ON_TYPE, timeOnTypeValue);
                     }
 
                     final Integer timeOff = scheduleNode.getInteger(SubDataAttribute.SCHEDULE_TIME_OFF).getValue();
@@ -188,7 +194,7 @@ public class Iec61850SetScheduleCommand {
                         scheduleNode.writeInteger(SubDataAttribute.SCHEDULE_TIME_OFF, timeOffValue);
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
-                                SubDataAttribute.SCHEDULE_TIME_OFF, Integer.toString(timeOffValue));
+                                SubDataAttribute.SCHEDULE_TIME_OFF, timeOffValue);
                     }
 
                     final Byte timeOffActionTime = scheduleNode.getByte(SubDataAttribute.SCHEDULE_TIME_OFF_TYPE)
@@ -197,7 +203,7 @@ public class Iec61850SetScheduleCommand {
                         scheduleNode.writeByte(SubDataAttribute.SCHEDULE_TIME_OFF_TYPE, timeOffTypeValue);
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
-                                SubDataAttribute.SCHEDULE_TIME_OFF_TYPE, Byte.toString(timeOffTypeValue));
+                                SubDataAttribute.SCHEDULE_TIME_OFF_TYPE, timeOffTypeValue);
                     }
 
                     final Integer minimumTimeOn = scheduleNode.getUnsignedShort(SubDataAttribute.MINIMUM_TIME_ON)
@@ -207,7 +213,7 @@ public class Iec61850SetScheduleCommand {
                         scheduleNode.writeUnsignedShort(SubDataAttribute.MINIMUM_TIME_ON, newMinimumTimeOn);
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
-                                SubDataAttribute.MINIMUM_TIME_ON, Integer.toString(newMinimumTimeOn));
+                                SubDataAttribute.MINIMUM_TIME_ON, newMinimumTimeOn);
                     }
 
                     final Integer triggerMinutesBefore = scheduleNode
@@ -218,7 +224,7 @@ public class Iec61850SetScheduleCommand {
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
                                 SubDataAttribute.SCHEDULE_TRIGGER_MINUTES_BEFORE,
-                                Integer.toString(scheduleEntry.getTriggerWindowMinutesBefore()));
+                                scheduleEntry.getTriggerWindowMinutesBefore());
                     }
 
                     final Integer triggerMinutesAfter = scheduleNode
@@ -229,7 +235,7 @@ public class Iec61850SetScheduleCommand {
 
                         deviceMessageLog.addVariable(logicalNode, DataAttribute.SCHEDULE, Fc.CF, scheduleEntryName,
                                 SubDataAttribute.SCHEDULE_TRIGGER_MINUTES_AFTER,
-                                Integer.toString(scheduleEntry.getTriggerWindowMinutesAfter()));
+                                scheduleEntry.getTriggerWindowMinutesAfter());
                     }
                 }
             };
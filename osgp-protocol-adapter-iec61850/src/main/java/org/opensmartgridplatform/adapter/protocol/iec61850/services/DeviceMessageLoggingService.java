@@ -15,23 +15,31 @@ import org.springframework.stereotype.Service;
 import org.opensmartgridplatform.adapter.protocol.iec61850.device.DeviceRequest;
 import org.opensmartgridplatform.adapter.protocol.iec61850.domain.valueobjects.DeviceMessageLog;
 import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.Iec61850LogItemRequestMessage;
-import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.Iec61850LogItemRequestMessageSender;
+import org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.Iec61850LogItemRequestMessageQueue;
 
 @Service
 public class DeviceMessageLoggingService {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DeviceMessageLoggingService.class);
 
-    private static Iec61850LogItemRequestMessageSender iec61850LogItemRequestMessageSender;
+    private static Iec61850LogItemRequestMessageQueue iec61850LogItemRequestMessageQueue;
+
+    private static boolean isDeviceMessageLoggingEnabled = true;
 
     @Autowired
-    public DeviceMessageLoggingService(final Iec61850LogItemRequestMessageSender iec61850LogItemRequestMessageSender) {
-        DeviceMessageLoggingService.iec61850LogItemRequestMessageSender = iec61850LogItemRequestMessageSender;
+    public DeviceMessageLoggingService(final Iec61850LogItemRequestMessageQueue iec61850LogItemRequestMessageQueue,
+            final boolean isDeviceMessageLoggingEnabled) {
+        DeviceMessageLoggingService.iec61850LogItemRequestMessageQueue = iec61850LogItemRequestMessageQueue;
+        DeviceMessageLoggingService.isDeviceMessageLoggingEnabled = isDeviceMessageLoggingEnabled;
     }
 
     public static void logMessage(final DeviceRequest deviceRequest, final boolean incoming, final boolean valid,
             final String message, final int size) {
 
+        if (!isDeviceMessageLoggingEnabled) {
+            return;
+        }
+
         final String deviceIdentification = deviceRequest.getDeviceIdentification();
         final String organisationIdentification = deviceRequest.getOrganisationIdentification();
         final String command = deviceRequest.getClass().getSimpleName();
@@ -39,17 +47,21 @@ public class DeviceMessageLoggingService {
         final Iec61850LogItemRequestMessage iec61850LogItemRequestMessage = new Iec61850LogItemRequestMessage(
                 deviceIdentification, organisationIdentification, incoming, valid, command + " - " + message, size);
 
-        LOGGER.info("Sending iec61850LogItemRequestMessage for device: {}", deviceIdentification);
-        iec61850LogItemRequestMessageSender.send(iec61850LogItemRequestMessage);
+        LOGGER.info("Queueing iec61850LogItemRequestMessage for device: {}", deviceIdentification);
+        iec61850LogItemRequestMessageQueue.send(iec61850LogItemRequestMessage);
     }
 
     public static void logMessage(final DeviceMessageLog deviceMessageLog, final String deviceIdentification,
             final String organisationIdentification, final boolean incoming) {
 
+        if (!deviceMessageLog.isEnabled()) {
+            return;
+        }
+
         final Iec61850LogItemRequestMessage iec61850LogItemRequestMessage = new Iec61850LogItemRequestMessage(
                 deviceIdentification, organisationIdentification, incoming, true, deviceMessageLog.getMessage(), 0);
 
-        LOGGER.info("Sending iec61850LogItemRequestMessage for device: {}", deviceIdentification);
-        iec61850LogItemRequestMessageSender.send(iec61850LogItemRequestMessage);
+        LOGGER.info("Queueing iec61850LogItemRequestMessage for device: {}", deviceIdentification);
+        iec61850LogItemRequestMessageQueue.send(iec61850LogItemRequestMessage);
     }
 }
@@ -0,0 +1,290 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+import javax.jms.JMSException;
+import javax.jms.ObjectMessage;
+
+import org.apache.activemq.command.ActiveMQObjectMessage;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.util.concurrent.ListenableFuture;
+
+import org.opensmartgridplatform.shared.infra.jms.Constants;
+import org.opensmartgridplatform.shared.infra.jms.DeviceMessageMetadata;
+import org.opensmartgridplatform.shared.infra.jms.MessageProcessor;
+import org.opensmartgridplatform.shared.infra.jms.ProtocolResponseMessage;
+import org.opensmartgridplatform.shared.infra.jms.ResponseMessageResultType;
+
+public class DeviceRequestDispatcherTest {
+
+    private static final String DEVICE_IDENTIFICATION = "SSLD-001";
+    private static final String COALESCED_MESSAGE_TYPE = "GET_STATUS";
+    private static final String OTHER_MESSAGE_TYPE = "SET_LIGHT";
+    private static final long TIMEOUT = 5000;
+
+    private final RecordingResponseMessageSender responseMessageSender = new RecordingResponseMessageSender();
+    private final List<String> processed = new ArrayList<>();
+
+    private DeviceRequestDispatcher dispatcher;
+    private ExecutorService listenerThreads;
+
+    @Before
+    public void setUp() {
+        this.dispatcher = new DeviceRequestDispatcher(this.responseMessageSender, 1, 2, true, COALESCED_MESSAGE_TYPE);
+        this.listenerThreads = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        this.listenerThreads.shutdownNow();
+    }
+
+    @Test
+    public void processesRequestsForDeviceOneAtATime() throws Exception {
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maxRunning = new AtomicInteger();
+        final MessageProcessor processor = message -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            sleep(20);
+            running.decrementAndGet();
+        };
+
+        final List<Future<?>> requests = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            requests.add(this.dispatch(createMessage(OTHER_MESSAGE_TYPE, "request-" + i, 0), processor));
+        }
+        awaitAll(requests);
+
+        assertEquals(1, maxRunning.get());
+        assertEquals(0, this.dispatcher.getRequestCount(DEVICE_IDENTIFICATION));
+    }
+
+    @Test
+    public void answersIdenticalRequestWithItsOwnCorrelationUid() throws Exception {
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final Future<?> blocker = this.dispatch(createMessage(OTHER_MESSAGE_TYPE, "blocker", 0),
+                this.blockingProcessor(blocking));
+        this.awaitProcessed(1);
+
+        final MessageProcessor processor = this.respondingProcessor(ResponseMessageResultType.OK);
+        final Future<?> leader = this.dispatch(createMessage(COALESCED_MESSAGE_TYPE, "leader", 0), processor);
+        await(() -> this.dispatcher.getWaitingCoalescedRequestCount(DEVICE_IDENTIFICATION), 1);
+        final Future<?> follower = this.dispatch(createMessage(COALESCED_MESSAGE_TYPE, "follower", 3), processor);
+        await(() -> this.dispatcher.getWaitingCoalescedRequestCount(DEVICE_IDENTIFICATION), 2);
+        blocking.countDown();
+        awaitAll(Arrays.asList(blocker, leader, follower));
+
+        assertEquals(Arrays.asList("blocker", "leader"), this.getProcessed());
+        final ProtocolResponseMessage followerResponse = this.responseMessageSender.getResponse("follower");
+        assertEquals(ResponseMessageResultType.OK, followerResponse.getResult());
+        assertEquals(DEVICE_IDENTIFICATION, followerResponse.getDeviceIdentification());
+        assertEquals(3, followerResponse.getRetryCount());
+        assertEquals(0, this.responseMessageSender.getResponse("leader").getRetryCount());
+        assertEquals(0, this.dispatcher.getRequestCount(DEVICE_IDENTIFICATION));
+    }
+
+    @Test
+    public void processesIdenticalRequestItselfIfResponseIsNotOk() throws Exception {
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final Future<?> blocker = this.dispatch(createMessage(OTHER_MESSAGE_TYPE, "blocker", 0),
+                this.blockingProcessor(blocking));
+        this.awaitProcessed(1);
+
+        final Future<?> leader = this.dispatch(createMessage(COALESCED_MESSAGE_TYPE, "leader", 0),
+                this.respondingProcessor(ResponseMessageResultType.NOT_OK));
+        await(() -> this.dispatcher.getWaitingCoalescedRequestCount(DEVICE_IDENTIFICATION), 1);
+        final Future<?> follower = this.dispatch(createMessage(COALESCED_MESSAGE_TYPE, "follower", 0),
+                this.respondingProcessor(ResponseMessageResultType.OK));
+        await(() -> this.dispatcher.getWaitingCoalescedRequestCount(DEVICE_IDENTIFICATION), 2);
+        blocking.countDown();
+        awaitAll(Arrays.asList(blocker, leader, follower));
+
+        assertEquals(Arrays.asList("blocker", "leader", "follower"), this.getProcessed());
+        assertEquals(ResponseMessageResultType.NOT_OK, this.responseMessageSender.getResponse("leader").getResult());
+        assertEquals(ResponseMessageResultType.OK, this.responseMessageSender.getResponse("follower").getResult());
+        assertEquals(0, this.dispatcher.getRequestCount(DEVICE_IDENTIFICATION));
+    }
+
+    @Test
+    public void processesIdenticalRequestItselfIfProcessingThrows() throws Exception {
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final Future<?> blocker = this.dispatch(createMessage(OTHER_MESSAGE_TYPE, "blocker", 0),
+                this.blockingProcessor(blocking));
+        this.awaitProcessed(1);
+
+        final Future<?> leader = this.dispatch(createMessage(COALESCED_MESSAGE_TYPE, "leader", 0), message -> {
+            this.record(message);
+            throw new JMSException("Connection failure, redeliver");
+        });
+        await(() -> this.dispatcher.getWaitingCoalescedRequestCount(DEVICE_IDENTIFICATION), 1);
+        final Future<?> follower = this.dispatch(createMessage(COALESCED_MESSAGE_TYPE, "follower", 0),
+                this.respondingProcessor(ResponseMessageResultType.OK));
+        await(() -> this.dispatcher.getWaitingCoalescedRequestCount(DEVICE_IDENTIFICATION), 2);
+        blocking.countDown();
+
+        try {
+            leader.get(TIMEOUT, TimeUnit.MILLISECONDS);
+            fail("Expected the exception processing the request");
+        } catch (final ExecutionException e) {
+            assertTrue(e.getCause() instanceof JMSException);
+        }
+        awaitAll(Arrays.asList(blocker, follower));
+
+        assertEquals(Arrays.asList("blocker", "leader", "follower"), this.getProcessed());
+        assertEquals(ResponseMessageResultType.OK, this.responseMessageSender.getResponse("follower").getResult());
+        assertEquals(0, this.dispatcher.getRequestCount(DEVICE_IDENTIFICATION));
+    }
+
+    @Test
+    public void failsRequestsBeyondMaxWaiting() throws Exception {
+        final CountDownLatch blocking = new CountDownLatch(1);
+        final MessageProcessor processor = this.blockingProcessor(blocking);
+        final Future<?> blocker = this.dispatch(createMessage(OTHER_MESSAGE_TYPE, "blocker", 0), processor);
+        this.awaitProcessed(1);
+        final Future<?> first = this.dispatch(createMessage(OTHER_MESSAGE_TYPE, "waiting-1", 0), processor);
+        final Future<?> second = this.dispatch(createMessage(OTHER_MESSAGE_TYPE, "waiting-2", 0), processor);
+        await(() -> this.dispatcher.getRequestCount(DEVICE_IDENTIFICATION), 3);
+
+        try {
+            this.dispatcher.dispatch(createMessage(OTHER_MESSAGE_TYPE, "rejected", 0), processor);
+            fail("Expected the request to be redelivered");
+        } catch (final JMSException e) {
+            assertEquals(3, this.dispatcher.getRequestCount(DEVICE_IDENTIFICATION));
+        }
+        blocking.countDown();
+        awaitAll(Arrays.asList(blocker, first, second));
+
+        assertEquals(3, this.getProcessed().size());
+        assertEquals(0, this.dispatcher.getRequestCount(DEVICE_IDENTIFICATION));
+    }
+
+    private Future<?> dispatch(final ObjectMessage message, final MessageProcessor processor) {
+        return this.listenerThreads.submit(() -> {
+            this.dispatcher.dispatch(message, processor);
+            return null;
+        });
+    }
+
+    private MessageProcessor blockingProcessor(final CountDownLatch blocking) {
+        return message -> {
+            this.record(message);
+            try {
+                blocking.await(TIMEOUT, TimeUnit.MILLISECONDS);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+
+    private MessageProcessor respondingProcessor(final ResponseMessageResultType result) {
+        return message -> {
+            this.record(message);
+            this.responseMessageSender.send(new ProtocolResponseMessage.Builder()
+                    .deviceMessageMetadata(new DeviceMessageMetadata(message)).domain("PUBLIC_LIGHTING")
+                    .domainVersion("1.0").result(result).dataObject("status").build());
+        };
+    }
+
+    private void record(final ObjectMessage message) throws JMSException {
+        synchronized (this.processed) {
+            this.processed.add(message.getJMSCorrelationID());
+        }
+    }
+
+    private List<String> getProcessed() {
+        synchronized (this.processed) {
+            return new ArrayList<>(this.processed);
+        }
+    }
+
+    private void awaitProcessed(final int count) throws InterruptedException {
+        await(() -> this.getProcessed().size(), count);
+    }
+
+    private static void await(final IntSupplier actual, final int expected) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TIMEOUT;
+        while (actual.getAsInt() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, actual.getAsInt());
+    }
+
+    private static void awaitAll(final List<Future<?>> futures) throws Exception {
+        for (final Future<?> future : futures) {
+            future.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ObjectMessage createMessage(final String messageType, final String correlationUid,
+            final int retryCount) throws JMSException {
+        final ActiveMQObjectMessage message = new ActiveMQObjectMessage();
+        message.setJMSType(messageType);
+        message.setJMSCorrelationID(correlationUid);
+        message.setStringProperty(Constants.ORGANISATION_IDENTIFICATION, "test-org");
+        message.setStringProperty(Constants.DEVICE_IDENTIFICATION, DEVICE_IDENTIFICATION);
+        message.setStringProperty(Constants.DOMAIN, "PUBLIC_LIGHTING");
+        message.setStringProperty(Constants.DOMAIN_VERSION, "1.0");
+        message.setBooleanProperty(Constants.IS_SCHEDULED, false);
+        message.setIntProperty(Constants.RETRY_COUNT, retryCount);
+        message.setObject(DEVICE_IDENTIFICATION);
+        return message;
+    }
+
+    /**
+     * Records the response messages instead of sending them to the broker.
+     */
+    private static class RecordingResponseMessageSender extends DeviceResponseMessageSender {
+
+        private final List<ProtocolResponseMessage> sent = new ArrayList<>();
+
+        @Override
+        protected ListenableFuture<Void> sendMessage(final ProtocolResponseMessage responseMessage) {
+            synchronized (this.sent) {
+                this.sent.add(responseMessage);
+            }
+            return sent();
+        }
+
+        ProtocolResponseMessage getResponse(final String correlationUid) {
+            synchronized (this.sent) {
+                for (final ProtocolResponseMessage responseMessage : this.sent) {
+                    if (correlationUid.equals(responseMessage.getCorrelationUid())) {
+                        return responseMessage;
+                    }
+                }
+            }
+            throw new AssertionError("No response sent for request " + correlationUid);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.ActiveMQConnectionFactory;
+import org.apache.activemq.broker.BrokerService;
+import org.apache.activemq.command.ActiveMQQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.MessageCreator;
+import org.springframework.util.concurrent.ListenableFuture;
+
+/**
+ * Sends messages to an embedded broker with and without the producer pool,
+ * logging the throughput of both.
+ */
+public class JmsProducerPoolTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JmsProducerPoolTest.class);
+
+    private static final String BROKER_NAME = "producer-pool-test";
+    private static final int NUMBER_OF_MESSAGES = 2000;
+    private static final MessageCreator MESSAGE_CREATOR = session -> session.createTextMessage("log item");
+
+    private BrokerService broker;
+    private JmsTemplate jmsTemplate;
+
+    @Before
+    public void startBroker() throws Exception {
+        this.broker = new BrokerService();
+        this.broker.setBrokerName(BROKER_NAME);
+        this.broker.setPersistent(false);
+        this.broker.setUseJmx(false);
+        this.broker.start();
+
+        this.jmsTemplate = new JmsTemplate(new ActiveMQConnectionFactory("vm://" + BROKER_NAME + "?create=false"));
+        this.jmsTemplate.setDefaultDestinationName(BROKER_NAME);
+    }
+
+    @After
+    public void stopBroker() throws Exception {
+        this.broker.stop();
+        this.broker.waitUntilStopped();
+    }
+
+    @Test
+    public void sendsAllMessagesWithAndWithoutPool() throws Exception {
+        final JmsProducerPool templatePool = new JmsProducerPool("template", this.jmsTemplate, 0, 0);
+        final long templateNanos = this.sendMessages(templatePool);
+        templatePool.close();
+
+        final JmsProducerPool producerPool = new JmsProducerPool("pooled", this.jmsTemplate, 2, 0);
+        final long pooledNanos = this.sendMessages(producerPool);
+        assertEquals(1, producerPool.getOpenProducers());
+        producerPool.close();
+
+        LOGGER.info("Sent {} messages: {} messages/s using the JmsTemplate, {} messages/s using the producer pool",
+                NUMBER_OF_MESSAGES, throughput(templateNanos), throughput(pooledNanos));
+
+        assertEquals(2 * NUMBER_OF_MESSAGES, this.getEnqueuedMessages());
+        assertEquals(NUMBER_OF_MESSAGES, templatePool.getSent());
+        assertEquals(NUMBER_OF_MESSAGES, producerPool.getSent());
+        assertEquals(0, producerPool.getFailed());
+    }
+
+    @Test
+    public void sendsAsynchronously() throws Exception {
+        final JmsProducerPool producerPool = new JmsProducerPool("async", this.jmsTemplate, 1, 0);
+
+        ListenableFuture<Void> last = null;
+        for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            last = producerPool.sendAsync(MESSAGE_CREATOR);
+        }
+        last.get(10, TimeUnit.SECONDS);
+        producerPool.close();
+
+        assertEquals(NUMBER_OF_MESSAGES, this.getEnqueuedMessages());
+        assertEquals(NUMBER_OF_MESSAGES, producerPool.getSent());
+    }
+
+    private long sendMessages(final JmsProducerPool producerPool) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+            producerPool.send(MESSAGE_CREATOR);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private long getEnqueuedMessages() throws Exception {
+        return this.broker.getDestination(new ActiveMQQueue(BROKER_NAME)).getDestinationStatistics().getEnqueues()
+                .getCount();
+    }
+
+    private static long throughput(final long nanos) {
+        return NUMBER_OF_MESSAGES * TimeUnit.SECONDS.toNanos(1) / Math.max(nanos, 1);
+    }
+}
@@ -0,0 +1,160 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.messaging.codec;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.jms.BytesMessage;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageFormatException;
+import javax.jms.ObjectMessage;
+import javax.jms.Session;
+
+import org.apache.activemq.command.ActiveMQBytesMessage;
+import org.apache.activemq.command.ActiveMQObjectMessage;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.opensmartgridplatform.dto.valueobjects.DeviceFunctionDto;
+import org.opensmartgridplatform.dto.valueobjects.microgrids.GetDataResponseDto;
+import org.opensmartgridplatform.dto.valueobjects.microgrids.GetDataSystemIdentifierDto;
+import org.opensmartgridplatform.dto.valueobjects.microgrids.MeasurementDto;
+import org.opensmartgridplatform.shared.infra.jms.DeviceMessageMetadata;
+import org.opensmartgridplatform.shared.infra.jms.ProtocolResponseMessage;
+import org.opensmartgridplatform.shared.infra.jms.ResponseMessageResultType;
+
+public class MessageCodecTest {
+
+    private static final String DEVICE_IDENTIFICATION = "RTU-001";
+
+    private Session session;
+
+    /**
+     * Creates a session that only creates the messages used by the codecs.
+     */
+    @Before
+    public void setUp() {
+        this.session = (Session) Proxy.newProxyInstance(Session.class.getClassLoader(),
+                new Class<?>[] { Session.class }, (proxy, method, args) -> {
+                    if ("createBytesMessage".equals(method.getName())) {
+                        return new ActiveMQBytesMessage();
+                    }
+                    if ("createObjectMessage".equals(method.getName()) && args != null && args.length == 1) {
+                        final ActiveMQObjectMessage objectMessage = new ActiveMQObjectMessage();
+                        objectMessage.setObject((Serializable) args[0]);
+                        return objectMessage;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    @Test
+    public void objectCodecRoundTrip() throws Exception {
+        final ProtocolResponseMessage responseMessage = createResponseMessage(10);
+        final MessageCodec codec = MessageCodec.forName("object");
+
+        final Message message = codec.encode(this.session, responseMessage);
+
+        assertTrue(message instanceof ObjectMessage);
+        assertEquals(ObjectMessageCodec.NAME, message.getStringProperty(MessageCodec.CODEC_PROPERTY));
+        assertSameContent(responseMessage, codec.decode(message));
+    }
+
+    @Test
+    public void compressedCodecRoundTrip() throws Exception {
+        final ProtocolResponseMessage responseMessage = createResponseMessage(10);
+        final MessageCodec codec = MessageCodec.forName("compressed");
+
+        final Message message = codec.encode(this.session, responseMessage);
+
+        assertTrue(message instanceof BytesMessage);
+        assertEquals(CompressedMessageCodec.NAME, message.getStringProperty(MessageCodec.CODEC_PROPERTY));
+        final Serializable decoded = codec.decode(message);
+        assertEquals(DEVICE_IDENTIFICATION, ((ProtocolResponseMessage) decoded).getDeviceIdentification());
+        assertSameContent(responseMessage, decoded);
+    }
+
+    @Test
+    public void compressedCodecIsSmallerThanSerialization() throws Exception {
+        final ProtocolResponseMessage responseMessage = createResponseMessage(100);
+
+        final BytesMessage message = (BytesMessage) new CompressedMessageCodec().encode(this.session,
+                responseMessage);
+        message.reset();
+
+        assertTrue(message.getBodyLength() < serialize(responseMessage).length / 2);
+    }
+
+    @Test(expected = MessageFormatException.class)
+    public void compressedCodecRejectsClassNotAllowed() throws Exception {
+        final ArrayList<Serializable> payload = new ArrayList<>();
+        payload.add(new JMSException("Not a platform class"));
+        final MessageCodec codec = MessageCodec.forName("compressed");
+
+        codec.decode(codec.encode(this.session, payload));
+    }
+
+    @Test
+    public void compressedCodecAcceptsArraysOfAllowedClasses() throws Exception {
+        final Serializable payload = new Serializable[] { new String[] { "RTU-001" }, new byte[] { 1, 2 },
+                new DateTime(2019, 3, 1, 12, 0, DateTimeZone.UTC) };
+        final MessageCodec codec = MessageCodec.forName("compressed");
+
+        assertSameContent(payload, codec.decode(codec.encode(this.session, payload)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unknownCodecIsRejected() {
+        MessageCodec.forName("xml");
+    }
+
+    private static ProtocolResponseMessage createResponseMessage(final int numberOfSystems) {
+        final DateTime time = new DateTime(2019, 3, 1, 12, 0, DateTimeZone.UTC);
+        final List<GetDataSystemIdentifierDto> systems = new ArrayList<>();
+        for (int i = 1; i <= numberOfSystems; i++) {
+            final List<MeasurementDto> measurements = new ArrayList<>();
+            measurements.add(new MeasurementDto(1, "ActualPower", (short) 0, time, 12.5 * i));
+            measurements.add(new MeasurementDto(1, "TotalEnergy", (short) 0, time, 1000.0 * i));
+            systems.add(new GetDataSystemIdentifierDto(i, "PV", measurements));
+        }
+        return new ProtocolResponseMessage.Builder().dataObject(new GetDataResponseDto(systems, null))
+                .deviceMessageMetadata(new DeviceMessageMetadata(DEVICE_IDENTIFICATION, "no-organisation",
+                        "no-correlationUid", DeviceFunctionDto.GET_DATA.name(), 0))
+                .result(ResponseMessageResultType.OK).domain("MICROGRIDS").domainVersion("1.0").build();
+    }
+
+    /**
+     * The DTOs do not implement equals, the serialized forms of the objects
+     * are compared instead.
+     */
+    private static void assertSameContent(final Serializable expected, final Serializable actual)
+            throws IOException {
+        assertArrayEquals(serialize(expected), serialize(actual));
+    }
+
+    private static byte[] serialize(final Serializable object) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (final ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.reporting;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.openmuc.openiec61850.ClientEventListener;
+import org.openmuc.openiec61850.Report;
+
+public class Iec61850ReportQueueServiceTest {
+
+    private static final String DEVICE_IDENTIFICATION = "TST-01";
+
+    private final List<String> events = new ArrayList<>();
+
+    private Iec61850ReportQueueService reportQueueService;
+
+    @After
+    public void tearDown() {
+        if (this.reportQueueService != null) {
+            this.reportQueueService.destroy();
+        }
+    }
+
+    @Test
+    public void dropOldestKeepsAssociationClosed() throws Exception {
+        this.reportQueueService = this.createReportQueueService(2, "DROP_OLDEST");
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final ClientEventListener first = this.associated(new RecordingListener("first") {
+            @Override
+            public void newReport(final Report report) {
+                super.newReport(report);
+                processing.countDown();
+                await(proceed);
+            }
+        });
+        final ClientEventListener second = this.associated(new RecordingListener("second"));
+        final ClientEventListener third = this.associated(new RecordingListener("third"));
+
+        first.newReport(null);
+        await(processing);
+        // The queue is full with the closing of the first association and the
+        // report of the second.
+        first.associationClosed(null);
+        second.newReport(null);
+        third.newReport(null);
+        proceed.countDown();
+
+        this.awaitProcessed(3);
+        assertEquals(Arrays.asList("first report", "first closed", "third report"), this.getEvents());
+        assertEquals(1, this.reportQueueService.getDropped());
+    }
+
+    @Test
+    public void dropOldestDropsNewReportWithoutReportsInQueue() throws Exception {
+        this.reportQueueService = this.createReportQueueService(1, "DROP_OLDEST");
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final ClientEventListener first = this.associated(new RecordingListener("first") {
+            @Override
+            public void newReport(final Report report) {
+                super.newReport(report);
+                processing.countDown();
+                await(proceed);
+            }
+        });
+        final ClientEventListener second = this.associated(new RecordingListener("second"));
+
+        first.newReport(null);
+        await(processing);
+        first.associationClosed(null);
+        second.newReport(null);
+        proceed.countDown();
+
+        this.awaitProcessed(2);
+        assertEquals(Arrays.asList("first report", "first closed"), this.getEvents());
+        assertEquals(1, this.reportQueueService.getDropped());
+    }
+
+    @Test
+    public void removesQueueWhenAllAssociationsAreClosed() throws Exception {
+        this.reportQueueService = this.createReportQueueService(10, "BLOCK");
+        final ClientEventListener first = this.associated(new RecordingListener("first"));
+        final ClientEventListener second = this.associated(new RecordingListener("second"));
+
+        first.newReport(null);
+        first.associationClosed(null);
+        this.awaitProcessed(2);
+        assertTrue(this.reportQueueService.getQueueSizePerDevice().containsKey(DEVICE_IDENTIFICATION));
+
+        second.associationClosed(null);
+        // Closing an association twice must not close the other one.
+        second.associationClosed(null);
+        this.awaitProcessed(3);
+        assertTrue(this.reportQueueService.getQueueSizePerDevice().isEmpty());
+    }
+
+    @Test
+    public void doesNotKeepQueueForFailedAssociation() throws Exception {
+        this.reportQueueService = this.createReportQueueService(10, "BLOCK");
+        final ClientEventListener established = this.associated(new RecordingListener("established"));
+        // The listener of an association that could not be established.
+        this.reportQueueService.queueing(DEVICE_IDENTIFICATION, new RecordingListener("failed"));
+
+        established.associationClosed(null);
+        this.awaitProcessed(1);
+        assertTrue(this.reportQueueService.getQueueSizePerDevice().isEmpty());
+    }
+
+    @Test
+    public void processesQueuedEventsWhenDestroyed() throws Exception {
+        this.reportQueueService = this.createReportQueueService(10, "BLOCK");
+        final CountDownLatch processing = new CountDownLatch(1);
+        final CountDownLatch proceed = new CountDownLatch(1);
+        final ClientEventListener listener = this.associated(new RecordingListener("first") {
+            @Override
+            public void newReport(final Report report) {
+                super.newReport(report);
+                processing.countDown();
+                await(proceed);
+            }
+        });
+
+        listener.newReport(null);
+        await(processing);
+        listener.associationClosed(null);
+        proceed.countDown();
+        this.reportQueueService.destroy();
+
+        assertEquals(Arrays.asList("first report", "first closed"), this.getEvents());
+    }
+
+    private ClientEventListener associated(final ClientEventListener reportListener) {
+        final ClientEventListener listener = this.reportQueueService.queueing(DEVICE_IDENTIFICATION, reportListener);
+        this.reportQueueService.associated(listener);
+        return listener;
+    }
+
+    private Iec61850ReportQueueService createReportQueueService(final int capacity, final String overflowPolicy) {
+        final Iec61850ReportQueueService service = new Iec61850ReportQueueService(1, capacity, overflowPolicy);
+        service.init();
+        return service;
+    }
+
+    private void awaitProcessed(final long count) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (this.reportQueueService.getProcessed() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, this.reportQueueService.getProcessed());
+    }
+
+    private List<String> getEvents() {
+        synchronized (this.events) {
+            return new ArrayList<>(this.events);
+        }
+    }
+
+    private static void await(final CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private class RecordingListener implements ClientEventListener {
+
+        private final String name;
+
+        RecordingListener(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void newReport(final Report report) {
+            this.record("report");
+        }
+
+        @Override
+        public void associationClosed(final IOException e) {
+            this.record("closed");
+        }
+
+        private void record(final String event) {
+            synchronized (Iec61850ReportQueueServiceTest.this.events) {
+                Iec61850ReportQueueServiceTest.this.events.add(this.name + " " + event);
+            }
+        }
+    }
+}
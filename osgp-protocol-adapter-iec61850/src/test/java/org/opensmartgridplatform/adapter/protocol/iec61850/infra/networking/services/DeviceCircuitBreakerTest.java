@@ -0,0 +1,83 @@
+/**
+ * Copyright 2019 Smart Society Services B.V.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except in compliance with the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.opensmartgridplatform.adapter.protocol.iec61850.infra.networking.services;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DeviceCircuitBreakerTest {
+
+    private static final long NOW = 1000000L;
+
+    @Test
+    public void opensAfterConsecutiveFailures() {
+        final DeviceCircuitBreaker circuitBreaker = new DeviceCircuitBreaker(3, 1000, 8000);
+
+        circuitBreaker.recordFailure(NOW);
+        circuitBreaker.recordFailure(NOW);
+        assertTrue(circuitBreaker.allowConnect());
+
+        circuitBreaker.recordFailure(NOW);
+        assertFalse(circuitBreaker.allowConnect());
+        assertEquals(DeviceCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(NOW + 1000, circuitBreaker.getOpenUntil());
+    }
+
+    @Test
+    public void successResetsConsecutiveFailures() {
+        final DeviceCircuitBreaker circuitBreaker = new DeviceCircuitBreaker(2, 1000, 8000);
+
+        circuitBreaker.recordFailure(NOW);
+        circuitBreaker.recordSuccess();
+        circuitBreaker.recordFailure(NOW);
+
+        assertTrue(circuitBreaker.allowConnect());
+    }
+
+    @Test
+    public void probesOnceWhenBackoffHasPassed() {
+        final DeviceCircuitBreaker circuitBreaker = new DeviceCircuitBreaker(1, 1000, 8000);
+        circuitBreaker.recordFailure(NOW);
+
+        assertFalse(circuitBreaker.startProbe(NOW + 999));
+        assertTrue(circuitBreaker.startProbe(NOW + 1000));
+        assertEquals(DeviceCircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.startProbe(NOW + 1000));
+        assertFalse(circuitBreaker.allowConnect());
+    }
+
+    @Test
+    public void closesWhenProbeSucceeds() {
+        final DeviceCircuitBreaker circuitBreaker = new DeviceCircuitBreaker(1, 1000, 8000);
+        circuitBreaker.recordFailure(NOW);
+        circuitBreaker.startProbe(NOW + 1000);
+
+        circuitBreaker.recordSuccess();
+
+        assertTrue(circuitBreaker.allowConnect());
+        assertEquals(DeviceCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void doublesBackoffUpToMaximumWhenProbeFails() {
+        final DeviceCircuitBreaker circuitBreaker = new DeviceCircuitBreaker(1, 1000, 3000);
+        circuitBreaker.recordFailure(NOW);
+
+        circuitBreaker.startProbe(NOW + 1000);
+        circuitBreaker.recordFailure(NOW + 1000);
+        assertEquals(DeviceCircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertEquals(NOW + 3000, circuitBreaker.getOpenUntil());
+
+        circuitBreaker.startProbe(NOW + 3000);
+        circuitBreaker.recordFailure(NOW + 3000);
+        assertEquals(NOW + 6000, circuitBreaker.getOpenUntil());
+    }
+}